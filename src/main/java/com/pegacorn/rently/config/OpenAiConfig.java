@@ -1,11 +1,15 @@
 package com.pegacorn.rently.config;
 
+import com.pegacorn.rently.llm.StubChatModel;
 import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.ai.openai.api.OpenAiApi;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.retry.RetryPolicy;
+import org.springframework.core.retry.RetryTemplate;
 
 @Configuration
 public class OpenAiConfig {
@@ -27,15 +31,29 @@ public class OpenAiConfig {
     }
 
     @Bean
+    @ConditionalOnProperty(name = "llm.model", havingValue = "openai", matchIfMissing = true)
     public OpenAiChatModel openAiChatModel(OpenAiApi openAiApi) {
         OpenAiChatOptions options = OpenAiChatOptions.builder()
                 .model(model)
                 .temperature(temperature)
                 .build();
 
+        // LlmGateway owns retries, timeouts and the circuit breaker; retrying inside the model
+        // would hide transient errors from it and outlast its per-attempt timeout
+        RetryPolicy noRetry = error -> false;
         return OpenAiChatModel.builder()
                 .openAiApi(openAiApi)
                 .defaultOptions(options)
+                .retryTemplate(new RetryTemplate(noRetry))
                 .build();
     }
+
+    // Offline model for load tests; never reaches the network
+    @Bean
+    @ConditionalOnProperty(name = "llm.model", havingValue = "stub")
+    public StubChatModel stubChatModel(
+            @Value("${llm.stub.reply:}") String reply,
+            @Value("${llm.stub.latency-ms:800}") long latencyMs) {
+        return new StubChatModel(reply, latencyMs);
+    }
 }
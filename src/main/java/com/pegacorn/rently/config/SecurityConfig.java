@@ -1,7 +1,10 @@
 package com.pegacorn.rently.config;
 
+import com.pegacorn.rently.security.BoundedPasswordEncoder;
 import com.pegacorn.rently.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,8 +16,8 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -28,14 +31,35 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
     private final CorsConfigurationSource corsConfigurationSource;
 
+    // 0 = pick the cost by timing a hash at startup (pin it when nodes differ in CPU)
+    @Value("${password-hashing.bcrypt-strength:0}")
+    private int bcryptStrength;
+
+    @Value("${password-hashing.target-millis:100}")
+    private long bcryptTargetMillis;
+
+    // 0 = half the available cores
+    @Value("${password-hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${password-hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${password-hashing.wait-timeout-ms:5000}")
+    private long hashingWaitTimeoutMs;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource))
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // Streamed responses (exports, SSE) complete with an async re-dispatch that skips the
+                        // JWT filter; the request was already authorized on entry
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/auth/**",
                                 "/ai/**",
@@ -61,6 +85,8 @@ public class SecurityConfig {
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Re-hashes on successful login when the stored cost is below the configured one
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
     }
 
@@ -69,8 +95,14 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
-    @Bean
+    @Bean(destroyMethod = "shutdown")
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = bcryptStrength > 0
+                ? bcryptStrength
+                : BoundedPasswordEncoder.calibrateStrength(bcryptTargetMillis);
+        int threads = hashingThreads > 0
+                ? hashingThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(strength, threads, hashingQueueCapacity, hashingWaitTimeoutMs);
     }
 }
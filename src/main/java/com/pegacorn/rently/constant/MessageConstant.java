@@ -20,6 +20,7 @@ public class MessageConstant {
     public static final String OTP_INVALID_OR_EXPIRED = "Mã OTP không hợp lệ hoặc đã hết hạn";
     public static final String OTP_INVALID = "Mã OTP không hợp lệ";
     public static final String OTP_REQUIRED_FIRST = "Vui lòng xác thực OTP trước";
+    public static final String OTP_TOO_MANY_REQUESTS = "Bạn đã thao tác quá nhiều lần, vui lòng thử lại sau";
     public static final String PASSWORD_MISMATCH = "Mật khẩu không khớp";
     public static final String RETYPE_PASSWORD_MISMATCH = "Mật khẩu nhập lại không khớp";
     public static final String CURRENT_PASSWORD_INCORRECT = "Mật khẩu hiện tại không đúng";
@@ -29,6 +30,8 @@ public class MessageConstant {
     public static final String ID_NUMBER_CONFLICT = "Số CCCD/CMND này đã được sử dụng bởi tài khoản khác";
     public static final String ACCESS_DENIED = "Không có quyền truy cập";
     public static final String NOT_AUTHORIZED = "Không được phép";
+    public static final String AUTH_BUSY = "Hệ thống đang bận, vui lòng thử lại sau";
+    public static final String TOO_MANY_REQUESTS = "Quá nhiều yêu cầu, vui lòng thử lại sau";
 
     // Admin / User Management
     public static final String ACCOUNT_LOCKED_SUCCESS = "Đã khóa tài khoản";
@@ -41,6 +44,10 @@ public class MessageConstant {
     public static final String CANNOT_LOCK_ADMIN = "Không thể khóa tài khoản quản trị viên hệ thống";
     public static final String CANNOT_DELETE_ADMIN = "Không thể xóa tài khoản quản trị viên hệ thống";
     public static final String USER_NOT_DELETED = "Người dùng chưa bị xóa";
+    public static final String INVALID_CURSOR = "Con trỏ phân trang không hợp lệ";
+    public static final String EXPORT_DATASET_INVALID = "Loại dữ liệu xuất không hợp lệ";
+    public static final String EXPORT_FORMAT_INVALID = "Định dạng xuất không hợp lệ";
+    public static final String EXPORT_BUSY = "Đang có quá nhiều yêu cầu xuất dữ liệu, vui lòng thử lại sau";
 
     // Settings
     public static final String SETTING_CREATED = "Đã tạo cài đặt";
@@ -213,6 +220,11 @@ public class MessageConstant {
     public static final String FILE_NOT_IMAGE = "File không phải là hình ảnh: ";
     public static final String FILE_TOO_LARGE = "File quá lớn (tối đa 10MB): ";
     public static final String NO_VALID_IMAGES = "Không có hình ảnh hợp lệ";
+    public static final String AI_SERVICE_BUSY = "Dịch vụ AI đang quá tải, vui lòng thử lại sau";
+    public static final String OCR_JOB_SUBMITTED = "Đã nhận yêu cầu trích xuất, đang xử lý";
+    public static final String OCR_JOB_NOT_FOUND = "Không tìm thấy yêu cầu trích xuất hoặc kết quả đã hết hạn";
+    public static final String OCR_QUEUE_FULL = "Hàng đợi trích xuất hợp đồng đang đầy, vui lòng thử lại sau";
+    public static final String OCR_JOB_FAILED = "Không thể trích xuất hợp đồng, vui lòng thử lại";
 
     // Task
     public static final String TASK_CREATED_SUCCESS = "Đã tạo việc cần làm";
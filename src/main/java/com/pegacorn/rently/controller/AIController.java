@@ -10,9 +10,11 @@ import com.pegacorn.rently.security.UserPrincipal;
 import com.pegacorn.rently.service.AIChatService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/ai")
@@ -29,6 +31,13 @@ public class AIController {
         return ResponseEntity.ok(ApiResponse.success(response, MessageConstant.CHAT_RESPONSE_GENERATED));
     }
 
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatStream(
+            @Valid @RequestBody ChatRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return aiChatService.chatStream(request, principal.getId());
+    }
+
     @PostMapping("/execute")
     public ResponseEntity<ApiResponse<Object>> executeAction(
             @Valid @RequestBody ExecuteActionRequest request,
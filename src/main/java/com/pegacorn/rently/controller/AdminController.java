@@ -1,24 +1,36 @@
 package com.pegacorn.rently.controller;
 
 import com.pegacorn.rently.constant.MessageConstant;
+import com.pegacorn.rently.dto.activity.ActivityLogDto;
 import com.pegacorn.rently.dto.announcement.AnnouncementDto;
 import com.pegacorn.rently.dto.announcement.CreateAnnouncementRequest;
 import com.pegacorn.rently.dto.announcement.UpdateAnnouncementRequest;
 import com.pegacorn.rently.dto.auth.UserDto;
 import com.pegacorn.rently.dto.common.ApiResponse;
+import com.pegacorn.rently.dto.common.CursorPage;
 import com.pegacorn.rently.dto.notification.SendNotificationRequest;
 import com.pegacorn.rently.dto.setting.CreateSettingRequest;
 import com.pegacorn.rently.dto.setting.SystemSettingDto;
 import com.pegacorn.rently.dto.setting.UpdateSettingRequest;
 import com.pegacorn.rently.exception.ApiException;
+import com.pegacorn.rently.llm.LlmGateway;
 import com.pegacorn.rently.security.UserPrincipal;
+import com.pegacorn.rently.service.AdminExportService;
 import com.pegacorn.rently.service.AdminService;
+import com.pegacorn.rently.service.ChatPipelineMetrics;
+import com.pegacorn.rently.service.OcrJobService;
+import com.pegacorn.rently.util.BoundedCache;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -30,15 +42,37 @@ import java.util.Map;
 public class AdminController {
 
     private final AdminService adminService;
+    private final AdminExportService adminExportService;
 
     // ==================== STATS ====================
 
     @GetMapping("/stats")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getSystemStats() {
-        Map<String, Object> stats = adminService.getSystemStats();
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSystemStats(
+            @RequestParam(defaultValue = "false") boolean refresh) {
+        Map<String, Object> stats = adminService.getSystemStats(refresh);
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
 
+    @GetMapping("/stats/caches")
+    public ResponseEntity<ApiResponse<List<BoundedCache.Stats>>> getCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(adminService.getCacheStats()));
+    }
+
+    @GetMapping("/stats/llm")
+    public ResponseEntity<ApiResponse<List<LlmGateway.Stats>>> getLlmStats() {
+        return ResponseEntity.ok(ApiResponse.success(adminService.getLlmStats()));
+    }
+
+    @GetMapping("/stats/ai-pipeline")
+    public ResponseEntity<ApiResponse<List<ChatPipelineMetrics.StageStats>>> getChatPipelineStats() {
+        return ResponseEntity.ok(ApiResponse.success(adminService.getChatPipelineStats()));
+    }
+
+    @GetMapping("/stats/ocr-jobs")
+    public ResponseEntity<ApiResponse<OcrJobService.Stats>> getOcrJobStats() {
+        return ResponseEntity.ok(ApiResponse.success(adminService.getOcrJobStats()));
+    }
+
     // ==================== USERS ====================
 
     @GetMapping("/users")
@@ -53,6 +87,20 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success(users));
     }
 
+    @GetMapping("/users/directory")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getUserDirectory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "false") boolean includeDeleted,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+        Map<String, Object> users = adminService.getUserDirectory(cursor, size, status, role, search,
+                includeDeleted, withTotal);
+        return ResponseEntity.ok(ApiResponse.success(users));
+    }
+
     @GetMapping("/users/{id}")
     public ResponseEntity<ApiResponse<UserDto>> getUser(@PathVariable String id) {
         UserDto user = adminService.getUserById(id);
@@ -99,6 +147,69 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success(null, MessageConstant.ACCOUNT_PERMANENTLY_DELETED_SUCCESS));
     }
 
+    // ==================== PROPERTIES ====================
+
+    @GetMapping("/rooms")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAllRooms(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String houseId,
+            @RequestParam(required = false) String ownerId,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok(ApiResponse.success(
+                adminService.getAllRoomsWithDetailsPaginated(page, size, status, houseId, ownerId, search, sort)));
+    }
+
+    @GetMapping("/contracts")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAllContracts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String houseId,
+            @RequestParam(required = false) String landlordId,
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok(ApiResponse.success(
+                adminService.getAllContractsWithDetailsPaginated(page, size, status, houseId, landlordId, tenantId,
+                        sort)));
+    }
+
+    @GetMapping("/invoices")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAllInvoices(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String periodMonth,
+            @RequestParam(required = false) String houseId,
+            @RequestParam(required = false) String landlordId,
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) String sort) {
+        return ResponseEntity.ok(ApiResponse.success(
+                adminService.getAllInvoicesWithDetailsPaginated(page, size, status, periodMonth, houseId,
+                        landlordId, tenantId, sort)));
+    }
+
+    // ==================== EXPORT ====================
+
+    @GetMapping("/export/{dataset}")
+    public ResponseEntity<StreamingResponseBody> exportDataset(
+            @PathVariable String dataset,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        AdminExportService.Dataset exportDataset = AdminExportService.Dataset.parse(dataset);
+        AdminExportService.Format exportFormat = AdminExportService.Format.parse(format);
+        StreamingResponseBody body = adminExportService.export(exportDataset, exportFormat, gzip, request);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(AdminExportService.fileName(exportDataset, exportFormat, gzip))
+                        .build().toString())
+                .body(body);
+    }
+
     // ==================== ACTIVITY LOGS ====================
 
     @GetMapping("/activity-logs")
@@ -113,6 +224,19 @@ public class AdminController {
                 adminService.getActivityLogsPaginated(page, size, type, userId, startDate, endDate)));
     }
 
+    @GetMapping(value = "/activity-logs", params = "cursor")
+    public ResponseEntity<ApiResponse<CursorPage<ActivityLogDto>>> getActivityLogsByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+        return ResponseEntity.ok(ApiResponse.success(
+                adminService.getActivityLogsAfter(cursor, size, type, userId, startDate, endDate, withTotal)));
+    }
+
     // ==================== SETTINGS ====================
 
     @GetMapping("/settings")
@@ -164,6 +288,14 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping(value = "/announcements", params = "cursor")
+    public ResponseEntity<ApiResponse<CursorPage<AnnouncementDto>>> getAnnouncementsByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+        return ResponseEntity.ok(ApiResponse.success(adminService.getAnnouncementsAfter(cursor, size, withTotal)));
+    }
+
     @GetMapping("/announcements/{id}")
     public ResponseEntity<ApiResponse<AnnouncementDto>> getAnnouncement(@PathVariable String id) {
         AnnouncementDto announcement = adminService.getAnnouncementById(id);
@@ -4,7 +4,9 @@ import com.pegacorn.rently.constant.MessageConstant;
 import com.pegacorn.rently.dto.auth.*;
 import com.pegacorn.rently.dto.common.ApiResponse;
 
+import com.pegacorn.rently.ratelimit.RateLimit;
 import com.pegacorn.rently.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -15,14 +17,16 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/auth")
+@RateLimit(name = "auth", capacity = 20, refillMillis = 3000)
 @RequiredArgsConstructor
 public class AuthController {
 
     private final AuthService authService;
 
     @PostMapping("/register/request-otp")
-    public ResponseEntity<ApiResponse<Void>> requestOtp(@Valid @RequestBody OtpRequest request) {
-        authService.requestOtp(request);
+    public ResponseEntity<ApiResponse<Void>> requestOtp(@Valid @RequestBody OtpRequest request,
+            HttpServletRequest httpRequest) {
+        authService.requestOtp(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(ApiResponse.success(null, MessageConstant.OTP_SENT_SUCCESS));
     }
 
@@ -45,8 +49,9 @@ public class AuthController {
     }
 
     @PostMapping("/forgot/request-otp")
-    public ResponseEntity<ApiResponse<Void>> forgotPasswordOtp(@RequestBody Map<String, String> body) {
-        authService.forgotPasswordOtp(body.get("phone"));
+    public ResponseEntity<ApiResponse<Void>> forgotPasswordOtp(@RequestBody Map<String, String> body,
+            HttpServletRequest httpRequest) {
+        authService.forgotPasswordOtp(body.get("phone"), httpRequest.getRemoteAddr());
         return ResponseEntity.ok(ApiResponse.success(null, MessageConstant.OTP_SENT_SUCCESS));
     }
 
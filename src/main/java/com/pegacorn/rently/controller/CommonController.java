@@ -11,6 +11,7 @@ import com.pegacorn.rently.dto.invoice.InvoiceDto;
 import com.pegacorn.rently.dto.payment.VietQRResponse;
 import com.pegacorn.rently.dto.push.PushNotificationRequest;
 import com.pegacorn.rently.dto.push.PushSubscriptionRequest;
+import com.pegacorn.rently.ratelimit.RateLimit;
 import com.pegacorn.rently.security.UserPrincipal;
 import com.pegacorn.rently.service.AdminService;
 import com.pegacorn.rently.service.AuthService;
@@ -61,12 +62,14 @@ public class CommonController {
     // ==================== PUBLIC INVOICES ====================
 
     @GetMapping("/public/invoices/{id}")
+    @RateLimit(name = "public-invoice", capacity = 30, refillMillis = 2000)
     public ResponseEntity<ApiResponse<InvoiceDto>> getPublicInvoice(@PathVariable String id) {
         InvoiceDto invoice = invoiceService.getPublicInvoice(id);
         return ResponseEntity.ok(ApiResponse.success(invoice));
     }
 
     @GetMapping("/public/invoices/{id}/vietqr")
+    @RateLimit(name = "public-invoice", capacity = 30, refillMillis = 2000)
     public ResponseEntity<ApiResponse<VietQRResponse>> getPublicInvoiceVietQR(@PathVariable String id) {
         VietQRResponse qrData = invoiceService.generateVietQR(id);
         return ResponseEntity.ok(ApiResponse.success(qrData));
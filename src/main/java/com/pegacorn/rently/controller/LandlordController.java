@@ -17,14 +17,18 @@ import com.pegacorn.rently.dto.auth.OtpRequest;
 import com.pegacorn.rently.dto.auth.UserDto;
 import com.pegacorn.rently.dto.auth.VerifyOtpRequest;
 import com.pegacorn.rently.entity.OtpVerification;
+import com.pegacorn.rently.exception.ApiException;
 import com.pegacorn.rently.dto.house.HouseDto;
 import com.pegacorn.rently.dto.house.HouseStatsDto;
+import com.pegacorn.rently.dto.house.RoomGridDto;
 import com.pegacorn.rently.dto.house.UpdateHouseRequest;
 import com.pegacorn.rently.dto.invoice.*;
+import com.pegacorn.rently.dto.ocr.OcrJobDto;
 import com.pegacorn.rently.dto.ocr.ScanContractResponse;
 import com.pegacorn.rently.dto.payment.CashPaymentRequest;
 import com.pegacorn.rently.dto.payment.PaymentDto;
 import com.pegacorn.rently.dto.room.*;
+import com.pegacorn.rently.dto.search.SearchResultDto;
 import com.pegacorn.rently.dto.servicefee.CreateServiceFeeRequest;
 import com.pegacorn.rently.dto.servicefee.ServiceFeeDto;
 import com.pegacorn.rently.dto.servicefee.UpdateServiceFeeRequest;
@@ -37,17 +41,21 @@ import com.pegacorn.rently.dto.ticket.TicketDto;
 import com.pegacorn.rently.dto.ticket.UpdateTicketRequest;
 import com.pegacorn.rently.security.UserPrincipal;
 import com.pegacorn.rently.service.*;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -67,6 +75,7 @@ public class LandlordController {
     private final ExpenseService expenseService;
     private final HouseService houseService;
     private final InvoiceService invoiceService;
+    private final OcrJobService ocrJobService;
     private final OcrService ocrService;
     private final PaymentService paymentService;
     private final RoomService roomService;
@@ -76,6 +85,7 @@ public class LandlordController {
     private final TicketService ticketService;
     private final AuthService authService;
     private final DashboardService dashboardService;
+    private final LandlordSearchService landlordSearchService;
 
     // ==================== DASHBOARD ====================
 
@@ -87,6 +97,17 @@ public class LandlordController {
         return ResponseEntity.ok(ApiResponse.success(summary));
     }
 
+    // ==================== QUICK SEARCH ====================
+
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<SearchResultDto>>> quickSearch(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        List<SearchResultDto> results = landlordSearchService.search(principal.getId(), q, limit);
+        return ResponseEntity.ok(ApiResponse.success(results));
+    }
+
     // ==================== ACTIVITIES ====================
 
     @GetMapping("/activities")
@@ -207,6 +228,21 @@ public class LandlordController {
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
 
+    @GetMapping("/houses/{houseId}/room-grid")
+    public ResponseEntity<ApiResponse<RoomGridDto>> getRoomGrid(
+            @PathVariable String houseId,
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) Integer year,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        RoomGridDto grid = houseService.getRoomGrid(houseId, principal.getId(), month, year);
+        String etag = "\"" + houseService.computeRoomGridEtag(grid) + "\"";
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success(grid));
+    }
+
     @GetMapping("/rooms")
     public ResponseEntity<ApiResponse<List<RoomDto>>> getAllRooms(
             @AuthenticationPrincipal UserPrincipal principal) {
@@ -999,42 +1035,7 @@ public class LandlordController {
     public ResponseEntity<ApiResponse<ScanContractResponse>> scanAndStructureContract(
             @RequestParam("images") List<MultipartFile> images) throws IOException {
         log.info("Received {} images for contract scanning", images.size());
-
-        if (images.isEmpty()) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error(MessageConstant.UPLOAD_AT_LEAST_ONE_IMAGE));
-        }
-
-        if (images.size() > 10) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error(MessageConstant.MAX_10_IMAGES));
-        }
-
-        List<MultipartFile> validImages = new ArrayList<>();
-        for (MultipartFile image : images) {
-            if (image.isEmpty())
-                continue;
-
-            String contentType = image.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                return ResponseEntity.badRequest()
-                        .body(ApiResponse.error(MessageConstant.FILE_NOT_IMAGE + image.getOriginalFilename()));
-            }
-
-            if (image.getSize() > 10 * 1024 * 1024) {
-                return ResponseEntity.badRequest()
-                        .body(ApiResponse.error(MessageConstant.FILE_TOO_LARGE + image.getOriginalFilename()));
-            }
-
-            validImages.add(image);
-        }
-
-        if (validImages.isEmpty()) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error(MessageConstant.NO_VALID_IMAGES));
-        }
-
-        ScanContractResponse result = ocrService.scanAndStructure(validImages);
+        ScanContractResponse result = ocrService.scanAndStructure(validOcrImages(images));
         return ResponseEntity.ok(ApiResponse.success(result, MessageConstant.CONTRACT_EXTRACTED_SUCCESS));
     }
 
@@ -1042,15 +1043,53 @@ public class LandlordController {
     public ResponseEntity<ApiResponse<com.pegacorn.rently.dto.ocr.ExtractContractDataResponse>> extractContractData(
             @RequestParam("images") List<MultipartFile> images) throws IOException {
         log.info("Received {} images for contract data extraction", images.size());
+        var result = ocrService.extractContractData(validOcrImages(images));
+        return ResponseEntity.ok(ApiResponse.success(result, MessageConstant.CONTRACT_DATA_EXTRACTED_SUCCESS));
+    }
+
+    // Queued variants: return the job at once, then poll /ocr/jobs/{id} or listen on /ocr/jobs/{id}/events
 
+    @PostMapping(value = "/ocr/jobs/scan-and-structure", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<OcrJobDto>> submitScanAndStructureJob(
+            @RequestParam("images") List<MultipartFile> images,
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+        OcrJobDto job = ocrJobService.submit(OcrJobService.JobType.SCAN_AND_STRUCTURE,
+                validOcrImages(images), principal.getId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(job, MessageConstant.OCR_JOB_SUBMITTED));
+    }
+
+    @PostMapping(value = "/ocr/jobs/extract-contract-data", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<OcrJobDto>> submitExtractContractDataJob(
+            @RequestParam("images") List<MultipartFile> images,
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+        OcrJobDto job = ocrJobService.submit(OcrJobService.JobType.EXTRACT_CONTRACT_DATA,
+                validOcrImages(images), principal.getId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(job, MessageConstant.OCR_JOB_SUBMITTED));
+    }
+
+    @GetMapping("/ocr/jobs/{id}")
+    public ResponseEntity<ApiResponse<OcrJobDto>> getOcrJob(
+            @PathVariable String id,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(ApiResponse.success(ocrJobService.getJob(id, principal.getId())));
+    }
+
+    @GetMapping(value = "/ocr/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter ocrJobEvents(
+            @PathVariable String id,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ocrJobService.subscribe(id, principal.getId());
+    }
+
+    private static List<MultipartFile> validOcrImages(List<MultipartFile> images) {
         if (images.isEmpty()) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error(MessageConstant.UPLOAD_AT_LEAST_ONE_IMAGE));
+            throw ApiException.badRequest(MessageConstant.UPLOAD_AT_LEAST_ONE_IMAGE);
         }
 
         if (images.size() > 10) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error(MessageConstant.MAX_10_IMAGES));
+            throw ApiException.badRequest(MessageConstant.MAX_10_IMAGES);
         }
 
         List<MultipartFile> validImages = new ArrayList<>();
@@ -1060,25 +1099,20 @@ public class LandlordController {
 
             String contentType = image.getContentType();
             if (contentType == null || !contentType.startsWith("image/")) {
-                return ResponseEntity.badRequest()
-                        .body(ApiResponse.error(MessageConstant.FILE_NOT_IMAGE + image.getOriginalFilename()));
+                throw ApiException.badRequest(MessageConstant.FILE_NOT_IMAGE + image.getOriginalFilename());
             }
 
             if (image.getSize() > 10 * 1024 * 1024) {
-                return ResponseEntity.badRequest()
-                        .body(ApiResponse.error(MessageConstant.FILE_TOO_LARGE + image.getOriginalFilename()));
+                throw ApiException.badRequest(MessageConstant.FILE_TOO_LARGE + image.getOriginalFilename());
             }
 
             validImages.add(image);
         }
 
         if (validImages.isEmpty()) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error(MessageConstant.NO_VALID_IMAGES));
+            throw ApiException.badRequest(MessageConstant.NO_VALID_IMAGES);
         }
-
-        var result = ocrService.extractContractData(validImages);
-        return ResponseEntity.ok(ApiResponse.success(result, MessageConstant.CONTRACT_DATA_EXTRACTED_SUCCESS));
+        return validImages;
     }
 
     // ==================== TASKS ====================
@@ -1143,12 +1177,13 @@ public class LandlordController {
     }
 
     @PostMapping("/users/otp/request")
-    public ResponseEntity<ApiResponse<Void>> requestTenantOtp(@RequestBody OtpRequest request) {
+    public ResponseEntity<ApiResponse<Void>> requestTenantOtp(@RequestBody OtpRequest request,
+            HttpServletRequest httpRequest) {
         // Force type to TENANT_VERIFICATION to prevent misuse
         OtpRequest secureRequest = new OtpRequest(
                 request.phone(),
                 OtpVerification.OtpType.TENANT_VERIFICATION);
-        authService.requestOtp(secureRequest);
+        authService.requestOtp(secureRequest, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(ApiResponse.success(null, MessageConstant.OTP_SENT_SUCCESS));
     }
 
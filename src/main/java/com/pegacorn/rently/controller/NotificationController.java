@@ -1,6 +1,7 @@
 package com.pegacorn.rently.controller;
 
 import com.pegacorn.rently.dto.common.ApiResponse;
+import com.pegacorn.rently.dto.common.CursorPage;
 import com.pegacorn.rently.dto.notification.NotificationDto;
 import com.pegacorn.rently.dto.notification.RegisterPushTokenRequest;
 import com.pegacorn.rently.security.UserPrincipal;
@@ -35,6 +36,20 @@ public class NotificationController {
         return ResponseEntity.ok(ApiResponse.success(notifications));
     }
 
+    // Same URL with ?cursor= (empty for the first page) switches to keyset pagination
+    @GetMapping(params = "cursor")
+    public ResponseEntity<ApiResponse<CursorPage<NotificationDto>>> getNotificationsByCursor(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        CursorPage<NotificationDto> notifications = notificationService.getNotificationsAfter(
+                userPrincipal.getId(), cursor, size, withTotal
+        );
+        return ResponseEntity.ok(ApiResponse.success(notifications));
+    }
+
     @GetMapping("/unread")
     public ResponseEntity<ApiResponse<List<NotificationDto>>> getUnreadNotifications(
             @AuthenticationPrincipal UserPrincipal userPrincipal
@@ -58,6 +58,15 @@ public record DataRequirementDto(
         GENERAL_CHAT     // General conversation
     }
 
+    public DataRequirementDto withIntentSummary(String summary) {
+        return new DataRequirementDto(
+            queryType, needHouses, needRooms, houseNameFilter, needContracts, roomCodeFilter,
+            needInvoices, invoiceMonth, invoiceYear, needExpenses, expenseMonth, expenseYear,
+            needMeterReadings, meterRoomCode, meterPeriod,
+            isSimpleQuestion, isActionRequest, actionType, isOffTopic, summary
+        );
+    }
+
     // Builder for convenience
     public static DataRequirementDto simpleQuestion(String intent) {
         return new DataRequirementDto(
@@ -0,0 +1,22 @@
+package com.pegacorn.rently.dto.common;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. Pass nextCursor back as "cursor" to get the following page;
+ * totalElements is only filled in when requested and may be an estimate (see totalExact).
+ */
+public record CursorPage<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        String nextCursor,
+        Long totalElements,
+        Boolean totalExact
+) {
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(content.stream().map(mapper).toList(), size, hasNext, nextCursor,
+                totalElements, totalExact);
+    }
+}
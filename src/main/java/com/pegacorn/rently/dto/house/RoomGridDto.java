@@ -0,0 +1,28 @@
+package com.pegacorn.rently.dto.house;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Compact per-room view of a house for a billing period.
+ * Combines room status, occupancy, debt, meter reading and invoice state
+ * so the landlord's main screen needs a single request.
+ */
+public record RoomGridDto(
+        String houseId,
+        String periodMonth,
+        List<RoomCell> rooms
+) {
+    public record RoomCell(
+            String id,
+            String code,
+            int floor,
+            String status,
+            int tenantCount,
+            Integer maxTenants,
+            BigDecimal debt,
+            boolean hasMeterReading,
+            String invoiceId,
+            String invoiceStatus
+    ) {}
+}
@@ -0,0 +1,19 @@
+package com.pegacorn.rently.dto.ocr;
+
+import java.time.LocalDateTime;
+
+/**
+ * A queued OCR request. {@code result} is a {@link ScanContractResponse} or an
+ * {@link ExtractContractDataResponse} depending on {@code type}, and is set once
+ * {@code status} is SUCCEEDED; {@code error} is set when it is FAILED.
+ */
+public record OcrJobDto(
+    String id,
+    String type,
+    String status,
+    int pages,
+    Object result,
+    String error,
+    LocalDateTime createdAt,
+    LocalDateTime finishedAt
+) {}
@@ -0,0 +1,27 @@
+package com.pegacorn.rently.dto.search;
+
+import com.pegacorn.rently.search.LandlordSearchIndex;
+
+public record SearchResultDto(
+        String type,
+        String id,
+        String key,
+        String title,
+        String subtitle,
+        String houseId,
+        String roomId,
+        int score
+) {
+    public static SearchResultDto fromHit(LandlordSearchIndex.Hit hit) {
+        LandlordSearchIndex.Doc doc = hit.doc();
+        return new SearchResultDto(
+                doc.type().name(),
+                doc.id(),
+                doc.key(),
+                doc.title(),
+                doc.subtitle(),
+                doc.houseId(),
+                doc.roomId(),
+                hit.score());
+    }
+}
@@ -1,5 +1,6 @@
 package com.pegacorn.rently.entity;
 
+import com.pegacorn.rently.event.EntityChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,6 +16,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(EntityChangeListener.class)
 @Table(name = "contracts")
 public class Contract {
     @Id
@@ -0,0 +1,49 @@
+package com.pegacorn.rently.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "financial_monthly_rollups")
+public class FinancialMonthlyRollup {
+    @Id
+    @Column(name = "period_month", length = 7)
+    private String periodMonth; // Format: YYYY-MM
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(name = "payment_count", nullable = false)
+    private long paymentCount;
+
+    @Column(name = "invoice_count", nullable = false)
+    private long invoiceCount;
+
+    @Column(name = "total_billed", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalBilled;
+
+    @Column(name = "total_paid", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalPaid;
+
+    @Column(name = "paid_invoices", nullable = false)
+    private long paidInvoices;
+
+    @Column(name = "unpaid_invoices", nullable = false)
+    private long unpaidInvoices;
+
+    @Column(name = "overdue_invoices", nullable = false)
+    private long overdueInvoices;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+}
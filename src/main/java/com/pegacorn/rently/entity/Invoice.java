@@ -1,5 +1,6 @@
 package com.pegacorn.rently.entity;
 
+import com.pegacorn.rently.event.EntityChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,6 +17,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(EntityChangeListener.class)
 @Table(name = "invoices")
 public class Invoice {
     @Id
@@ -1,5 +1,6 @@
 package com.pegacorn.rently.entity;
 
+import com.pegacorn.rently.event.EntityChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,6 +15,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(EntityChangeListener.class)
 @Table(name = "meter_readings")
 public class MeterReading {
     @Id
@@ -1,5 +1,6 @@
 package com.pegacorn.rently.entity;
 
+import com.pegacorn.rently.event.EntityChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,6 +16,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(EntityChangeListener.class)
 @Table(name = "users")
 public class User {
     @Id
@@ -79,6 +81,10 @@ public class User {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
 
+    // Access tokens carry this as the "ver" claim; bumping it revokes them
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
     // Bank account settings for VietQR payment
     @Column(name = "bank_name", length = 50)
     private String bankName;
@@ -0,0 +1,26 @@
+package com.pegacorn.rently.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that republishes entity writes as {@link EntityChangedEvent}.
+ * Bulk JPQL updates bypass JPA callbacks, so services doing those publish the event themselves.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        eventPublisher.publishEvent(new EntityChangedEvent(entity));
+    }
+}
@@ -0,0 +1,8 @@
+package com.pegacorn.rently.event;
+
+/**
+ * Published whenever a tracked entity is inserted, updated or deleted.
+ * Used to keep in-memory views (search index, caches) in sync with the database.
+ */
+public record EntityChangedEvent(Object entity) {
+}
@@ -4,16 +4,27 @@ import org.springframework.http.HttpStatus;
 
 public class ApiException extends RuntimeException {
     private final HttpStatus status;
+    // Sent as Retry-After when set
+    private final Long retryAfterSeconds;
 
     public ApiException(String message, HttpStatus status) {
+        this(message, status, null);
+    }
+
+    public ApiException(String message, HttpStatus status, Long retryAfterSeconds) {
         super(message);
         this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
     }
 
     public HttpStatus getStatus() {
         return status;
     }
 
+    public Long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
     public static ApiException badRequest(String message) {
         return new ApiException(message, HttpStatus.BAD_REQUEST);
     }
@@ -33,4 +44,18 @@ public class ApiException extends RuntimeException {
     public static ApiException conflict(String message) {
         return new ApiException(message, HttpStatus.CONFLICT);
     }
+
+    public static ApiException tooManyRequests(String message) {
+        return new ApiException(message, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    public static ApiException tooManyRequests(String message, long retryAfterMillis) {
+        long seconds = Math.max(1, (retryAfterMillis + 999) / 1000);
+        return new ApiException(message, HttpStatus.TOO_MANY_REQUESTS, seconds);
+    }
+
+    public static ApiException serviceUnavailable(String message, long retryAfterMillis) {
+        long seconds = Math.max(1, (retryAfterMillis + 999) / 1000);
+        return new ApiException(message, HttpStatus.SERVICE_UNAVAILABLE, seconds);
+    }
 }
@@ -0,0 +1,70 @@
+package com.pegacorn.rently.llm;
+
+/**
+ * Consecutive-failure circuit breaker. After failureThreshold transient failures in a row the
+ * circuit opens and calls are refused for openMillis; then a single probe is let through and
+ * its outcome closes or re-opens the circuit.
+ */
+class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    synchronized boolean allowRequest() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+        probeInFlight = false;
+    }
+
+    // An admitted request that never reached the model (e.g. bulkhead full)
+    synchronized void onAbandoned() {
+        probeInFlight = false;
+    }
+
+    synchronized long retryAfterMillis() {
+        return state == State.OPEN
+                ? Math.max(0, openMillis - (System.currentTimeMillis() - openedAt))
+                : 0;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
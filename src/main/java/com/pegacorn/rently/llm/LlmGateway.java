@@ -0,0 +1,422 @@
+package com.pegacorn.rently.llm;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.content.Media;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The only way to reach the chat model. Each {@link LlmUseCase} gets its own lane:
+ * <ul>
+ *   <li>a bulkhead (semaphore) capping concurrent upstream calls; callers wait up to
+ *   acquire-timeout-ms and are then refused. A call that timed out keeps its permit until the
+ *   upstream request actually ends,</li>
+ *   <li>a per-attempt timeout and an overall deadline, after which the call is cancelled,</li>
+ *   <li>retries with exponential backoff and jitter on transient errors (network, 429, 5xx),
+ *   as long as the deadline allows,</li>
+ *   <li>a {@link CircuitBreaker} that refuses calls immediately while the upstream is failing.</li>
+ * </ul>
+ * Identical blocking calls in flight at the same time share one model call. Refusals surface
+ * as {@link LlmUnavailableException} so callers can answer with a fallback right away. The
+ * model itself must not retry (see OpenAiConfig), so every upstream request passes through here.
+ */
+@Component
+@Slf4j
+public class LlmGateway {
+
+    private final ChatModel chatModel;
+    private final Map<LlmUseCase, Lane> lanes = new EnumMap<>(LlmUseCase.class);
+    private final ConcurrentMap<String, CompletableFuture<ChatResponse>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService callExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public record Stats(String useCase, String circuitState, int inFlight, int maxConcurrent,
+                        long calls, long failures, long timeouts, long rejected, long shortCircuited,
+                        long retries, long coalesced, long avgLatencyMs, long maxLatencyMs,
+                        long promptTokens, long completionTokens) {
+    }
+
+    private static final class Lane {
+        final LlmUseCase useCase;
+        final Semaphore bulkhead;
+        final int maxConcurrent;
+        final long acquireTimeoutMs;
+        final long attemptTimeoutMs;
+        final long deadlineMs;
+        final int maxAttempts;
+        final long backoffMs;
+        final boolean coalesce;
+        final CircuitBreaker breaker;
+
+        final AtomicInteger active = new AtomicInteger();
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder shortCircuited = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder coalesced = new LongAdder();
+        final LongAdder latencyMs = new LongAdder();
+        final LongAccumulator maxLatencyMs = new LongAccumulator(Math::max, 0);
+        final LongAdder promptTokens = new LongAdder();
+        final LongAdder completionTokens = new LongAdder();
+
+        Lane(LlmUseCase useCase, Environment environment, Defaults defaults) {
+            String prefix = "llm." + useCase.key() + ".";
+            this.useCase = useCase;
+            this.maxConcurrent = environment.getProperty(prefix + "max-concurrent", Integer.class, defaults.maxConcurrent());
+            this.acquireTimeoutMs = environment.getProperty(prefix + "acquire-timeout-ms", Long.class, defaults.acquireTimeoutMs());
+            this.attemptTimeoutMs = environment.getProperty(prefix + "attempt-timeout-ms", Long.class, defaults.attemptTimeoutMs());
+            this.deadlineMs = environment.getProperty(prefix + "deadline-ms", Long.class, defaults.deadlineMs());
+            this.maxAttempts = environment.getProperty(prefix + "max-attempts", Integer.class, 2);
+            this.backoffMs = environment.getProperty(prefix + "backoff-ms", Long.class, 500L);
+            this.coalesce = environment.getProperty(prefix + "coalesce", Boolean.class, true);
+            this.breaker = new CircuitBreaker(
+                    environment.getProperty(prefix + "breaker.failure-threshold", Integer.class, 5),
+                    environment.getProperty(prefix + "breaker.open-ms", Long.class, 30_000L));
+            this.bulkhead = new Semaphore(maxConcurrent, true);
+        }
+
+        void recordSuccess(long startNanos, ChatResponse response) {
+            calls.increment();
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            latencyMs.add(elapsed);
+            maxLatencyMs.accumulate(elapsed);
+            Usage usage = response != null && response.getMetadata() != null ? response.getMetadata().getUsage() : null;
+            if (usage != null) {
+                promptTokens.add(usage.getPromptTokens() != null ? usage.getPromptTokens() : 0);
+                completionTokens.add(usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0);
+            }
+        }
+
+        void recordFailure(Throwable error) {
+            calls.increment();
+            failures.increment();
+            if (error instanceof LlmUnavailableException unavailable
+                    && unavailable.getReason() == LlmUnavailableException.Reason.TIMEOUT) {
+                timeouts.increment();
+            }
+        }
+
+        Stats stats() {
+            long done = calls.sum();
+            return new Stats(useCase.key(), breaker.state().name(), active.get(), maxConcurrent,
+                    done, failures.sum(), timeouts.sum(), rejected.sum(), shortCircuited.sum(),
+                    retries.sum(), coalesced.sum(), done == 0 ? 0 : latencyMs.sum() / done, maxLatencyMs.get(),
+                    promptTokens.sum(), completionTokens.sum());
+        }
+    }
+
+    private record Defaults(int maxConcurrent, long acquireTimeoutMs, long attemptTimeoutMs, long deadlineMs) {
+    }
+
+    public LlmGateway(ChatModel chatModel, Environment environment) {
+        this.chatModel = chatModel;
+        // Vision calls are few but slow; chat calls are many and short
+        lanes.put(LlmUseCase.CHAT, new Lane(LlmUseCase.CHAT, environment, new Defaults(16, 2_000, 30_000, 60_000)));
+        lanes.put(LlmUseCase.OCR, new Lane(LlmUseCase.OCR, environment, new Defaults(4, 5_000, 120_000, 180_000)));
+        log.info("LLM gateway using {}", chatModel.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        callExecutor.shutdownNow();
+    }
+
+    /**
+     * Blocking call within the use case's limits. Throws {@link LlmUnavailableException} when
+     * the call is refused or runs out of time; other errors are the model's own.
+     */
+    public ChatResponse call(LlmUseCase useCase, Prompt prompt) {
+        Lane lane = lanes.get(useCase);
+        String key = lane.coalesce ? useCase.key() + ":" + fingerprint(prompt) : null;
+        CompletableFuture<ChatResponse> own = new CompletableFuture<>();
+        CompletableFuture<ChatResponse> leader = key != null ? inFlight.putIfAbsent(key, own) : null;
+        if (leader != null) {
+            lane.coalesced.increment();
+            return await(lane, leader, lane.deadlineMs);
+        }
+        try {
+            ChatResponse response = execute(lane, prompt);
+            own.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (key != null) {
+                inFlight.remove(key, own);
+            }
+        }
+    }
+
+    /**
+     * Streaming call: admitted through the breaker and bulkhead on subscribe, holds its permit
+     * until the stream ends and is cut off at the deadline, however steadily chunks arrive.
+     * Not retried or shared, since the caller may already have forwarded part of the answer.
+     */
+    public Flux<ChatResponse> stream(LlmUseCase useCase, Prompt prompt) {
+        Lane lane = lanes.get(useCase);
+        return Flux.defer(() -> {
+            allow(lane);
+            acquire(lane);
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(lane.deadlineMs);
+            // Each chunk waits only for what is left of the overall deadline
+            Mono<Long> deadlineReached = Mono.defer(() ->
+                    Mono.delay(Duration.ofNanos(Math.max(0, deadline - System.nanoTime()))));
+            AtomicReference<ChatResponse> last = new AtomicReference<>();
+            return chatModel.stream(prompt)
+                    .timeout(deadlineReached, chunk -> deadlineReached)
+                    .onErrorMap(TimeoutException.class,
+                            e -> new LlmUnavailableException(lane.useCase, LlmUnavailableException.Reason.TIMEOUT, 0))
+                    .doOnNext(last::set)
+                    .doOnComplete(() -> {
+                        lane.recordSuccess(start, last.get());
+                        lane.breaker.onSuccess();
+                    })
+                    .doOnError(e -> {
+                        lane.recordFailure(e);
+                        if (isTransient(e)) {
+                            lane.breaker.onFailure();
+                        } else {
+                            lane.breaker.onSuccess();
+                        }
+                    })
+                    .doOnCancel(lane.breaker::onAbandoned)
+                    .doFinally(signal -> release(lane));
+        });
+    }
+
+    public List<Stats> stats() {
+        List<Stats> stats = new ArrayList<>();
+        lanes.values().forEach(lane -> stats.add(lane.stats()));
+        return stats;
+    }
+
+    private ChatResponse execute(Lane lane, Prompt prompt) {
+        allow(lane);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(lane.deadlineMs);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ChatResponse response = attempt(lane, prompt, deadline);
+                lane.recordSuccess(start, response);
+                lane.breaker.onSuccess();
+                return response;
+            } catch (RuntimeException e) {
+                // A full bulkhead never reached the model; acquire() already told the breaker
+                if (e instanceof LlmUnavailableException unavailable
+                        && unavailable.getReason() == LlmUnavailableException.Reason.BULKHEAD_FULL) {
+                    throw e;
+                }
+                if (!retryOrRecord(lane, e, attempt, deadline)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Sleeps the backoff and returns true when the failed attempt should be retried
+    private boolean retryOrRecord(Lane lane, RuntimeException e, int attempt, long deadline) {
+        boolean transientError = isTransient(e);
+        long backoff = backoffMillis(lane, attempt);
+        boolean retry = transientError
+                && attempt < lane.maxAttempts
+                && System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) < deadline;
+        if (!retry) {
+            lane.recordFailure(e);
+            if (transientError) {
+                lane.breaker.onFailure();
+            } else {
+                // The upstream answered; the request itself was bad
+                lane.breaker.onSuccess();
+            }
+            return false;
+        }
+        lane.retries.increment();
+        log.warn("LLM {} attempt {} failed, retrying in {}ms: {}",
+                lane.useCase.key(), attempt, backoff, e.getMessage());
+        sleep(backoff);
+        return true;
+    }
+
+    // Open circuit refuses before anything waits for a permit
+    private void allow(Lane lane) {
+        if (!lane.breaker.allowRequest()) {
+            lane.shortCircuited.increment();
+            throw new LlmUnavailableException(lane.useCase, LlmUnavailableException.Reason.CIRCUIT_OPEN,
+                    lane.breaker.retryAfterMillis());
+        }
+    }
+
+    private void acquire(Lane lane) {
+        boolean acquired;
+        try {
+            acquired = lane.bulkhead.tryAcquire(lane.acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            lane.breaker.onAbandoned();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an LLM slot", e);
+        }
+        if (!acquired) {
+            lane.breaker.onAbandoned();
+            lane.rejected.increment();
+            log.warn("LLM {} bulkhead full ({} in flight)", lane.useCase.key(), lane.active.get());
+            throw new LlmUnavailableException(lane.useCase, LlmUnavailableException.Reason.BULKHEAD_FULL,
+                    lane.acquireTimeoutMs);
+        }
+        lane.active.incrementAndGet();
+    }
+
+    private void release(Lane lane) {
+        lane.active.decrementAndGet();
+        lane.bulkhead.release();
+    }
+
+    /**
+     * One upstream request on its own permit. The permit is released by the request itself, so
+     * one that times out here and ignores the interrupt still counts against the bulkhead.
+     */
+    private ChatResponse attempt(Lane lane, Prompt prompt, long deadline) {
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        acquire(lane);
+        Future<ChatResponse> future;
+        try {
+            future = callExecutor.submit(() -> {
+                try {
+                    return chatModel.call(prompt);
+                } finally {
+                    release(lane);
+                }
+            });
+        } catch (RuntimeException e) {
+            release(lane);
+            throw e;
+        }
+        try {
+            return future.get(Math.min(lane.attemptTimeoutMs, Math.max(0, remainingMs)), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new LlmUnavailableException(lane.useCase, LlmUnavailableException.Reason.TIMEOUT, 0);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the LLM", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    // A caller sharing another caller's call still gives up at its own deadline
+    private ChatResponse await(Lane lane, CompletableFuture<ChatResponse> leader, long timeoutMs) {
+        try {
+            return leader.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new LlmUnavailableException(lane.useCase, LlmUnavailableException.Reason.TIMEOUT, 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the LLM", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        return e.getCause() instanceof RuntimeException runtimeException
+                ? runtimeException
+                : new IllegalStateException(e.getCause());
+    }
+
+    private static long backoffMillis(Lane lane, int attempt) {
+        long base = lane.backoffMs << Math.min(attempt - 1, 10);
+        return base + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during LLM retry backoff", e);
+        }
+    }
+
+    static boolean isTransient(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof LlmUnavailableException unavailable) {
+                return unavailable.getReason() == LlmUnavailableException.Reason.TIMEOUT;
+            }
+            if (t instanceof TransientAiException || t instanceof ResourceAccessException || t instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Hash of every message's type, text and attached media, so images coalesce only when identical
+    private static String fingerprint(Prompt prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Message message : prompt.getInstructions()) {
+                digest.update(message.getMessageType().name().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                if (message.getText() != null) {
+                    digest.update(message.getText().getBytes(StandardCharsets.UTF_8));
+                }
+                digest.update((byte) 0);
+                if (message instanceof UserMessage userMessage) {
+                    for (Media media : userMessage.getMedia()) {
+                        digest.update(media.getMimeType().toString().getBytes(StandardCharsets.UTF_8));
+                        Object data = media.getData();
+                        digest.update(data instanceof byte[] bytes
+                                ? bytes
+                                : String.valueOf(data).getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            if (prompt.getOptions() != null) {
+                digest.update(prompt.getOptions().toString().getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.pegacorn.rently.llm;
+
+/**
+ * Thrown by {@link LlmGateway} when a call is refused or abandoned without a model answer.
+ * Callers turn it into a fast fallback instead of an error page.
+ */
+public class LlmUnavailableException extends RuntimeException {
+
+    public enum Reason { CIRCUIT_OPEN, BULKHEAD_FULL, TIMEOUT }
+
+    private final LlmUseCase useCase;
+    private final Reason reason;
+    private final long retryAfterMillis;
+
+    public LlmUnavailableException(LlmUseCase useCase, Reason reason, long retryAfterMillis) {
+        super("LLM " + useCase.key() + " unavailable: " + reason);
+        this.useCase = useCase;
+        this.reason = reason;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public LlmUseCase getUseCase() {
+        return useCase;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,21 @@
+package com.pegacorn.rently.llm;
+
+/**
+ * Callers of the model that get their own concurrency limit, deadline and circuit breaker,
+ * so a burst of slow OCR scans cannot starve the chat assistant and vice versa.
+ * Settings live under {@code llm.<key>.*}.
+ */
+public enum LlmUseCase {
+    CHAT("chat"),
+    OCR("ocr");
+
+    private final String key;
+
+    LlmUseCase(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+}
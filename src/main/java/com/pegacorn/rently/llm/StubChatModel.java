@@ -0,0 +1,67 @@
+package com.pegacorn.rently.llm;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Offline model for load tests ({@code llm.model: stub}): answers every prompt with a fixed
+ * reply after a fixed latency and reports token usage estimated from text length, so the
+ * gateway's bulkheads, deadlines and metrics behave as they would against the real API.
+ */
+public class StubChatModel implements ChatModel {
+
+    private static final int CHARS_PER_TOKEN = 3;
+    private static final int STREAM_CHUNK_CHARS = 16;
+    // Parses as a chat answer, so the whole chat pipeline can run against the stub
+    private static final String DEFAULT_REPLY =
+            "{\"message\": \"Phản hồi giả lập\", \"actionType\": null, \"actionData\": null}";
+
+    private final String reply;
+    private final long latencyMs;
+
+    public StubChatModel(String reply, long latencyMs) {
+        this.reply = reply == null || reply.isBlank() ? DEFAULT_REPLY : reply;
+        this.latencyMs = latencyMs;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while simulating model latency", e);
+        }
+        return response(prompt, reply);
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < reply.length(); i += STREAM_CHUNK_CHARS) {
+            chunks.add(reply.substring(i, Math.min(reply.length(), i + STREAM_CHUNK_CHARS)));
+        }
+        Duration perChunk = Duration.ofMillis(latencyMs / Math.max(1, chunks.size()));
+        return Flux.fromIterable(chunks)
+                .delayElements(perChunk)
+                .map(chunk -> response(prompt, chunk));
+    }
+
+    static ChatResponse response(Prompt prompt, String text) {
+        int promptTokens = prompt.getContents().length() / CHARS_PER_TOKEN;
+        int completionTokens = text.length() / CHARS_PER_TOKEN;
+        return new ChatResponse(
+                List.of(new Generation(new AssistantMessage(text))),
+                ChatResponseMetadata.builder().usage(new DefaultUsage(promptTokens, completionTokens)).build());
+    }
+}
@@ -0,0 +1,99 @@
+package com.pegacorn.rently.otp;
+
+import com.pegacorn.rently.entity.OtpVerification;
+import com.pegacorn.rently.repository.OtpVerificationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Codes in the otp_verifications table, shared by every node.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "database")
+@RequiredArgsConstructor
+public class DatabaseOtpStore implements OtpStore {
+
+    private static final int PURGE_CHUNK_SIZE = 1000;
+
+    private final OtpVerificationRepository otpVerificationRepository;
+
+    @Override
+    @Transactional
+    public void issue(String phone, OtpVerification.OtpType type, String code, Duration ttl) {
+        otpVerificationRepository.deleteByPhoneAndType(phone, type);
+        LocalDateTime now = LocalDateTime.now();
+        otpVerificationRepository.save(OtpVerification.builder()
+                .id(UUID.randomUUID().toString())
+                .phone(phone)
+                .otpCode(code)
+                .type(type)
+                .expiresAt(now.plus(ttl))
+                .verified(false)
+                .createdAt(now)
+                .build());
+    }
+
+    @Override
+    @Transactional
+    public VerifyResult verify(String phone, OtpVerification.OtpType type, String code) {
+        Optional<OtpVerification> otp = otpVerificationRepository
+                .findLatestUnverifiedOtp(phone, type, LocalDateTime.now());
+        if (otp.isEmpty()) {
+            return VerifyResult.EXPIRED;
+        }
+        if (!matches(otp.get(), code)) {
+            return VerifyResult.MISMATCH;
+        }
+        otpVerificationRepository.markAsVerified(otp.get().getId());
+        return VerifyResult.VALID;
+    }
+
+    @Override
+    public boolean isVerified(String phone, OtpVerification.OtpType type, String code) {
+        return otpVerificationRepository.findLatestVerifiedOtp(phone, type, LocalDateTime.now())
+                .map(otp -> matches(otp, code))
+                .orElse(false);
+    }
+
+    @Override
+    public Optional<LocalDateTime> lastIssuedAt(String phone, OtpVerification.OtpType type) {
+        return otpVerificationRepository.findLatestByPhoneAndType(phone, type)
+                .map(OtpVerification::getCreatedAt);
+    }
+
+    @Override
+    @Transactional
+    public void clear(String phone) {
+        otpVerificationRepository.deleteByPhone(phone);
+    }
+
+    /**
+     * Deletes in chunks, each in its own short transaction, so cleanup never holds locks on
+     * a large range of the table.
+     */
+    @Override
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = otpVerificationRepository.deleteExpiredOrUsedChunk(now, PURGE_CHUNK_SIZE);
+            total += deleted;
+        } while (deleted == PURGE_CHUNK_SIZE);
+        return total;
+    }
+
+    private static boolean matches(OtpVerification otp, String code) {
+        return code != null && MessageDigest.isEqual(
+                otp.getOtpCode().getBytes(StandardCharsets.UTF_8), code.getBytes(StandardCharsets.UTF_8));
+    }
+}
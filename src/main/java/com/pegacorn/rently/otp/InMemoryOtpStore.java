@@ -0,0 +1,139 @@
+package com.pegacorn.rently.otp;
+
+import com.pegacorn.rently.entity.OtpVerification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps codes in memory, so issuing and checking a code costs no database round trip.
+ * Expiry is handled by a timing wheel: each code is filed under the one-second slot in which
+ * it expires and the slot is swept when the wheel reaches it. Codes are lost on restart and
+ * not shared between nodes; use the database store when running more than one instance.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final long TICK_MILLIS = 1000;
+    // 10 minute horizon; codes living longer wrap around and are re-filed when their slot comes up
+    private static final int WHEEL_SLOTS = 600;
+
+    private record Key(String phone, OtpVerification.OtpType type) {
+    }
+
+    private record Entry(byte[] code, long issuedAt, long expiresAt, boolean verified) {
+    }
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Key>[] wheel;
+    private volatile long sweptTick = currentTick();
+
+    @SuppressWarnings("unchecked")
+    public InMemoryOtpStore() {
+        wheel = new Set[WHEEL_SLOTS];
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+    }
+
+    @Override
+    public void issue(String phone, OtpVerification.OtpType type, String code, Duration ttl) {
+        long now = System.currentTimeMillis();
+        Key key = new Key(phone, type);
+        Entry entry = new Entry(code.getBytes(StandardCharsets.UTF_8), now, now + ttl.toMillis(), false);
+        entries.put(key, entry);
+        schedule(key, entry.expiresAt());
+    }
+
+    @Override
+    public VerifyResult verify(String phone, OtpVerification.OtpType type, String code) {
+        VerifyResult[] result = {VerifyResult.EXPIRED};
+        long now = System.currentTimeMillis();
+        entries.computeIfPresent(new Key(phone, type), (key, entry) -> {
+            if (entry.verified() || entry.expiresAt() <= now) {
+                return entry;
+            }
+            if (!matches(entry, code)) {
+                result[0] = VerifyResult.MISMATCH;
+                return entry;
+            }
+            result[0] = VerifyResult.VALID;
+            return new Entry(entry.code(), entry.issuedAt(), entry.expiresAt(), true);
+        });
+        return result[0];
+    }
+
+    @Override
+    public boolean isVerified(String phone, OtpVerification.OtpType type, String code) {
+        Entry entry = entries.get(new Key(phone, type));
+        return entry != null && entry.verified() && entry.expiresAt() > System.currentTimeMillis()
+                && matches(entry, code);
+    }
+
+    @Override
+    public Optional<LocalDateTime> lastIssuedAt(String phone, OtpVerification.OtpType type) {
+        return Optional.ofNullable(entries.get(new Key(phone, type)))
+                .map(entry -> LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.issuedAt()), ZoneId.systemDefault()));
+    }
+
+    @Override
+    public void clear(String phone) {
+        for (OtpVerification.OtpType type : OtpVerification.OtpType.values()) {
+            entries.remove(new Key(phone, type));
+        }
+    }
+
+    @Override
+    public int purgeExpired() {
+        // The wheel already removes codes as they expire
+        return 0;
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    void advanceWheel() {
+        long now = System.currentTimeMillis();
+        long target = currentTick();
+        // Never sweep more than one revolution, e.g. after a long GC pause
+        long from = Math.max(sweptTick + 1, target - WHEEL_SLOTS + 1);
+        for (long tick = from; tick <= target; tick++) {
+            Set<Key> slot = wheel[(int) (tick % WHEEL_SLOTS)];
+            for (Key key : List.copyOf(slot)) {
+                slot.remove(key);
+                Entry remaining = entries.computeIfPresent(key, (k, entry) -> entry.expiresAt() <= now ? null : entry);
+                if (remaining != null) {
+                    // Re-issued or not due yet: file it under its (new) expiry
+                    schedule(key, remaining.expiresAt());
+                }
+            }
+        }
+        sweptTick = target;
+    }
+
+    private void schedule(Key key, long expiresAt) {
+        // First tick at which the code is past its expiry
+        long tick = Math.max(expiresAt / TICK_MILLIS + 1, sweptTick + 1);
+        wheel[(int) (tick % WHEEL_SLOTS)].add(key);
+    }
+
+    private static long currentTick() {
+        return System.currentTimeMillis() / TICK_MILLIS;
+    }
+
+    // Constant-time, so response timing does not reveal how many leading digits were right
+    private static boolean matches(Entry entry, String code) {
+        return code != null && MessageDigest.isEqual(entry.code(), code.getBytes(StandardCharsets.UTF_8));
+    }
+}
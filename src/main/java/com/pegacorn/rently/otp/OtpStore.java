@@ -0,0 +1,46 @@
+package com.pegacorn.rently.otp;
+
+import com.pegacorn.rently.entity.OtpVerification;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Where one-time codes live between sending and checking. At most one code is pending per
+ * phone and type. Select the implementation with {@code otp.store}: {@code memory} (default,
+ * single node) or {@code database} (shared by all nodes).
+ */
+public interface OtpStore {
+
+    enum VerifyResult {
+        VALID, MISMATCH, EXPIRED
+    }
+
+    /**
+     * Stores a new code for phone/type, replacing any previous one.
+     */
+    void issue(String phone, OtpVerification.OtpType type, String code, Duration ttl);
+
+    /**
+     * Checks a pending (not yet verified) code and marks it verified when it matches.
+     */
+    VerifyResult verify(String phone, OtpVerification.OtpType type, String code);
+
+    /**
+     * True when the code was verified earlier and has not expired yet.
+     */
+    boolean isVerified(String phone, OtpVerification.OtpType type, String code);
+
+    /**
+     * When the current code for phone/type was issued, used for the resend cooldown.
+     */
+    Optional<LocalDateTime> lastIssuedAt(String phone, OtpVerification.OtpType type);
+
+    void clear(String phone);
+
+    /**
+     * Removes expired and used codes; returns how many were removed.
+     */
+    int purgeExpired();
+}
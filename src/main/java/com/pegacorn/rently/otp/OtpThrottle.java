@@ -0,0 +1,60 @@
+package com.pegacorn.rently.otp;
+
+import com.pegacorn.rently.constant.MessageConstant;
+import com.pegacorn.rently.exception.ApiException;
+import com.pegacorn.rently.util.TokenBucketLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Token-bucket limits on OTP traffic: sends per phone and per client IP (SMS cost, spam) and
+ * verification attempts per phone (guessing a 6-digit code). Buckets are per node.
+ */
+@Component
+public class OtpThrottle {
+
+    private static final int MAX_KEYS = 100_000;
+
+    private final TokenBucketLimiter sendsPerPhone;
+    private final TokenBucketLimiter sendsPerIp;
+    private final TokenBucketLimiter verifiesPerPhone;
+
+    public OtpThrottle(
+            @Value("${otp.throttle.phone-burst:5}") int phoneBurst,
+            @Value("${otp.throttle.phone-refill-minutes:12}") long phoneRefillMinutes,
+            @Value("${otp.throttle.ip-burst:20}") int ipBurst,
+            @Value("${otp.throttle.ip-refill-minutes:3}") long ipRefillMinutes,
+            @Value("${otp.throttle.verify-burst:5}") int verifyBurst,
+            @Value("${otp.throttle.verify-refill-seconds:60}") long verifyRefillSeconds) {
+        this.sendsPerPhone = new TokenBucketLimiter(phoneBurst, Duration.ofMinutes(phoneRefillMinutes), MAX_KEYS);
+        this.sendsPerIp = new TokenBucketLimiter(ipBurst, Duration.ofMinutes(ipRefillMinutes), MAX_KEYS);
+        this.verifiesPerPhone = new TokenBucketLimiter(verifyBurst, Duration.ofSeconds(verifyRefillSeconds), MAX_KEYS);
+    }
+
+    public void checkSend(String phone, String clientIp) {
+        if (clientIp != null) {
+            reject(sendsPerIp.tryAcquire(clientIp));
+        }
+        reject(sendsPerPhone.tryAcquire(phone));
+    }
+
+    public void checkVerify(String phone) {
+        reject(verifiesPerPhone.tryAcquire(phone));
+    }
+
+    @Scheduled(fixedDelay = 5 * 60 * 1000)
+    void evictIdleBuckets() {
+        sendsPerPhone.evictIdle();
+        sendsPerIp.evictIdle();
+        verifiesPerPhone.evictIdle();
+    }
+
+    private static void reject(long retryAfterMillis) {
+        if (retryAfterMillis > 0) {
+            throw ApiException.tooManyRequests(MessageConstant.OTP_TOO_MANY_REQUESTS, retryAfterMillis);
+        }
+    }
+}
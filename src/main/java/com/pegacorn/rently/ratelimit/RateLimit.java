@@ -0,0 +1,36 @@
+package com.pegacorn.rently.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Throttles a controller method (or every method of a controller) with a token bucket per
+ * caller. The values here are defaults; {@code rate-limit.<name>.capacity},
+ * {@code rate-limit.<name>.refill-millis} and {@code rate-limit.<name>.enabled} override them.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RateLimit {
+
+    enum KeyType {
+        // Client IP address
+        IP,
+        // Authenticated user id, falling back to the IP for anonymous calls
+        USER
+    }
+
+    // Policy name: buckets are not shared between policies
+    String name();
+
+    KeyType key() default KeyType.IP;
+
+    // Burst size
+    int capacity();
+
+    // One token is returned per interval
+    long refillMillis();
+}
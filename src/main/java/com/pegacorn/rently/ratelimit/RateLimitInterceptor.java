@@ -0,0 +1,58 @@
+package com.pegacorn.rently.ratelimit;
+
+import com.pegacorn.rently.constant.MessageConstant;
+import com.pegacorn.rently.exception.ApiException;
+import com.pegacorn.rently.security.UserPrincipal;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Applies {@link RateLimit} before the handler runs; a rejected call gets 429 with Retry-After.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiterRegistry registry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async dispatches (e.g. completing an SSE response) were already counted
+        if (request.getDispatcherType() == DispatcherType.ASYNC
+                || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        RateLimit limit = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), RateLimit.class);
+        if (limit == null) {
+            limit = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RateLimit.class);
+        }
+        if (limit == null) {
+            return true;
+        }
+
+        long retryAfterMillis = registry.tryAcquire(limit.name(), limit.capacity(), limit.refillMillis(),
+                callerKey(limit.key(), request));
+        if (retryAfterMillis > 0) {
+            throw ApiException.tooManyRequests(MessageConstant.TOO_MANY_REQUESTS, retryAfterMillis);
+        }
+        return true;
+    }
+
+    private static String callerKey(RateLimit.KeyType keyType, HttpServletRequest request) {
+        if (keyType == RateLimit.KeyType.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+                return "u:" + principal.getId();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
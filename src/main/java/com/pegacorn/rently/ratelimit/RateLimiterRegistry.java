@@ -0,0 +1,65 @@
+package com.pegacorn.rently.ratelimit;
+
+import com.pegacorn.rently.util.TokenBucketLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * One {@link TokenBucketLimiter} per named policy, created on first use with limits taken
+ * from {@code rate-limit.<name>.*} or the supplied defaults. Idle buckets are evicted
+ * periodically so the key space only holds recently active callers.
+ */
+@Component
+public class RateLimiterRegistry {
+
+    private final Environment environment;
+    private final int maxKeysPerPolicy;
+    private final ConcurrentMap<String, Policy> policies = new ConcurrentHashMap<>();
+
+    private record Policy(boolean enabled, TokenBucketLimiter limiter) {
+    }
+
+    public RateLimiterRegistry(
+            Environment environment,
+            @Value("${rate-limit.max-keys-per-policy:50000}") int maxKeysPerPolicy) {
+        this.environment = environment;
+        this.maxKeysPerPolicy = maxKeysPerPolicy;
+    }
+
+    /**
+     * Takes a token from the caller's bucket. Returns 0 when allowed, otherwise the
+     * milliseconds until the caller may retry.
+     */
+    public long tryAcquire(String name, int defaultCapacity, long defaultRefillMillis, String callerKey) {
+        Policy policy = policies.computeIfAbsent(name, n -> createPolicy(n, defaultCapacity, defaultRefillMillis));
+        return policy.enabled() ? policy.limiter().tryAcquire(callerKey) : 0;
+    }
+
+    // Active bucket count per policy
+    public Map<String, Integer> sizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        policies.forEach((name, policy) -> sizes.put(name, policy.limiter().size()));
+        return sizes;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    void evictIdle() {
+        policies.values().forEach(policy -> policy.limiter().evictIdle());
+    }
+
+    private Policy createPolicy(String name, int defaultCapacity, long defaultRefillMillis) {
+        String prefix = "rate-limit." + name + ".";
+        boolean enabled = environment.getProperty(prefix + "enabled", Boolean.class, true);
+        int capacity = environment.getProperty(prefix + "capacity", Integer.class, defaultCapacity);
+        long refillMillis = environment.getProperty(prefix + "refill-millis", Long.class, defaultRefillMillis);
+        return new Policy(enabled, new TokenBucketLimiter(capacity, Duration.ofMillis(refillMillis), maxKeysPerPolicy));
+    }
+}
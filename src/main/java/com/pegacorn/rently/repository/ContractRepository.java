@@ -2,6 +2,7 @@ package com.pegacorn.rently.repository;
 
 import com.pegacorn.rently.entity.Contract;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,7 +11,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ContractRepository extends JpaRepository<Contract, String> {
+public interface ContractRepository extends JpaRepository<Contract, String>, JpaSpecificationExecutor<Contract> {
 
     List<Contract> findByLandlordId(String landlordId);
 
@@ -0,0 +1,14 @@
+package com.pegacorn.rently.repository;
+
+import com.pegacorn.rently.entity.FinancialMonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FinancialMonthlyRollupRepository extends JpaRepository<FinancialMonthlyRollup, String> {
+
+    // YYYY-MM strings sort chronologically, so BETWEEN selects a month range
+    List<FinancialMonthlyRollup> findByPeriodMonthBetween(String fromMonth, String toMonth);
+}
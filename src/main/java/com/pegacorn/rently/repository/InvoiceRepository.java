@@ -2,14 +2,18 @@ package com.pegacorn.rently.repository;
 
 import com.pegacorn.rently.entity.Invoice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface InvoiceRepository extends JpaRepository<Invoice, String> {
+public interface InvoiceRepository extends JpaRepository<Invoice, String>, JpaSpecificationExecutor<Invoice> {
 
     List<Invoice> findByContractId(String contractId);
 
@@ -28,6 +32,9 @@ public interface InvoiceRepository extends JpaRepository<Invoice, String> {
     @Query("SELECT i FROM Invoice i JOIN Contract c ON c.id = i.contractId JOIN Room r ON r.id = c.roomId WHERE r.houseId = :houseId")
     List<Invoice> findByHouseId(@Param("houseId") String houseId);
 
+    @Query("SELECT c.roomId AS roomId, i.id AS invoiceId, i.status AS status, i.createdAt AS createdAt FROM Invoice i JOIN Contract c ON c.id = i.contractId JOIN Room r ON r.id = c.roomId WHERE r.houseId = :houseId AND i.periodMonth = :periodMonth AND i.invoiceType = 'NORMAL' AND i.status <> 'CANCELLED'")
+    List<RoomInvoiceStatus> findRoomInvoiceStatusByHouseIdAndPeriod(@Param("houseId") String houseId, @Param("periodMonth") String periodMonth);
+
     @Query("SELECT i FROM Invoice i JOIN Contract c ON c.id = i.contractId WHERE c.landlordId = :landlordId AND i.periodMonth = :periodMonth")
     List<Invoice> findByLandlordIdAndPeriodMonth(@Param("landlordId") String landlordId, @Param("periodMonth") String periodMonth);
 
@@ -39,4 +46,33 @@ public interface InvoiceRepository extends JpaRepository<Invoice, String> {
 
     @Query("SELECT i.contractId FROM Invoice i WHERE i.periodMonth = :periodMonth AND i.status <> 'CANCELLED'")
     List<String> findContractIdsWithInvoiceForPeriod(@Param("periodMonth") String periodMonth);
+
+    @Query("SELECT YEAR(i.createdAt) AS year, MONTH(i.createdAt) AS month, i.status AS status, COUNT(i) AS invoiceCount, COALESCE(SUM(i.totalAmount), 0) AS billed, COALESCE(SUM(i.paidAmount), 0) AS paid, SUM(CASE WHEN i.status = 'SENT' AND i.dueDate < :today THEN 1 ELSE 0 END) AS overdueCount FROM Invoice i WHERE i.createdAt >= :from AND i.createdAt < :to GROUP BY YEAR(i.createdAt), MONTH(i.createdAt), i.status")
+    List<MonthlyInvoiceTotals> sumByMonthAndStatus(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, @Param("today") LocalDate today);
+
+    interface RoomInvoiceStatus {
+        String getRoomId();
+
+        String getInvoiceId();
+
+        Invoice.InvoiceStatus getStatus();
+
+        LocalDateTime getCreatedAt();
+    }
+
+    interface MonthlyInvoiceTotals {
+        Integer getYear();
+
+        Integer getMonth();
+
+        Invoice.InvoiceStatus getStatus();
+
+        long getInvoiceCount();
+
+        BigDecimal getBilled();
+
+        BigDecimal getPaid();
+
+        Long getOverdueCount();
+    }
 }
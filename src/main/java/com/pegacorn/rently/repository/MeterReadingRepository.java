@@ -2,6 +2,8 @@ package com.pegacorn.rently.repository;
 
 import com.pegacorn.rently.entity.MeterReading;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,4 +19,7 @@ public interface MeterReadingRepository extends JpaRepository<MeterReading, Stri
     List<MeterReading> findByRoomIdOrderByPeriodMonthDesc(String roomId);
 
     List<MeterReading> findByRoomIdInAndPeriodMonth(List<String> roomIds, String periodMonth);
+
+    @Query("SELECT m.roomId FROM MeterReading m JOIN Room r ON r.id = m.roomId WHERE r.houseId = :houseId AND m.periodMonth = :periodMonth")
+    List<String> findRoomIdsByHouseIdAndPeriodMonth(@Param("houseId") String houseId, @Param("periodMonth") String periodMonth);
 }
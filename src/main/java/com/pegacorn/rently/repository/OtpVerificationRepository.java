@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -27,9 +28,12 @@ public interface OtpVerificationRepository extends JpaRepository<OtpVerification
             @Param("type") OtpVerification.OtpType type,
             @Param("now") LocalDateTime now);
 
+    // One bounded chunk per call; the caller loops until fewer than limit rows are deleted
     @Modifying
-    @Query("DELETE FROM OtpVerification o WHERE o.expiresAt < :now OR o.verified = true")
-    void deleteExpiredOrUsedOtps(@Param("now") LocalDateTime now);
+    @Transactional
+    @Query(value = "DELETE FROM otp_verifications WHERE expires_at < :now OR verified = true LIMIT :limit",
+            nativeQuery = true)
+    int deleteExpiredOrUsedChunk(@Param("now") LocalDateTime now, @Param("limit") int limit);
 
     @Modifying
     @Query("DELETE FROM OtpVerification o WHERE o.phone = :phone")
@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,4 +27,17 @@ public interface PaymentRepository extends JpaRepository<Payment, String> {
     List<Payment> findByLandlordId(@Param("landlordId") String landlordId);
 
     Optional<Payment> findBySepayTransactionId(String sepayTransactionId);
+
+    @Query("SELECT YEAR(p.createdAt) AS year, MONTH(p.createdAt) AS month, COUNT(p) AS paymentCount, COALESCE(SUM(p.amount), 0) AS revenue FROM Payment p WHERE p.createdAt >= :from AND p.createdAt < :to GROUP BY YEAR(p.createdAt), MONTH(p.createdAt)")
+    List<MonthlyPaymentTotals> sumByMonth(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    interface MonthlyPaymentTotals {
+        Integer getYear();
+
+        Integer getMonth();
+
+        long getPaymentCount();
+
+        BigDecimal getRevenue();
+    }
 }
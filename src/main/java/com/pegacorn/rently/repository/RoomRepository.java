@@ -4,6 +4,7 @@ import com.pegacorn.rently.entity.Room;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,10 +14,12 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface RoomRepository extends JpaRepository<Room, String> {
+public interface RoomRepository extends JpaRepository<Room, String>, JpaSpecificationExecutor<Room> {
 
     List<Room> findByHouseId(String houseId);
 
+    List<Room> findByHouseIdOrderByFloorAscCodeAsc(String houseId);
+
     Page<Room> findByHouseIdOrderByCodeAsc(String houseId, Pageable pageable);
 
     List<Room> findByHouseIdAndStatus(String houseId, Room.RoomStatus status);
@@ -28,6 +31,9 @@ public interface RoomRepository extends JpaRepository<Room, String> {
     @Query("SELECT COALESCE(SUM(i.totalAmount - i.paidAmount), 0) FROM Invoice i JOIN Contract c ON c.id = i.contractId WHERE c.roomId = :roomId AND i.status NOT IN ('PAID', 'CANCELLED')")
     BigDecimal calculateDebtByRoomId(@Param("roomId") String roomId);
 
+    @Query("SELECT c.roomId AS roomId, COALESCE(SUM(i.totalAmount - i.paidAmount), 0) AS debt FROM Invoice i JOIN Contract c ON c.id = i.contractId JOIN Room r ON r.id = c.roomId WHERE r.houseId = :houseId AND i.status NOT IN ('PAID', 'CANCELLED') GROUP BY c.roomId")
+    List<RoomDebt> sumDebtByHouseIdGroupByRoom(@Param("houseId") String houseId);
+
     @Query("SELECT r FROM Room r JOIN RoomTenant rt ON rt.roomId = r.id WHERE rt.userId = :userId AND rt.leftAt IS NULL")
     List<Room> findByTenantUserId(@Param("userId") String userId);
 
@@ -35,4 +41,10 @@ public interface RoomRepository extends JpaRepository<Room, String> {
 
     @Query("SELECT r FROM Room r JOIN House h ON h.id = r.houseId WHERE h.ownerId = :ownerId")
     List<Room> findAllByLandlordId(@Param("ownerId") String ownerId);
+
+    interface RoomDebt {
+        String getRoomId();
+
+        BigDecimal getDebt();
+    }
 }
@@ -1,12 +1,16 @@
 package com.pegacorn.rently.repository;
 
 import com.pegacorn.rently.entity.RoomTenant;
+import com.pegacorn.rently.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -56,6 +60,55 @@ public interface RoomTenantRepository extends JpaRepository<RoomTenant, String>
         @Query("SELECT rt FROM RoomTenant rt WHERE rt.roomId IN :roomIds AND rt.leftAt IS NULL")
         List<RoomTenant> findActiveByRoomIds(@Param("roomIds") List<String> roomIds);
 
+        // Landlord tenant list: house filter, search and paging are all applied in the
+        // database. Search relies on the utf8mb4_unicode_ci collation for case and
+        // accent insensitive matching.
+        @Query(value = "SELECT rt.id AS id, rt.userId AS userId, u.fullName AS fullName, u.phone AS phone, "
+                        +
+                        "u.idNumber AS idNumber, u.idIssueDate AS idIssueDate, u.idIssuePlace AS idIssuePlace, "
+                        +
+                        "u.gender AS gender, u.dateOfBirth AS dateOfBirth, u.placeOfOrigin AS placeOfOrigin, "
+                        +
+                        "rt.isPrimary AS isPrimary, rt.joinedAt AS joinedAt, "
+                        +
+                        "r.id AS roomId, r.code AS roomCode, r.floor AS roomFloor, "
+                        +
+                        "h.id AS houseId, h.name AS houseName, h.address AS houseAddress "
+                        +
+                        "FROM RoomTenant rt JOIN Room r ON r.id = rt.roomId JOIN House h ON h.id = r.houseId "
+                        +
+                        "JOIN User u ON u.id = rt.userId "
+                        +
+                        "WHERE h.ownerId = :ownerId AND rt.leftAt IS NULL "
+                        +
+                        "AND (:houseId IS NULL OR h.id = :houseId) "
+                        +
+                        "AND (:search IS NULL OR u.fullName LIKE :search OR u.phone LIKE :search "
+                        +
+                        "OR u.idNumber LIKE :search OR r.code LIKE :search OR h.name LIKE :search) "
+                        +
+                        "ORDER BY h.name ASC, r.code ASC, rt.joinedAt ASC, rt.id ASC",
+                        countQuery = "SELECT COUNT(rt) FROM RoomTenant rt JOIN Room r ON r.id = rt.roomId "
+                                        +
+                                        "JOIN House h ON h.id = r.houseId JOIN User u ON u.id = rt.userId "
+                                        +
+                                        "WHERE h.ownerId = :ownerId AND rt.leftAt IS NULL "
+                                        +
+                                        "AND (:houseId IS NULL OR h.id = :houseId) "
+                                        +
+                                        "AND (:search IS NULL OR u.fullName LIKE :search OR u.phone LIKE :search "
+                                        +
+                                        "OR u.idNumber LIKE :search OR r.code LIKE :search OR h.name LIKE :search)")
+        Page<TenantListRow> searchActiveTenantsByOwner(@Param("ownerId") String ownerId,
+                        @Param("houseId") String houseId,
+                        @Param("search") String search,
+                        Pageable pageable);
+
+        @Query("SELECT rt.roomId AS roomId, COUNT(rt) AS tenantCount FROM RoomTenant rt JOIN Room r ON r.id = rt.roomId "
+                        +
+                        "WHERE r.houseId = :houseId AND rt.leftAt IS NULL GROUP BY rt.roomId")
+        List<RoomTenantCount> countActiveByHouseIdGroupByRoom(@Param("houseId") String houseId);
+
         List<RoomTenant> findByRoomIdAndLeftAtIsNull(String roomId);
 
         @Query("SELECT rt FROM RoomTenant rt WHERE rt.roomId = :roomId AND rt.isPrimary = true AND rt.leftAt IS NULL")
@@ -65,4 +118,48 @@ public interface RoomTenantRepository extends JpaRepository<RoomTenant, String>
                         "WHERE rt.userId = u.id AND rt.roomId = r.id AND r.houseId = h.id " +
                         "AND u.phone = :phone AND h.ownerId = :ownerId AND rt.leftAt IS NULL")
         boolean isTenantOfLandlord(@Param("phone") String phone, @Param("ownerId") String ownerId);
+
+        interface RoomTenantCount {
+                String getRoomId();
+
+                long getTenantCount();
+        }
+
+        interface TenantListRow {
+                String getId();
+
+                String getUserId();
+
+                String getFullName();
+
+                String getPhone();
+
+                String getIdNumber();
+
+                LocalDate getIdIssueDate();
+
+                String getIdIssuePlace();
+
+                User.Gender getGender();
+
+                LocalDate getDateOfBirth();
+
+                String getPlaceOfOrigin();
+
+                boolean getIsPrimary();
+
+                LocalDateTime getJoinedAt();
+
+                String getRoomId();
+
+                String getRoomCode();
+
+                int getRoomFloor();
+
+                String getHouseId();
+
+                String getHouseName();
+
+                String getHouseAddress();
+        }
 }
@@ -1,12 +1,15 @@
 package com.pegacorn.rently.repository;
 
 import com.pegacorn.rently.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +26,76 @@ public interface UserRepository extends JpaRepository<User, String>, JpaSpecific
 
     Optional<User> findByIdNumber(String idNumber);
 
+    @Query("SELECT u.tokenVersion AS tokenVersion, u.status AS status FROM User u WHERE u.id = :id")
+    Optional<TokenState> findTokenStateById(@Param("id") String id);
+
+    interface TokenState {
+        int getTokenVersion();
+
+        User.UserStatus getStatus();
+    }
+
     @Query("SELECT u FROM User u JOIN RoomTenant rt ON rt.userId = u.id WHERE rt.roomId = :roomId AND rt.leftAt IS NULL")
     List<User> findTenantsByRoomId(@Param("roomId") String roomId);
+
+    @Query("SELECT u.status AS status, COUNT(u) AS total FROM User u GROUP BY u.status")
+    List<StatusCount> countGroupByStatus();
+
+    interface StatusCount {
+        User.UserStatus getStatus();
+
+        long getTotal();
+    }
+
+    // Admin directory filter. nameQuery is a BOOLEAN MODE expression served by the ngram
+    // full-text index; namePrefix/phonePrefix are LIKE patterns anchored at the start.
+    String DIRECTORY_FILTER = " WHERE (:includeDeleted = TRUE OR u.status <> 'DELETED')"
+            + " AND (:status IS NULL OR u.status = :status)"
+            + " AND (:role IS NULL OR EXISTS (SELECT 1 FROM user_roles ur WHERE ur.user_id = u.id AND ur.role = :role))"
+            + " AND (:nameQuery IS NULL OR MATCH(u.full_name) AGAINST (:nameQuery IN BOOLEAN MODE))"
+            + " AND (:namePrefix IS NULL OR u.full_name LIKE :namePrefix)"
+            + " AND (:phonePrefix IS NULL OR u.phone LIKE :phonePrefix)";
+
+    @Query(value = "SELECT u.* FROM users u" + DIRECTORY_FILTER + " ORDER BY u.created_at DESC, u.id DESC",
+            countQuery = "SELECT COUNT(*) FROM users u" + DIRECTORY_FILTER,
+            nativeQuery = true)
+    Page<User> searchDirectory(@Param("includeDeleted") boolean includeDeleted,
+                               @Param("status") String status,
+                               @Param("role") String role,
+                               @Param("nameQuery") String nameQuery,
+                               @Param("namePrefix") String namePrefix,
+                               @Param("phonePrefix") String phonePrefix,
+                               Pageable pageable);
+
+    @Query(value = "SELECT u.* FROM users u" + DIRECTORY_FILTER
+            + " AND (:cursorCreatedAt IS NULL OR u.created_at < :cursorCreatedAt"
+            + " OR (u.created_at = :cursorCreatedAt AND u.id < :cursorId))"
+            + " ORDER BY u.created_at DESC, u.id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<User> findDirectoryAfter(@Param("includeDeleted") boolean includeDeleted,
+                                  @Param("status") String status,
+                                  @Param("role") String role,
+                                  @Param("nameQuery") String nameQuery,
+                                  @Param("namePrefix") String namePrefix,
+                                  @Param("phonePrefix") String phonePrefix,
+                                  @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                  @Param("cursorId") String cursorId,
+                                  @Param("limit") int limit);
+
+    // Counts at most :cap matches so the total stays cheap on large tables
+    @Query(value = "SELECT COUNT(*) FROM (SELECT 1 FROM users u" + DIRECTORY_FILTER + " LIMIT :cap) capped",
+            nativeQuery = true)
+    long countDirectoryCapped(@Param("includeDeleted") boolean includeDeleted,
+                              @Param("status") String status,
+                              @Param("role") String role,
+                              @Param("nameQuery") String nameQuery,
+                              @Param("namePrefix") String namePrefix,
+                              @Param("phonePrefix") String phonePrefix,
+                              @Param("cap") int cap);
+
+    // InnoDB statistics estimate, used when an unfiltered count would hit the cap
+    @Query(value = "SELECT TABLE_ROWS FROM information_schema.TABLES"
+            + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'users'",
+            nativeQuery = true)
+    Long estimateRowCount();
 }
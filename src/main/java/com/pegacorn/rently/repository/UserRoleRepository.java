@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,7 +18,18 @@ public interface UserRoleRepository extends JpaRepository<UserRole, String> {
     @Query("SELECT ur.role FROM UserRole ur WHERE ur.userId = :userId")
     List<User.Role> findRolesByUserId(@Param("userId") String userId);
 
+    List<UserRole> findByUserIdIn(Collection<String> userIds);
+
     boolean existsByUserIdAndRole(String userId, User.Role role);
 
     void deleteByUserId(String userId);
+
+    @Query("SELECT ur.role AS role, COUNT(DISTINCT ur.userId) AS total FROM UserRole ur GROUP BY ur.role")
+    List<RoleCount> countUsersGroupByRole();
+
+    interface RoleCount {
+        User.Role getRole();
+
+        long getTotal();
+    }
 }
@@ -0,0 +1,81 @@
+package com.pegacorn.rently.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Suffix trie over digit strings (phone and ID numbers). Every suffix is inserted,
+ * so walking the query digits from the root finds all numbers containing them.
+ * Depth is capped; longer queries are matched on their first {@code maxDepth}
+ * digits and must be verified by the caller.
+ */
+final class DigitTrie {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Node root = new Node();
+    private final int maxDepth;
+
+    DigitTrie(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    void add(String digits, int docId) {
+        for (int start = 0; start < digits.length(); start++) {
+            Node node = root;
+            int end = Math.min(digits.length(), start + maxDepth);
+            for (int i = start; i < end; i++) {
+                node = node.child(digits.charAt(i) - '0');
+                node.add(docId);
+            }
+        }
+    }
+
+    int[] find(String digits) {
+        Node node = root;
+        int end = Math.min(digits.length(), maxDepth);
+        for (int i = 0; i < end && node != null; i++) {
+            node = node.children != null ? node.children[digits.charAt(i) - '0'] : null;
+        }
+        return node != null ? node.docs : EMPTY;
+    }
+
+    void freeze() {
+        root.freeze();
+    }
+
+    private static final class Node {
+        private Node[] children;
+        private List<Integer> pending = new ArrayList<>();
+        private int[] docs = EMPTY;
+
+        Node child(int digit) {
+            if (children == null) {
+                children = new Node[10];
+            }
+            if (children[digit] == null) {
+                children[digit] = new Node();
+            }
+            return children[digit];
+        }
+
+        void add(int docId) {
+            // Suffixes of the same number hit a node in docId order, so a tail check dedups
+            if (pending.isEmpty() || pending.get(pending.size() - 1) != docId) {
+                pending.add(docId);
+            }
+        }
+
+        void freeze() {
+            docs = pending.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+            pending = null;
+            if (children != null) {
+                for (Node child : children) {
+                    if (child != null) {
+                        child.freeze();
+                    }
+                }
+            }
+        }
+    }
+}
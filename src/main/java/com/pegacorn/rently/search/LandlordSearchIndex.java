@@ -0,0 +1,275 @@
+package com.pegacorn.rently.search;
+
+import com.pegacorn.rently.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable in-memory search index over one landlord's portfolio.
+ * Text fields are diacritic-folded and indexed by 1-2 character prefixes
+ * (short typeahead queries) and trigrams (infix matching); phone and ID
+ * numbers go into a digit suffix trie for partial-number lookups.
+ */
+public final class LandlordSearchIndex {
+
+    private static final int NGRAM = 3;
+    private static final int MAX_DIGIT_DEPTH = 12;
+    private static final int MIN_DIGIT_QUERY = 3;
+    private static final int[] EMPTY = new int[0];
+    private static final Pattern NUMERIC_QUERY = Pattern.compile("[0-9\\s.+()-]+");
+
+    public enum DocType {
+        TENANT(5), ROOM(4), HOUSE(3), CONTRACT(2), INVOICE(1);
+
+        private final int weight;
+
+        DocType(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    public record Doc(
+            DocType type,
+            String id,
+            String title,
+            String subtitle,
+            String houseId,
+            String roomId,
+            String[] tokens,
+            String[] numbers) {
+
+        // Unique per document: a tenant in several rooms has one document per room, all with the user's id
+        public String key() {
+            return type == DocType.TENANT ? id + ":" + roomId : id;
+        }
+    }
+
+    public record Hit(Doc doc, int score) {
+    }
+
+    private final List<Doc> docs;
+    private final Map<String, int[]> grams;
+    private final DigitTrie digits;
+    private final Set<String> referencedIds;
+
+    private LandlordSearchIndex(List<Doc> docs, Map<String, int[]> grams, DigitTrie digits,
+            Set<String> referencedIds) {
+        this.docs = docs;
+        this.grams = grams;
+        this.digits = digits;
+        this.referencedIds = referencedIds;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return docs.size();
+    }
+
+    /**
+     * Whether any indexed document was built from the entity with this id.
+     */
+    public boolean references(String entityId) {
+        return entityId != null && referencedIds.contains(entityId);
+    }
+
+    public List<Hit> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+
+        Map<Integer, Integer> scores = new HashMap<>();
+
+        List<String> terms = TextNormalizer.tokens(query);
+        if (!terms.isEmpty()) {
+            for (int docId : textCandidates(terms)) {
+                int score = scoreText(docs.get(docId), terms);
+                if (score > 0) {
+                    scores.merge(docId, score, Math::max);
+                }
+            }
+        }
+
+        String digitQuery = TextNormalizer.digitsOnly(query);
+        if (digitQuery.length() >= MIN_DIGIT_QUERY && NUMERIC_QUERY.matcher(query.trim()).matches()) {
+            for (int docId : digits.find(digitQuery)) {
+                int score = scoreDigits(docs.get(docId), digitQuery);
+                if (score > 0) {
+                    scores.merge(docId, score, Math::max);
+                }
+            }
+        }
+
+        return scores.entrySet().stream()
+                .map(entry -> {
+                    Doc doc = docs.get(entry.getKey());
+                    return new Hit(doc, entry.getValue() * 10 + doc.type().weight);
+                })
+                .sorted(Comparator.comparingInt(Hit::score).reversed()
+                        .thenComparing(hit -> hit.doc().title(), Comparator.nullsLast(String::compareTo)))
+                .limit(limit)
+                .toList();
+    }
+
+    private int[] textCandidates(List<String> terms) {
+        int[] candidates = null;
+        for (String term : terms) {
+            int[] postings = postingsFor(term);
+            candidates = candidates == null ? postings : intersect(candidates, postings);
+            if (candidates.length == 0) {
+                break;
+            }
+        }
+        return candidates != null ? candidates : EMPTY;
+    }
+
+    private int[] postingsFor(String term) {
+        if (term.length() < NGRAM) {
+            return grams.getOrDefault(term, EMPTY);
+        }
+        int[] result = null;
+        for (int i = 0; i + NGRAM <= term.length(); i++) {
+            int[] postings = grams.getOrDefault(term.substring(i, i + NGRAM), EMPTY);
+            result = result == null ? postings : intersect(result, postings);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    // Every term must match some token; exact > prefix > infix
+    private int scoreText(Doc doc, List<String> terms) {
+        int total = 0;
+        for (String term : terms) {
+            int best = 0;
+            for (String token : doc.tokens()) {
+                if (token.equals(term)) {
+                    best = 10;
+                    break;
+                } else if (token.startsWith(term)) {
+                    best = Math.max(best, 6);
+                } else if (term.length() >= NGRAM && token.contains(term)) {
+                    best = Math.max(best, 3);
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private int scoreDigits(Doc doc, String digitQuery) {
+        int best = 0;
+        for (String number : doc.numbers()) {
+            if (number.equals(digitQuery)) {
+                return 12;
+            } else if (number.startsWith(digitQuery)) {
+                best = Math.max(best, 8);
+            } else if (number.contains(digitQuery)) {
+                best = Math.max(best, 5);
+            }
+        }
+        return best;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                out[k++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, k);
+    }
+
+    public static final class Builder {
+        private final List<Doc> docs = new ArrayList<>();
+        private final Map<String, List<Integer>> grams = new HashMap<>();
+        private final DigitTrie digits = new DigitTrie(MAX_DIGIT_DEPTH);
+        private final Set<String> referencedIds = new HashSet<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a document.
+         *
+         * @param texts      free-text fields matched by folded n-grams
+         * @param numbers    phone/ID numbers matched by digit substrings
+         * @param references ids of every entity the document was built from, used for invalidation
+         */
+        public Builder add(DocType type, String id, String title, String subtitle, String houseId, String roomId,
+                Collection<String> texts, Collection<String> numbers, Collection<String> references) {
+            int docId = docs.size();
+
+            Set<String> tokens = new LinkedHashSet<>();
+            for (String text : texts) {
+                tokens.addAll(TextNormalizer.tokens(text));
+            }
+            for (String token : tokens) {
+                for (int len = 1; len < NGRAM && len <= token.length(); len++) {
+                    addPosting(token.substring(0, len), docId);
+                }
+                for (int i = 0; i + NGRAM <= token.length(); i++) {
+                    addPosting(token.substring(i, i + NGRAM), docId);
+                }
+            }
+
+            Set<String> digitStrings = new LinkedHashSet<>();
+            for (String number : numbers) {
+                String value = TextNormalizer.digitsOnly(number);
+                if (!value.isEmpty() && digitStrings.add(value)) {
+                    digits.add(value, docId);
+                }
+            }
+
+            for (String reference : references) {
+                if (reference != null) {
+                    referencedIds.add(reference);
+                }
+            }
+            referencedIds.add(id);
+
+            docs.add(new Doc(type, id, title, subtitle, houseId, roomId,
+                    tokens.toArray(String[]::new), digitStrings.toArray(String[]::new)));
+            return this;
+        }
+
+        private void addPosting(String gram, int docId) {
+            List<Integer> postings = grams.computeIfAbsent(gram, key -> new ArrayList<>());
+            if (postings.isEmpty() || postings.get(postings.size() - 1) != docId) {
+                postings.add(docId);
+            }
+        }
+
+        public LandlordSearchIndex build() {
+            Map<String, int[]> frozen = new HashMap<>(grams.size() * 2);
+            grams.forEach((gram, postings) -> frozen.put(gram,
+                    postings.stream().mapToInt(Integer::intValue).toArray()));
+            digits.freeze();
+            return new LandlordSearchIndex(List.copyOf(docs), frozen, digits, Set.copyOf(referencedIds));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.pegacorn.rently.security;
+
+import com.pegacorn.rently.constant.MessageConstant;
+import com.pegacorn.rently.exception.ApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt encoder that runs every hash on a small dedicated pool, so a login burst is limited
+ * to a few cores instead of every request thread. When the pool and its queue are full the
+ * call fails fast with 429 rather than piling up.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 14;
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long waitTimeoutMs;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, long waitTimeoutMs) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.waitTimeoutMs = waitTimeoutMs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> Thread.ofPlatform()
+                        .name("password-hash-" + threadNumber.incrementAndGet())
+                        .daemon(true)
+                        .unstarted(runnable),
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hashing: bcrypt strength {}, {} threads, queue {}", strength, threads, queueCapacity);
+    }
+
+    /**
+     * Smallest strength (10..14) whose hash takes at least targetMillis on this machine.
+     */
+    public static int calibrateStrength(long targetMillis) {
+        for (int strength = MIN_STRENGTH; strength < MAX_STRENGTH; strength++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+            encoder.encode("warm-up");
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (elapsedMillis >= targetMillis) {
+                return strength;
+            }
+        }
+        return MAX_STRENGTH;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Cheap: only inspects the stored hash's cost prefix
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hashing pool saturated ({} queued)", executor.getQueue().size());
+            throw ApiException.tooManyRequests(MessageConstant.AUTH_BUSY);
+        }
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw ApiException.tooManyRequests(MessageConstant.AUTH_BUSY);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -5,13 +5,15 @@ import com.pegacorn.rently.repository.UserRepository;
 import com.pegacorn.rently.repository.UserRoleRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
     private final UserRoleRepository userRoleRepository;
@@ -25,6 +27,19 @@ public class CustomUserDetailsService implements UserDetailsService {
         return new UserPrincipal(user);
     }
 
+    // Called by DaoAuthenticationProvider after a login whose stored hash used a lower cost
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByPhone(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with phone: " + userDetails.getUsername()));
+        user.setPasswordHash(newPassword);
+        userRepository.save(user);
+
+        user.setRoles(userRoleRepository.findRolesByUserId(user.getId()));
+        return new UserPrincipal(user);
+    }
+
     public UserDetails loadUserById(String userId) throws UsernameNotFoundException {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
@@ -1,5 +1,6 @@
 package com.pegacorn.rently.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,13 +15,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionService tokenVersionService;
 
     @Override
     protected void doFilterInternal(
@@ -40,20 +42,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            userId = jwtService.extractUserId(jwt);
+            // One parse verifies signature and expiry; roles come from the token itself
+            Claims claims = jwtService.parseClaims(jwt);
+            userId = claims.getSubject();
+            Integer tokenVersion = claims.get(JwtService.VERSION_CLAIM, Integer.class);
 
-            if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserById(userId);
+            // Refresh tokens (and tokens issued before versioning) carry no version
+            if (userId != null && tokenVersion != null
+                    && SecurityContextHolder.getContext().getAuthentication() == null
+                    && tokenVersionService.isCurrent(userId, tokenVersion)) {
+                @SuppressWarnings("unchecked")
+                List<String> roles = claims.get(JwtService.ROLES_CLAIM, List.class);
+                UserDetails userDetails = new UserPrincipal(userId, roles);
 
-                if (jwtService.isTokenValid(jwt, userId)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             // Token is invalid, continue without authentication
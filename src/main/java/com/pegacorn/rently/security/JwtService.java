@@ -1,8 +1,10 @@
 package com.pegacorn.rently.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -17,6 +19,9 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
+    public static final String ROLES_CLAIM = "roles";
+    public static final String VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
@@ -26,6 +31,16 @@ public class JwtService {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
 
+    // Built once instead of on every sign/parse call
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
     public String extractUserId(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -35,9 +50,18 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
-    public String generateToken(String userId, List<String> roles) {
+    /**
+     * Verifies signature and expiry in a single parse and returns the claims.
+     * Throws a {@link io.jsonwebtoken.JwtException} when the token is not acceptable.
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
+    public String generateToken(String userId, List<String> roles, int tokenVersion) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("roles", roles);
+        claims.put(ROLES_CLAIM, roles);
+        claims.put(VERSION_CLAIM, tokenVersion);
         return buildToken(claims, userId, jwtExpiration);
     }
 
@@ -69,22 +93,17 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     private SecretKey getSigningKey() {
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     @SuppressWarnings("unchecked")
     public List<String> extractRoles(String token) {
         Claims claims = extractAllClaims(token);
-        return claims.get("roles", List.class);
+        return claims.get(ROLES_CLAIM, List.class);
     }
 
     public long getJwtExpiration() {
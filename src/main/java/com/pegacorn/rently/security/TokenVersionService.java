@@ -0,0 +1,88 @@
+package com.pegacorn.rently.security;
+
+import com.pegacorn.rently.entity.User;
+import com.pegacorn.rently.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decides whether an access token is still honoured. Tokens carry the user's token version;
+ * locking, deleting or changing roles bumps {@code users.token_version}, which revokes every
+ * token issued before. Versions are cached per user so authenticated requests normally skip
+ * the database; other nodes pick up a bump once their entry expires.
+ */
+@Service
+public class TokenVersionService {
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+
+    private final ConcurrentMap<String, CachedState> cache = new ConcurrentHashMap<>();
+
+    private record CachedState(int tokenVersion, User.UserStatus status, long loadedAt) {
+    }
+
+    public TokenVersionService(
+            UserRepository userRepository,
+            @Value("${jwt.token-version-cache-ttl-ms:30000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * True when the user still exists, is active and the token was issued for the current version.
+     */
+    public boolean isCurrent(String userId, int tokenVersion) {
+        CachedState state = cache.get(userId);
+        long now = System.currentTimeMillis();
+        if (state == null || now - state.loadedAt() > ttlMillis) {
+            state = userRepository.findTokenStateById(userId)
+                    .map(found -> new CachedState(found.getTokenVersion(), found.getStatus(), now))
+                    .orElse(null);
+            if (state == null) {
+                cache.remove(userId);
+                return false;
+            }
+            cache.put(userId, state);
+        }
+        return state.status() == User.UserStatus.ACTIVE && state.tokenVersion() == tokenVersion;
+    }
+
+    /**
+     * Revokes the user's outstanding access tokens. The caller persists the entity; the cached
+     * version is dropped once the surrounding transaction commits.
+     */
+    public void revoke(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        evict(user.getId());
+    }
+
+    /**
+     * Drops the cached state, e.g. after a status change. Deferred to after commit so a
+     * concurrent request cannot re-cache the old row.
+     */
+    public void evict(String userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.remove(userId);
+                }
+            });
+        } else {
+            cache.remove(userId);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    void removeExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        cache.values().removeIf(state -> state.loadedAt() < cutoff);
+    }
+}
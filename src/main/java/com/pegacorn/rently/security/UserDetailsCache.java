@@ -0,0 +1,84 @@
+package com.pegacorn.rently.security;
+
+import com.pegacorn.rently.dto.auth.UserDto;
+import com.pegacorn.rently.entity.User;
+import com.pegacorn.rently.event.EntityChangedEvent;
+import com.pegacorn.rently.repository.UserRepository;
+import com.pegacorn.rently.repository.UserRoleRepository;
+import com.pegacorn.rently.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Read-through cache of user profiles with roles, keyed by user id. Every saved {@link User}
+ * evicts its entry through {@link EntityChangedEvent}; role changes and bulk updates, which
+ * bypass that event, call {@link #invalidate(String)}. Other nodes see the change once the
+ * entry's TTL runs out.
+ */
+@Service
+public class UserDetailsCache {
+
+    public record CachedUser(UserDto user, int tokenVersion) {
+    }
+
+    private final UserRepository userRepository;
+    private final UserRoleRepository userRoleRepository;
+    private final BoundedCache<String, CachedUser> cache;
+
+    public UserDetailsCache(
+            UserRepository userRepository,
+            UserRoleRepository userRoleRepository,
+            @Value("${user-cache.max-size:10000}") int maxSize,
+            @Value("${user-cache.ttl-ms:60000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.userRoleRepository = userRoleRepository;
+        this.cache = new BoundedCache<>("users", maxSize, ttlMillis);
+    }
+
+    public Optional<CachedUser> get(String userId) {
+        return Optional.ofNullable(cache.get(userId, this::load));
+    }
+
+    /**
+     * Drops the user's entry once the surrounding transaction commits (immediately without one),
+     * so a concurrent reader cannot cache the pre-update row.
+     */
+    public void invalidate(String userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(userId);
+                }
+            });
+        } else {
+            cache.invalidate(userId);
+        }
+    }
+
+    // Fires after commit, so a reader cannot re-cache the row from before the update
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.entity() instanceof User user && user.getId() != null) {
+            cache.invalidate(user.getId());
+        }
+    }
+
+    public BoundedCache.Stats stats() {
+        return cache.stats();
+    }
+
+    private CachedUser load(String userId) {
+        return userRepository.findById(userId)
+                .map(user -> {
+                    user.setRoles(userRoleRepository.findRolesByUserId(userId));
+                    return new CachedUser(UserDto.fromEntity(user), user.getTokenVersion());
+                })
+                .orElse(null);
+    }
+}
@@ -33,6 +33,20 @@ public class UserPrincipal implements UserDetails {
                 : List.of();
     }
 
+    // Built from a verified access token; the user's status is checked by TokenVersionService
+    public UserPrincipal(String id, List<String> roles) {
+        this.id = id;
+        this.phone = null;
+        this.password = null;
+        this.fullName = null;
+        this.status = User.UserStatus.ACTIVE;
+        this.authorities = roles != null
+                ? roles.stream()
+                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                    .collect(Collectors.toList())
+                : List.of();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -9,7 +9,12 @@ import com.pegacorn.rently.dto.expense.ExpenseSummaryDto;
 import com.pegacorn.rently.dto.invoice.InvoiceSummaryDto;
 import com.pegacorn.rently.dto.invoice.MeterReadingDto;
 import com.pegacorn.rently.entity.*;
+import com.pegacorn.rently.llm.LlmGateway;
+import com.pegacorn.rently.llm.LlmUnavailableException;
+import com.pegacorn.rently.llm.LlmUseCase;
+import com.pegacorn.rently.ratelimit.RateLimiterRegistry;
 import com.pegacorn.rently.repository.*;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.Message;
@@ -17,66 +22,99 @@ import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class AIChatService {
 
-    // Rate limiting
-    private static final ConcurrentHashMap<String, Long> lastRequestTime = new ConcurrentHashMap<>();
+    private static final String CHAT_RATE_LIMIT = "ai-chat";
+    private static final String STREAM_TOKEN_EVENT = "token";
+    private static final String STREAM_RESULT_EVENT = "result";
+    // Returned by generateResponse on failure; never cached
+    private static final ChatResponseDto GENERATION_FAILED = new ChatResponseDto(
+            "Xin lỗi, đã có lỗi xảy ra khi xử lý yêu cầu.", null, null);
+    private static final ChatResponseDto CHAT_FAILED = new ChatResponseDto(
+            "Xin lỗi, đã có lỗi xảy ra. Vui lòng thử lại sau.", null, null);
+    // The model is refused by the gateway (circuit open, overloaded or too slow); never cached
+    private static final ChatResponseDto AI_BUSY = new ChatResponseDto(
+            "Trợ lý AI đang quá tải, vui lòng thử lại sau ít phút.", null, null);
+
+    private record PreparedChat(ChatResponseDto immediate, Prompt prompt, ChatResponseCache.Key cacheKey) {
+        static PreparedChat immediate(ChatResponseDto response) {
+            return new PreparedChat(response, null, null);
+        }
+    }
 
     private final long rateLimitMs;
-    private final OpenAiChatModel chatModel;
+    private final long streamTimeoutMs;
+    private final ExecutorService prefetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final LlmGateway llmGateway;
     private final ObjectMapper objectMapper;
-    private final HouseRepository houseRepository;
-    private final RoomRepository roomRepository;
-    private final ContractRepository contractRepository;
     private final InvoiceRepository invoiceRepository;
-    private final ExpenseRepository expenseRepository;
-    private final UserRepository userRepository;
     private final MeterReadingRepository meterReadingRepository;
+    private final PortfolioSnapshotService portfolioSnapshotService;
+    private final IntentClassifier intentClassifier;
+    private final ChatResponseCache responseCache;
+    private final ChatContextBuilder contextBuilder;
+    private final ChatPipelineMetrics pipelineMetrics;
     private final InvoiceService invoiceService;
     private final ExpenseService expenseService;
     private final RoomService roomService;
 
     public AIChatService(
             @Value("${ai-chat.cooldown-seconds:300}") int cooldownSeconds,
-            OpenAiChatModel chatModel,
+            @Value("${ai-chat.stream-timeout-ms:120000}") long streamTimeoutMs,
+            LlmGateway llmGateway,
             ObjectMapper objectMapper,
-            HouseRepository houseRepository,
-            RoomRepository roomRepository,
-            ContractRepository contractRepository,
             InvoiceRepository invoiceRepository,
-            ExpenseRepository expenseRepository,
-            UserRepository userRepository,
             MeterReadingRepository meterReadingRepository,
+            PortfolioSnapshotService portfolioSnapshotService,
+            IntentClassifier intentClassifier,
+            ChatResponseCache responseCache,
+            ChatContextBuilder contextBuilder,
+            ChatPipelineMetrics pipelineMetrics,
             InvoiceService invoiceService,
             ExpenseService expenseService,
-            RoomService roomService) {
+            RoomService roomService,
+            RateLimiterRegistry rateLimiterRegistry) {
         this.rateLimitMs = cooldownSeconds * 1000L;
-        this.chatModel = chatModel;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.rateLimiterRegistry = rateLimiterRegistry;
+        this.llmGateway = llmGateway;
         this.objectMapper = objectMapper;
-        this.houseRepository = houseRepository;
-        this.roomRepository = roomRepository;
-        this.contractRepository = contractRepository;
         this.invoiceRepository = invoiceRepository;
-        this.expenseRepository = expenseRepository;
-        this.userRepository = userRepository;
         this.meterReadingRepository = meterReadingRepository;
+        this.portfolioSnapshotService = portfolioSnapshotService;
+        this.intentClassifier = intentClassifier;
+        this.responseCache = responseCache;
+        this.contextBuilder = contextBuilder;
+        this.pipelineMetrics = pipelineMetrics;
         this.invoiceService = invoiceService;
         this.expenseService = expenseService;
         this.roomService = roomService;
     }
 
+    @PreDestroy
+    void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
     // ==================== PROMPTS ====================
 
     private static final String INTENT_ANALYSIS_PROMPT = """
@@ -209,66 +247,229 @@ public class AIChatService {
     public ChatResponseDto chat(ChatRequest request, String landlordId) {
         log.info("Processing chat request for landlord: {}", landlordId);
 
-        // Check rate limit
-        Long lastTime = lastRequestTime.get(landlordId);
-        long now = System.currentTimeMillis();
-        if (lastTime != null) {
-            long elapsed = now - lastTime;
-            if (elapsed < rateLimitMs) {
-                long remainingSeconds = (rateLimitMs - elapsed) / 1000;
-                long minutes = remainingSeconds / 60;
-                long seconds = remainingSeconds % 60;
-                String timeRemaining = minutes > 0
-                    ? String.format("%d phút %d giây", minutes, seconds)
-                    : String.format("%d giây", seconds);
-                return new ChatResponseDto(
-                        String.format("Vui lòng đợi %s trước khi gửi câu hỏi tiếp theo.", timeRemaining),
-                        null,
-                        null
-                );
+        try {
+            PreparedChat prepared = prepareChat(request, landlordId);
+            if (prepared.immediate() != null) {
+                return prepared.immediate();
             }
-        }
 
-        // Update last request time
-        lastRequestTime.put(landlordId, now);
+            // STEP 3: Generate response with data
+            ChatResponseDto response = generateResponse(prepared.prompt(), landlordId);
+            if (response != GENERATION_FAILED) {
+                responseCache.put(prepared.cacheKey(), response);
+            }
+            return response;
 
-        String currentDate = LocalDate.now().format(DateTimeFormatter.ofPattern("MM/yyyy"));
+        } catch (LlmUnavailableException e) {
+            log.warn("Chat answered with fallback for landlord {}: {}", landlordId, e.getMessage());
+            return AI_BUSY;
+        } catch (Exception e) {
+            log.error("Chat error: {}", e.getMessage(), e);
+            return CHAT_FAILED;
+        }
+    }
+
+    /**
+     * Streaming variant of {@link #chat}: the visible answer text is pushed as "token" events
+     * while the model generates it, followed by one "result" event carrying the parsed
+     * {@link ChatResponseDto} (message plus validated action). Work runs on a virtual thread
+     * so no servlet thread waits for the model.
+     */
+    public SseEmitter chatStream(ChatRequest request, String landlordId) {
+        log.info("Processing streaming chat request for landlord: {}", landlordId);
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Thread.ofVirtual().name("ai-chat-stream").start(() -> streamChat(request, landlordId, emitter));
+        return emitter;
+    }
 
+    private void streamChat(ChatRequest request, String landlordId, SseEmitter emitter) {
         try {
-            // STEP 1: Analyze user intent
-            DataRequirementDto requirements = analyzeIntent(request, currentDate);
-            log.debug("Intent analysis result: {}", requirements);
-
-            // Skip further calls if off-topic
-            if (requirements.isOffTopic()) {
-                return new ChatResponseDto(
-                        "Tôi là trợ lý AI chuyên về hệ thống quản lý nhà trọ Rently. Tôi chỉ có thể hỗ trợ các vấn đề liên quan đến nhà trọ, phòng, hợp đồng, chi phí và các tính năng của website. Bạn có câu hỏi nào về hệ thống không?",
-                        null,
-                        null
-                );
+            PreparedChat prepared = prepareChat(request, landlordId);
+            if (prepared.immediate() != null) {
+                sendResult(emitter, prepared.immediate());
+                return;
             }
 
-            // STEP 2: Fetch required data
-            FetchedDataDto fetchedData = fetchRequiredData(requirements, landlordId);
-            log.debug("Fetched data: {} houses, {} rooms, {} invoices, {} expenses",
-                    fetchedData.houses().size(),
-                    fetchedData.rooms().size(),
-                    fetchedData.invoices().size(),
-                    fetchedData.expenses().size());
+            ChatMessageStreamParser parser = new ChatMessageStreamParser();
+            StringBuilder content = new StringBuilder();
+            long generationStart = System.nanoTime();
+            try (Stream<ChatResponse> chunks = llmGateway.stream(LlmUseCase.CHAT, prepared.prompt()).toStream()) {
+                Iterator<ChatResponse> iterator = chunks.iterator();
+                while (iterator.hasNext()) {
+                    String text = chunkText(iterator.next());
+                    if (text.isEmpty()) {
+                        continue;
+                    }
+                    content.append(text);
+                    String visible = parser.accept(text);
+                    if (!visible.isEmpty()) {
+                        emitter.send(SseEmitter.event().name(STREAM_TOKEN_EVENT).data(visible));
+                    }
+                }
+            }
+            pipelineMetrics.record(ChatPipelineMetrics.Stage.GENERATION, System.nanoTime() - generationStart);
+            log.debug("Streamed response raw output: {}", content);
+
+            long parseStart = System.nanoTime();
+            ChatResponseDto response = parseResponse(content.toString(), landlordId);
+            pipelineMetrics.record(ChatPipelineMetrics.Stage.PARSE, System.nanoTime() - parseStart);
+            responseCache.put(prepared.cacheKey(), response);
+            sendResult(emitter, response);
+
+        } catch (IOException e) {
+            // Client disconnected; closing the chunk stream above cancelled generation
+            log.debug("Chat stream closed by client: {}", e.getMessage());
+            emitter.completeWithError(e);
+        } catch (Exception e) {
+            boolean unavailable = e instanceof LlmUnavailableException;
+            if (unavailable) {
+                log.warn("Chat stream answered with fallback for landlord {}: {}", landlordId, e.getMessage());
+            } else {
+                log.error("Streaming chat error: {}", e.getMessage(), e);
+            }
+            try {
+                sendResult(emitter, unavailable ? AI_BUSY : CHAT_FAILED);
+            } catch (IOException | IllegalStateException sendError) {
+                // Emitter already timed out or closed
+                emitter.completeWithError(sendError);
+            }
+        }
+    }
 
-            // STEP 3: Generate response with data
-            return generateResponse(request, fetchedData, requirements, landlordId, currentDate);
+    private void sendResult(SseEmitter emitter, ChatResponseDto response) throws IOException {
+        emitter.send(SseEmitter.event()
+                .name(STREAM_RESULT_EVENT)
+                .data(response, MediaType.APPLICATION_JSON));
+        emitter.complete();
+    }
 
-        } catch (Exception e) {
-            log.error("Chat error: {}", e.getMessage(), e);
-            return new ChatResponseDto(
-                    "Xin lỗi, đã có lỗi xảy ra. Vui lòng thử lại sau.",
+    private static String chunkText(ChatResponse chunk) {
+        if (chunk == null || chunk.getResult() == null || chunk.getResult().getOutput() == null) {
+            return "";
+        }
+        String text = chunk.getResult().getOutput().getText();
+        return text != null ? text : "";
+    }
+
+    /**
+     * Everything before the answer is generated: cache lookup, cooldown, intent, data fetch.
+     * Either an immediate response or the generation prompt plus its cache key.
+     */
+    private PreparedChat prepareChat(ChatRequest request, String landlordId) {
+        String currentDate = LocalDate.now().format(DateTimeFormatter.ofPattern("MM/yyyy"));
+        String currentPeriod = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM"));
+        boolean hasHistory = request.history() != null && !request.history().isEmpty();
+
+        // A locally classified question that was answered before costs no model call, so it is
+        // served before the cooldown applies; only while the snapshot is cached, so a refused
+        // request never reaches the database
+        PortfolioSnapshot snapshot = portfolioSnapshotService.getIfCached(landlordId);
+        long localIntentNanos = 0;
+        Optional<DataRequirementDto> localIntent = Optional.empty();
+        if (snapshot != null) {
+            long localIntentStart = System.nanoTime();
+            PortfolioSnapshot cachedSnapshot = snapshot;
+            localIntent = intentClassifier.classify(request.message(), hasHistory, () -> cachedSnapshot);
+            localIntentNanos = System.nanoTime() - localIntentStart;
+            if (localIntent.isPresent()) {
+                ChatResponseDto cached = responseCache.get(responseCache.key(
+                        landlordId, request.message(), request.history(), localIntent.get(), snapshot));
+                if (cached != null) {
+                    log.debug("Serving cached chat response for landlord: {}", landlordId);
+                    return PreparedChat.immediate(cached);
+                }
+            }
+        }
+
+        // Check rate limit (one question per cooldown unless rate-limit.ai-chat.capacity allows a burst)
+        long waitMs = rateLimiterRegistry.tryAcquire(CHAT_RATE_LIMIT, 1, rateLimitMs, landlordId);
+        if (waitMs > 0) {
+            return PreparedChat.immediate(cooldownResponse(waitMs));
+        }
+
+        // A cold snapshot (houses, rooms, contracts, tenants) loads in the background, followed by
+        // this month's invoices, so the database work overlaps the intent call
+        boolean classified = snapshot != null;
+        CompletableFuture<PortfolioSnapshot> snapshotLoad = classified
+                ? CompletableFuture.completedFuture(snapshot)
+                : CompletableFuture.supplyAsync(() -> portfolioSnapshotService.get(landlordId), prefetchExecutor);
+        snapshotLoad
+                .thenAcceptAsync(loaded -> loaded.invoices(currentPeriod), prefetchExecutor)
+                .exceptionally(e -> {
+                    log.debug("Invoice prefetch failed: {}", e.getMessage());
+                    return null;
+                });
+
+        // STEP 1: Analyze user intent (locally when the question is unambiguous, else by the LLM).
+        // The classifier waits for the snapshot only to look up rooms and houses; when it cannot
+        // answer, the LLM call starts without waiting for the load
+        long intentStart = System.nanoTime();
+        if (!classified) {
+            localIntent = intentClassifier.classify(request.message(), hasHistory, () -> await(snapshotLoad));
+        }
+        DataRequirementDto requirements = localIntent.orElseGet(() -> analyzeIntent(request, currentDate));
+        pipelineMetrics.record(ChatPipelineMetrics.Stage.INTENT, localIntentNanos + System.nanoTime() - intentStart);
+        log.debug("Intent analysis result: {}", requirements);
+
+        // Skip further calls if off-topic
+        if (requirements.isOffTopic()) {
+            return PreparedChat.immediate(new ChatResponseDto(
+                    "Tôi là trợ lý AI chuyên về hệ thống quản lý nhà trọ Rently. Tôi chỉ có thể hỗ trợ các vấn đề liên quan đến nhà trọ, phòng, hợp đồng, chi phí và các tính năng của website. Bạn có câu hỏi nào về hệ thống không?",
                     null,
                     null
-            );
+            ));
+        }
+
+        long fetchStart = System.nanoTime();
+        snapshot = await(snapshotLoad);
+        ChatResponseCache.Key cacheKey = responseCache.key(
+                landlordId, request.message(), request.history(), requirements, snapshot);
+        if (!(classified && localIntent.isPresent())) {
+            ChatResponseDto cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                log.debug("Serving cached chat response for landlord: {}", landlordId);
+                return PreparedChat.immediate(cached);
+            }
+        }
+
+        // STEP 2: Fetch required data
+        FetchedDataDto fetchedData = fetchRequiredData(requirements, snapshot);
+        pipelineMetrics.record(ChatPipelineMetrics.Stage.FETCH, System.nanoTime() - fetchStart);
+        log.debug("Fetched data: {} houses, {} rooms, {} invoices, {} expenses",
+                fetchedData.houses().size(),
+                fetchedData.rooms().size(),
+                fetchedData.invoices().size(),
+                fetchedData.expenses().size());
+
+        return new PreparedChat(null, buildResponsePrompt(request, fetchedData, requirements, currentDate), cacheKey);
+    }
+
+    // Rethrows the loader's own exception rather than the CompletionException around it
+    private static PortfolioSnapshot await(CompletableFuture<PortfolioSnapshot> snapshotLoad) {
+        try {
+            return snapshotLoad.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
     }
 
+    private ChatResponseDto cooldownResponse(long waitMs) {
+        long remainingSeconds = (waitMs + 999) / 1000;
+        long minutes = remainingSeconds / 60;
+        long seconds = remainingSeconds % 60;
+        String timeRemaining = minutes > 0
+            ? String.format("%d phút %d giây", minutes, seconds)
+            : String.format("%d giây", seconds);
+        return new ChatResponseDto(
+                String.format("Vui lòng đợi %s trước khi gửi câu hỏi tiếp theo.", timeRemaining),
+                null,
+                null
+        );
+    }
+
     // ==================== STEP 1: INTENT ANALYSIS ====================
 
     private DataRequirementDto analyzeIntent(ChatRequest request, String currentDate) {
@@ -293,13 +494,16 @@ public class AIChatService {
 
             messages.add(new UserMessage(request.message()));
 
-            ChatResponse response = chatModel.call(new Prompt(messages));
+            ChatResponse response = llmGateway.call(LlmUseCase.CHAT, new Prompt(messages));
             String content = cleanJsonResponse(response.getResult().getOutput().getText());
 
             log.debug("Intent analysis raw response: {}", content);
 
             return objectMapper.readValue(content, DataRequirementDto.class);
 
+        } catch (LlmUnavailableException e) {
+            // The answer call would be refused too
+            throw e;
         } catch (Exception e) {
             log.warn("Intent analysis failed, using default: {}", e.getMessage());
             // Default: fetch basic data
@@ -315,7 +519,7 @@ public class AIChatService {
 
     // ==================== STEP 2: DATA FETCHING ====================
 
-    private FetchedDataDto fetchRequiredData(DataRequirementDto req, String landlordId) {
+    private FetchedDataDto fetchRequiredData(DataRequirementDto req, PortfolioSnapshot snapshot) {
         List<FetchedDataDto.HouseData> houses = new ArrayList<>();
         List<FetchedDataDto.RoomData> rooms = new ArrayList<>();
         List<FetchedDataDto.ContractData> contracts = new ArrayList<>();
@@ -329,16 +533,14 @@ public class AIChatService {
         try {
             // Fetch houses if needed
             if (req.needHouses() || req.needRooms()) {
-                List<House> houseEntities = houseRepository.findByOwnerId(landlordId);
-
-                for (House house : houseEntities) {
+                for (House house : snapshot.houses()) {
                     // Filter by house name if specified
                     if (req.houseNameFilter() != null &&
                             !house.getName().toLowerCase().contains(req.houseNameFilter().toLowerCase())) {
                         continue;
                     }
 
-                    List<Room> roomEntities = roomRepository.findByHouseId(house.getId());
+                    List<Room> roomEntities = snapshot.rooms(house.getId());
                     int houseEmpty = 0, houseRented = 0;
 
                     for (Room room : roomEntities) {
@@ -357,16 +559,8 @@ public class AIChatService {
                         totalRooms++;
 
                         // Get tenant name from contract (ACTIVE or DRAFT)
-                        String tenantName = null;
-                        List<Contract> roomContracts = contractRepository.findByRoomId(room.getId());
-                        for (Contract contract : roomContracts) {
-                            if (contract.getStatus() == Contract.ContractStatus.ACTIVE ||
-                                contract.getStatus() == Contract.ContractStatus.DRAFT) {
-                                tenantName = userRepository.findById(contract.getTenantId())
-                                        .map(User::getFullName).orElse(null);
-                                if (tenantName != null) break;
-                            }
-                        }
+                        User tenant = snapshot.currentTenant(room.getId());
+                        String tenantName = tenant != null ? tenant.getFullName() : null;
 
                         rooms.add(new FetchedDataDto.RoomData(
                                 room.getId(), room.getCode(), house.getName(),
@@ -383,18 +577,15 @@ public class AIChatService {
 
             // Fetch contracts if needed (ACTIVE and DRAFT)
             if (req.needContracts()) {
-                List<Contract> contractEntities = contractRepository.findByLandlordId(landlordId);
-                for (Contract contract : contractEntities) {
+                for (Contract contract : snapshot.contracts()) {
                     if (contract.getStatus() != Contract.ContractStatus.ACTIVE &&
                         contract.getStatus() != Contract.ContractStatus.DRAFT) continue;
 
-                    String roomCode = roomRepository.findById(contract.getRoomId())
-                            .map(Room::getCode).orElse("N/A");
-                    String houseName = roomRepository.findById(contract.getRoomId())
-                            .flatMap(room -> houseRepository.findById(room.getHouseId()))
-                            .map(House::getName).orElse("N/A");
-                    String tenantName = userRepository.findById(contract.getTenantId())
-                            .map(User::getFullName).orElse("N/A");
+                    Room room = snapshot.room(contract.getRoomId());
+                    House house = room != null ? snapshot.house(room.getHouseId()) : null;
+                    String roomCode = room != null ? room.getCode() : "N/A";
+                    String houseName = house != null ? house.getName() : "N/A";
+                    String tenantName = Objects.requireNonNullElse(snapshot.tenantName(contract.getTenantId()), "N/A");
 
                     contracts.add(new FetchedDataDto.ContractData(
                             contract.getId(), roomCode, houseName, tenantName,
@@ -411,13 +602,11 @@ public class AIChatService {
                 int year = req.invoiceYear() != null ? req.invoiceYear() : LocalDate.now().getYear();
                 String periodMonth = String.format("%d-%02d", year, month);
 
-                List<Invoice> invoiceEntities = invoiceRepository.findByLandlordIdAndPeriodMonth(landlordId, periodMonth);
-                for (Invoice invoice : invoiceEntities) {
-                    String roomCode = contractRepository.findById(invoice.getContractId())
-                            .flatMap(c -> roomRepository.findById(c.getRoomId()))
-                            .map(Room::getCode).orElse("N/A");
-                    String tenantName = userRepository.findById(invoice.getTenantId())
-                            .map(User::getFullName).orElse("N/A");
+                for (Invoice invoice : snapshot.invoices(periodMonth)) {
+                    Contract contract = snapshot.contract(invoice.getContractId());
+                    Room room = contract != null ? snapshot.room(contract.getRoomId()) : null;
+                    String roomCode = room != null ? room.getCode() : "N/A";
+                    String tenantName = Objects.requireNonNullElse(snapshot.tenantName(invoice.getTenantId()), "N/A");
 
                     totalInvoice = totalInvoice.add(invoice.getTotalAmount());
                     paidInvoice = paidInvoice.add(invoice.getPaidAmount());
@@ -436,10 +625,9 @@ public class AIChatService {
                 int month = req.expenseMonth() != null ? req.expenseMonth() : LocalDate.now().getMonthValue();
                 int year = req.expenseYear() != null ? req.expenseYear() : LocalDate.now().getYear();
 
-                List<Expense> expenseEntities = expenseRepository.findByLandlordIdAndMonthYear(landlordId, month, year);
-                for (Expense expense : expenseEntities) {
-                    String houseName = houseRepository.findById(expense.getHouseId())
-                            .map(House::getName).orElse("N/A");
+                for (Expense expense : snapshot.expenses(month, year)) {
+                    House house = snapshot.house(expense.getHouseId());
+                    String houseName = house != null ? house.getName() : "N/A";
                     ExpenseCategoryType category = ExpenseCategoryType.fromId(expense.getCategoryId());
                     String categoryName = category != null ? category.getNameVi() : "Khác";
 
@@ -455,7 +643,7 @@ public class AIChatService {
 
             // Fetch meter readings if needed
             if (req.needMeterReadings() && req.meterRoomCode() != null) {
-                Room room = findRoomByCode(req.meterRoomCode(), landlordId);
+                Room room = snapshot.roomByCode(req.meterRoomCode());
                 if (room != null) {
                     String period = req.meterPeriod() != null ? req.meterPeriod() :
                             LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM"));
@@ -483,132 +671,53 @@ public class AIChatService {
 
     // ==================== STEP 3: RESPONSE GENERATION ====================
 
-    private ChatResponseDto generateResponse(ChatRequest request, FetchedDataDto data,
-                                              DataRequirementDto requirements, String landlordId, String currentDate) {
-        try {
-            // Build data context string
-            String dataContext = buildDataContext(data, requirements);
-
-            String prompt = String.format(RESPONSE_GENERATION_PROMPT, dataContext, currentDate);
-
-            List<Message> messages = new ArrayList<>();
-            messages.add(new SystemMessage(prompt));
-
-            // Add conversation history
-            if (request.history() != null) {
-                for (ChatMessageDto msg : request.history()) {
-                    if ("user".equals(msg.role())) {
-                        messages.add(new UserMessage(msg.content()));
-                    } else {
-                        messages.add(new AssistantMessage(msg.content()));
-                    }
+    private Prompt buildResponsePrompt(ChatRequest request, FetchedDataDto data,
+                                       DataRequirementDto requirements, String currentDate) {
+        // Build data context string within the token budget
+        long contextStart = System.nanoTime();
+        String dataContext = contextBuilder.build(data, requirements);
+        pipelineMetrics.record(ChatPipelineMetrics.Stage.CONTEXT, System.nanoTime() - contextStart);
+
+        String prompt = String.format(RESPONSE_GENERATION_PROMPT, dataContext, currentDate);
+
+        List<Message> messages = new ArrayList<>();
+        messages.add(new SystemMessage(prompt));
+
+        // Add conversation history
+        if (request.history() != null) {
+            for (ChatMessageDto msg : request.history()) {
+                if ("user".equals(msg.role())) {
+                    messages.add(new UserMessage(msg.content()));
+                } else {
+                    messages.add(new AssistantMessage(msg.content()));
                 }
             }
+        }
 
-            messages.add(new UserMessage(request.message()));
+        messages.add(new UserMessage(request.message()));
+        return new Prompt(messages);
+    }
 
-            ChatResponse response = chatModel.call(new Prompt(messages));
+    private ChatResponseDto generateResponse(Prompt prompt, String landlordId) {
+        try {
+            long generationStart = System.nanoTime();
+            ChatResponse response = llmGateway.call(LlmUseCase.CHAT, prompt);
             String content = response.getResult().getOutput().getText();
+            pipelineMetrics.record(ChatPipelineMetrics.Stage.GENERATION, System.nanoTime() - generationStart);
 
             log.debug("Response generation raw output: {}", content);
 
-            return parseResponse(content, landlordId);
+            long parseStart = System.nanoTime();
+            ChatResponseDto parsed = parseResponse(content, landlordId);
+            pipelineMetrics.record(ChatPipelineMetrics.Stage.PARSE, System.nanoTime() - parseStart);
+            return parsed;
 
+        } catch (LlmUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Response generation error: {}", e.getMessage(), e);
-            return new ChatResponseDto(
-                    "Xin lỗi, đã có lỗi xảy ra khi xử lý yêu cầu.",
-                    null, null
-            );
-        }
-    }
-
-    private String buildDataContext(FetchedDataDto data, DataRequirementDto req) {
-        StringBuilder ctx = new StringBuilder();
-
-        // Summary
-        if (data.summary() != null) {
-            var s = data.summary();
-            if (s.totalHouses() > 0) {
-                ctx.append(String.format("Tổng quan: %d nhà, %d phòng (Trống: %d, Đang thuê: %d)\n",
-                        s.totalHouses(), s.totalRooms(), s.emptyRooms(), s.rentedRooms()));
-            }
-            if (s.totalInvoiceAmount().compareTo(BigDecimal.ZERO) > 0) {
-                ctx.append(String.format("Hóa đơn: Tổng %s, Đã thu %s\n",
-                        formatCurrency(s.totalInvoiceAmount()), formatCurrency(s.paidInvoiceAmount())));
-            }
-            if (s.totalExpenseAmount().compareTo(BigDecimal.ZERO) > 0) {
-                ctx.append(String.format("Chi phí: Tổng %s\n", formatCurrency(s.totalExpenseAmount())));
-            }
-        }
-
-        // Houses
-        if (!data.houses().isEmpty()) {
-            ctx.append("\n### Danh sách nhà:\n");
-            for (var h : data.houses()) {
-                ctx.append(String.format("- %s: %d phòng (Trống: %d, Đang thuê: %d)\n",
-                        h.name(), h.totalRooms(), h.emptyRooms(), h.rentedRooms()));
-            }
-        }
-
-        // Rooms
-        if (!data.rooms().isEmpty()) {
-            ctx.append("\n### Danh sách phòng:\n");
-            for (var r : data.rooms()) {
-                ctx.append(String.format("- %s (%s): %s, Giá: %s",
-                        r.code(), r.houseName(), r.status(), formatCurrency(r.baseRent())));
-                if (r.tenantName() != null) {
-                    ctx.append(String.format(", Người thuê: %s", r.tenantName()));
-                }
-                ctx.append("\n");
-            }
-        }
-
-        // Contracts
-        if (!data.contracts().isEmpty()) {
-            ctx.append("\n### Hợp đồng đang hoạt động:\n");
-            for (var c : data.contracts()) {
-                ctx.append(String.format("- Phòng %s (%s): %s, Tiền thuê: %s\n",
-                        c.roomCode(), c.houseName(), c.tenantName(), formatCurrency(c.monthlyRent())));
-            }
-        }
-
-        // Invoices
-        if (!data.invoices().isEmpty()) {
-            ctx.append("\n### Hóa đơn:\n");
-            for (var i : data.invoices()) {
-                ctx.append(String.format("- Phòng %s (%s): %s/%s, Trạng thái: %s\n",
-                        i.roomCode(), i.tenantName(),
-                        formatCurrency(i.paidAmount()), formatCurrency(i.totalAmount()),
-                        translateStatus(i.status())));
-            }
-        }
-
-        // Expenses
-        if (!data.expenses().isEmpty()) {
-            ctx.append("\n### Chi phí:\n");
-            for (var e : data.expenses()) {
-                ctx.append(String.format("- %s (%s): %s, Ngày: %s\n",
-                        e.title(), e.category(), formatCurrency(e.amount()), e.expenseDate()));
-            }
-        }
-
-        // Meter readings
-        if (!data.meterReadings().isEmpty()) {
-            ctx.append("\n### Chỉ số điện nước:\n");
-            for (var m : data.meterReadings()) {
-                ctx.append(String.format("- Phòng %s kỳ %s: Điện %s→%s, Nước %s→%s\n",
-                        m.roomCode(), m.periodMonth(),
-                        m.electricityOld(), m.electricityNew(),
-                        m.waterOld(), m.waterNew()));
-            }
-        }
-
-        if (ctx.length() == 0) {
-            ctx.append("Không có dữ liệu phù hợp với yêu cầu.");
+            return GENERATION_FAILED;
         }
-
-        return ctx.toString();
     }
 
     // ==================== HELPERS ====================
@@ -621,34 +730,6 @@ public class AIChatService {
         return content.trim();
     }
 
-    private String formatCurrency(BigDecimal amount) {
-        if (amount == null) return "0đ";
-        return String.format("%,dđ", amount.longValue());
-    }
-
-    private String translateStatus(String status) {
-        return switch (status) {
-            case "PENDING" -> "Chờ thanh toán";
-            case "PAID" -> "Đã thanh toán";
-            case "OVERDUE" -> "Quá hạn";
-            case "CANCELLED" -> "Đã hủy";
-            default -> status;
-        };
-    }
-
-    private Room findRoomByCode(String roomCode, String landlordId) {
-        List<House> houses = houseRepository.findByOwnerId(landlordId);
-        for (House house : houses) {
-            List<Room> rooms = roomRepository.findByHouseId(house.getId());
-            for (Room room : rooms) {
-                if (room.getCode().equalsIgnoreCase(roomCode)) {
-                    return room;
-                }
-            }
-        }
-        return null;
-    }
-
     private ChatResponseDto parseResponse(String content, String landlordId) {
         content = cleanJsonResponse(content);
 
@@ -759,7 +840,7 @@ public class AIChatService {
         invoiceService.recordManualPayment(invoice.getId(), remainingAmount, "CASH", "Thanh toán qua AI Assistant", landlordId);
 
         return ExecuteActionResponse.success(
-                "Đã ghi nhận thanh toán " + formatCurrency(remainingAmount) + " cho phòng " + roomCode,
+                "Đã ghi nhận thanh toán " + ChatContextBuilder.formatCurrency(remainingAmount) + " cho phòng " + roomCode,
                 Map.of("invoiceId", invoice.getId(), "amount", remainingAmount)
         );
     }
@@ -780,7 +861,7 @@ public class AIChatService {
         }
 
         if (houseId == null) {
-            List<House> houses = houseRepository.findByOwnerId(landlordId);
+            List<House> houses = portfolioSnapshotService.get(landlordId).houses();
             if (houses.isEmpty()) {
                 return ExecuteActionResponse.error("Bạn chưa có nhà trọ nào");
             }
@@ -794,7 +875,7 @@ public class AIChatService {
         ExpenseDto expense = expenseService.create(createRequest, landlordId, null);
 
         return ExecuteActionResponse.success(
-                "Đã tạo khoản chi \"" + description + "\" với số tiền " + formatCurrency(amount),
+                "Đã tạo khoản chi \"" + description + "\" với số tiền " + ChatContextBuilder.formatCurrency(amount),
                 expense
         );
     }
@@ -889,6 +970,7 @@ public class AIChatService {
 
     private Object enrichActionData(String actionType, Map<String, Object> actionData, String landlordId) {
         try {
+            PortfolioSnapshot snapshot = portfolioSnapshotService.get(landlordId);
             switch (actionType) {
                 case "CREATE_INVOICE", "MARK_INVOICE_PAID", "RECORD_METER" -> {
                     String roomCode = (String) actionData.get("roomCode");
@@ -898,15 +980,10 @@ public class AIChatService {
                         periodMonth = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM"));
                     }
 
-                    Room targetRoom = findRoomByCode(roomCode, landlordId);
+                    Room targetRoom = snapshot.roomByCode(roomCode);
                     if (targetRoom != null) {
-                        House targetHouse = roomRepository.findById(targetRoom.getId())
-                                .flatMap(r -> houseRepository.findById(r.getHouseId()))
-                                .orElse(null);
-
-                        Contract contract = contractRepository
-                                .findByRoomIdAndStatus(targetRoom.getId(), Contract.ContractStatus.ACTIVE)
-                                .orElse(null);
+                        House targetHouse = snapshot.house(targetRoom.getHouseId());
+                        Contract contract = snapshot.activeContract(targetRoom.getId());
 
                         Map<String, Object> enriched = new HashMap<>(actionData);
                         enriched.put("roomId", targetRoom.getId());
@@ -926,14 +1003,16 @@ public class AIChatService {
                     Map<String, Object> enriched = new HashMap<>(actionData);
                     String houseId = (String) actionData.get("houseId");
                     if (houseId == null) {
-                        List<House> houses = houseRepository.findByOwnerId(landlordId);
+                        List<House> houses = snapshot.houses();
                         if (!houses.isEmpty()) {
                             enriched.put("houseId", houses.get(0).getId());
                             enriched.put("houseName", houses.get(0).getName());
                         }
                     } else {
-                        houseRepository.findById(houseId).ifPresent(house ->
-                                enriched.put("houseName", house.getName()));
+                        House house = snapshot.house(houseId);
+                        if (house != null) {
+                            enriched.put("houseName", house.getName());
+                        }
                     }
                     if (actionData.get("category") == null) {
                         enriched.put("category", "OTHER");
@@ -981,11 +1060,9 @@ public class AIChatService {
 
                 case "ADD_TENANT" -> {
                     String roomCode = (String) actionData.get("roomCode");
-                    Room targetRoom = findRoomByCode(roomCode, landlordId);
+                    Room targetRoom = snapshot.roomByCode(roomCode);
                     if (targetRoom != null) {
-                        House targetHouse = roomRepository.findById(targetRoom.getId())
-                                .flatMap(r -> houseRepository.findById(r.getHouseId()))
-                                .orElse(null);
+                        House targetHouse = snapshot.house(targetRoom.getHouseId());
 
                         Map<String, Object> enriched = new HashMap<>(actionData);
                         enriched.put("roomId", targetRoom.getId());
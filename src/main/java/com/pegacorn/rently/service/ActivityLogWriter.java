@@ -0,0 +1,158 @@
+package com.pegacorn.rently.service;
+
+import com.pegacorn.rently.entity.ActivityLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers activity log rows in a bounded queue and writes them with multi-row INSERTs
+ * from a single background thread, flushing whenever a batch fills up or the flush
+ * interval elapses. Remaining rows are written on shutdown.
+ */
+@Service
+@Slf4j
+public class ActivityLogWriter {
+
+    private static final String INSERT_PREFIX = "INSERT INTO activity_logs"
+            + " (id, landlord_id, type, entity_id, entity_type, description, metadata, created_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int MAX_DESCRIPTION_LENGTH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<ActivityLog> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public ActivityLogWriter(
+            JdbcTemplate jdbcTemplate,
+            @Value("${activity-log.buffer-capacity:10000}") int bufferCapacity,
+            @Value("${activity-log.batch-size:200}") int batchSize,
+            @Value("${activity-log.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        flusher = Thread.ofPlatform().name("activity-log-writer").daemon(true).start(this::runFlushLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        // Whatever the loop did not get to
+        List<ActivityLog> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int i = 0; i < remaining.size(); i += batchSize) {
+            write(remaining.subList(i, Math.min(i + batchSize, remaining.size())));
+        }
+        log.info("Activity log writer stopped, flushed {} pending rows", remaining.size());
+    }
+
+    /**
+     * Queues a row without blocking. When the buffer is full the row is written on the
+     * caller's thread instead, so bursts slow callers down rather than losing entries.
+     */
+    public void enqueue(ActivityLog activity) {
+        if (!queue.offer(activity)) {
+            log.warn("Activity log buffer full, writing synchronously");
+            write(List.of(activity));
+        }
+    }
+
+    private void runFlushLoop() {
+        List<ActivityLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                ActivityLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (batch.size() < batchSize) {
+                    long wait = deadline - System.currentTimeMillis();
+                    ActivityLog next = wait > 0 ? queue.poll(wait, TimeUnit.MILLISECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                // stop() drains the queue
+                Thread.currentThread().interrupt();
+                write(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<ActivityLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            insert(batch);
+        } catch (Exception e) {
+            // Isolate the bad row (e.g. landlord deleted meanwhile) instead of losing the batch
+            log.warn("Batch insert of {} activity logs failed, retrying row by row: {}", batch.size(), e.getMessage());
+            for (ActivityLog activity : batch) {
+                try {
+                    insert(List.of(activity));
+                } catch (Exception rowError) {
+                    log.error("Dropping activity log {} ({}): {}", activity.getId(), activity.getType(),
+                            rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<ActivityLog> rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        Object[] args = new Object[rows.size() * 8];
+        int i = 0;
+        for (ActivityLog row : rows) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+            args[i++] = row.getId();
+            args[i++] = row.getLandlordId();
+            args[i++] = row.getType().name();
+            args[i++] = row.getEntityId();
+            args[i++] = row.getEntityType();
+            args[i++] = truncate(row.getDescription());
+            args[i++] = row.getMetadata();
+            args[i++] = Timestamp.valueOf(row.getCreatedAt());
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    private static String truncate(String description) {
+        return description != null && description.length() > MAX_DESCRIPTION_LENGTH
+                ? description.substring(0, MAX_DESCRIPTION_LENGTH)
+                : description;
+    }
+}
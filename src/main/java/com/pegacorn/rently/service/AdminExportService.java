@@ -0,0 +1,300 @@
+package com.pegacorn.rently.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.pegacorn.rently.constant.MessageConstant;
+import com.pegacorn.rently.exception.ApiException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams admin datasets as CSV or NDJSON straight from a forward-only JDBC cursor.
+ * Rows are written as they arrive, so memory use does not grow with table size; the
+ * body runs on the MVC async executor rather than the request thread.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AdminExportService {
+
+    // Each running export holds a pooled connection for its whole duration
+    private static final int MAX_CONCURRENT_EXPORTS = 2;
+    private static final String EXPORT_PERMIT_INTERCEPTOR = AdminExportService.class.getName() + ".permit";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final Semaphore exportPermits = new Semaphore(MAX_CONCURRENT_EXPORTS);
+
+    public enum Dataset {
+        USERS("SELECT u.id, u.phone, u.full_name, u.email, u.gender, u.status,"
+                + " (SELECT GROUP_CONCAT(ur.role ORDER BY ur.role SEPARATOR ';') FROM user_roles ur WHERE ur.user_id = u.id) AS roles,"
+                + " u.created_at, u.updated_at, u.deleted_at"
+                + " FROM users u ORDER BY u.created_at, u.id"),
+        HOUSES("SELECT h.id, h.name, h.address, h.status, h.owner_id, o.full_name AS owner_name, o.phone AS owner_phone,"
+                + " h.created_at, h.updated_at"
+                + " FROM houses h LEFT JOIN users o ON o.id = h.owner_id ORDER BY h.id"),
+        ROOMS("SELECT r.id, r.code, r.floor, r.area_m2, r.base_rent, r.max_tenants, r.status, r.house_id,"
+                + " h.name AS house_name, r.created_at, r.updated_at"
+                + " FROM rooms r LEFT JOIN houses h ON h.id = r.house_id ORDER BY r.id"),
+        CONTRACTS("SELECT c.id, c.status, c.room_id, r.code AS room_code, h.name AS house_name, c.landlord_id,"
+                + " c.tenant_id, t.full_name AS tenant_name, t.phone AS tenant_phone, c.start_date, c.end_date,"
+                + " c.monthly_rent, c.deposit_amount, c.deposit_paid, c.created_at, c.updated_at"
+                + " FROM contracts c LEFT JOIN rooms r ON r.id = c.room_id LEFT JOIN houses h ON h.id = r.house_id"
+                + " LEFT JOIN users t ON t.id = c.tenant_id ORDER BY c.id"),
+        INVOICES("SELECT i.id, i.status, i.invoice_type, i.period_month, i.due_date, i.total_amount, i.paid_amount,"
+                + " i.contract_id, r.code AS room_code, h.name AS house_name, i.tenant_id, t.full_name AS tenant_name,"
+                + " i.created_at, i.updated_at"
+                + " FROM invoices i LEFT JOIN contracts c ON c.id = i.contract_id LEFT JOIN rooms r ON r.id = c.room_id"
+                + " LEFT JOIN houses h ON h.id = r.house_id LEFT JOIN users t ON t.id = i.tenant_id ORDER BY i.id"),
+        PAYMENTS("SELECT p.id, p.invoice_id, p.amount, p.method, p.status, p.transaction_code,"
+                + " p.sepay_transaction_id, p.paid_at, p.created_at"
+                + " FROM payments p ORDER BY p.id");
+
+        private final String sql;
+
+        Dataset(String sql) {
+            this.sql = sql;
+        }
+
+        public static Dataset parse(String value) {
+            try {
+                return Dataset.valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw ApiException.badRequest(MessageConstant.EXPORT_DATASET_INVALID);
+            }
+        }
+    }
+
+    public enum Format {
+        CSV("csv", "text/csv; charset=UTF-8"),
+        NDJSON("ndjson", "application/x-ndjson");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw ApiException.badRequest(MessageConstant.EXPORT_FORMAT_INVALID);
+            }
+        }
+    }
+
+    public static String fileName(Dataset dataset, Format format, boolean gzip) {
+        return dataset.name().toLowerCase() + "." + format.extension + (gzip ? ".gz" : "");
+    }
+
+    /**
+     * Reserves an export slot and returns the body that streams the dataset. The slot is
+     * released when streaming ends, or when the async request completes without the body
+     * ever running (client gone before the write started), so callers must hand the body
+     * to Spring MVC for this request.
+     */
+    public StreamingResponseBody export(Dataset dataset, Format format, boolean gzip, HttpServletRequest request) {
+        if (!exportPermits.tryAcquire()) {
+            throw ApiException.tooManyRequests(MessageConstant.EXPORT_BUSY);
+        }
+        AtomicBoolean held = new AtomicBoolean(true);
+        Runnable releasePermit = () -> {
+            if (held.compareAndSet(true, false)) {
+                exportPermits.release();
+            }
+        };
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(EXPORT_PERMIT_INTERCEPTOR,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                        releasePermit.run();
+                    }
+                });
+        return outputStream -> {
+            long start = System.currentTimeMillis();
+            try {
+                OutputStream target = gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : outputStream;
+                RowWriter writer = format == Format.CSV ? new CsvRowWriter(target) : new NdjsonRowWriter(target);
+                long rows = stream(dataset, writer);
+                writer.finish();
+                if (target instanceof GZIPOutputStream gzipStream) {
+                    gzipStream.finish();
+                }
+                outputStream.flush();
+                log.info("Exported {} {} rows as {} in {}ms", rows, dataset, format, System.currentTimeMillis() - start);
+            } catch (UncheckedIOException e) {
+                // Client went away mid-download
+                log.warn("Export of {} aborted: {}", dataset, e.getCause().getMessage());
+            } finally {
+                releasePermit.run();
+            }
+        };
+    }
+
+    private long stream(Dataset dataset, RowWriter writer) {
+        long[] count = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(dataset.sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J streams row by row only with this exact fetch size
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> {
+            try {
+                writer.write(resultSet);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    private interface RowWriter {
+        void write(ResultSet resultSet) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer out;
+        private String[] columns;
+
+        CsvRowWriter(OutputStream outputStream) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+            // BOM so spreadsheet apps detect UTF-8 (Vietnamese names)
+            out.write('\uFEFF');
+        }
+
+        @Override
+        public void write(ResultSet resultSet) throws SQLException, IOException {
+            if (columns == null) {
+                columns = columnLabels(resultSet.getMetaData());
+                writeLine(columns);
+            }
+            String[] values = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                Object value = toExportValue(resultSet.getObject(i + 1));
+                // Numbers and dates are written as is, so negative amounts stay numeric
+                values[i] = value == null ? "" : value instanceof String text ? neutralizeFormula(text) : value.toString();
+            }
+            writeLine(values);
+        }
+
+        private void writeLine(String[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(escape(values[i]));
+            }
+            out.write("\r\n");
+        }
+
+        // Keep spreadsheet apps from evaluating user-entered text as a formula
+        private static String neutralizeFormula(String text) {
+            return !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0 ? "'" + text : text;
+        }
+
+        private static String escape(String cell) {
+            if (cell.indexOf(',') >= 0 || cell.indexOf('"') >= 0 || cell.indexOf('\n') >= 0 || cell.indexOf('\r') >= 0) {
+                return "\"" + cell.replace("\"", "\"\"") + "\"";
+            }
+            return cell;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.flush();
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final OutputStream target;
+        private final SequenceWriter out;
+        private String[] columns;
+
+        NdjsonRowWriter(OutputStream outputStream) throws IOException {
+            this.target = outputStream;
+            this.out = objectMapper.writer()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream);
+        }
+
+        @Override
+        public void write(ResultSet resultSet) throws SQLException, IOException {
+            if (columns == null) {
+                columns = columnLabels(resultSet.getMetaData());
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < columns.length; i++) {
+                row.put(columns[i], toExportValue(resultSet.getObject(i + 1)));
+            }
+            out.write(row);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.close();
+            if (columns != null) {
+                // The separator only goes between rows; terminate the last line too
+                target.write('\n');
+            }
+        }
+    }
+
+    private static String[] columnLabels(ResultSetMetaData metaData) throws SQLException {
+        String[] labels = new String[metaData.getColumnCount()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+        return labels;
+    }
+
+    private static Object toExportValue(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return value;
+    }
+}
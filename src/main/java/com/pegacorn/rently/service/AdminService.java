@@ -2,6 +2,7 @@ package com.pegacorn.rently.service;
 
 import com.pegacorn.rently.constant.MessageConstant;
 import com.pegacorn.rently.dto.announcement.AnnouncementDto;
+import com.pegacorn.rently.dto.common.CursorPage;
 import com.pegacorn.rently.dto.announcement.CreateAnnouncementRequest;
 import com.pegacorn.rently.dto.announcement.UpdateAnnouncementRequest;
 import com.pegacorn.rently.dto.auth.UserDto;
@@ -13,9 +14,18 @@ import com.pegacorn.rently.dto.setting.UpdateSettingRequest;
 import com.pegacorn.rently.entity.*;
 import com.pegacorn.rently.entity.Notification;
 import com.pegacorn.rently.exception.ApiException;
+import com.pegacorn.rently.llm.LlmGateway;
 import com.pegacorn.rently.repository.*;
+import com.pegacorn.rently.security.TokenVersionService;
+import com.pegacorn.rently.security.UserDetailsCache;
 import com.pegacorn.rently.specification.ActivityLogSpecification;
-import com.pegacorn.rently.specification.UserSpecification;
+import com.pegacorn.rently.specification.ContractSpecification;
+import com.pegacorn.rently.specification.InvoiceSpecification;
+import com.pegacorn.rently.specification.RoomSpecification;
+import com.pegacorn.rently.util.BoundedCache;
+import com.pegacorn.rently.util.KeysetCursor;
+import com.pegacorn.rently.util.KeysetPaging;
+import com.pegacorn.rently.util.TextNormalizer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -25,69 +35,65 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class AdminService {
 
+    private static final int MAX_DIRECTORY_PAGE_SIZE = 100;
+    private static final int DIRECTORY_COUNT_CAP = 10_000;
+    private static final int ROLE_BATCH_SIZE = 1000;
+    private static final long STATS_TTL_MILLIS = 60 * 1000;
+    private static final Set<String> ROOM_SORT_FIELDS = Set.of("createdAt", "code", "baseRent", "floor", "status");
+    private static final Set<String> CONTRACT_SORT_FIELDS = Set.of("createdAt", "startDate", "endDate",
+            "monthlyRent", "status");
+    private static final Set<String> INVOICE_SORT_FIELDS = Set.of("createdAt", "dueDate", "periodMonth",
+            "totalAmount", "status");
+
     private final UserRepository userRepository;
     private final UserRoleRepository userRoleRepository;
     private final HouseRepository houseRepository;
     private final RoomRepository roomRepository;
     private final ContractRepository contractRepository;
     private final InvoiceRepository invoiceRepository;
-    private final PaymentRepository paymentRepository;
     private final ActivityLogRepository activityLogRepository;
     private final SystemSettingRepository systemSettingRepository;
     private final AnnouncementRepository announcementRepository;
     private final NotificationService notificationService;
+    private final FinancialRollupService financialRollupService;
+    private final TokenVersionService tokenVersionService;
+    private final UserDetailsCache userDetailsCache;
+    private final LlmGateway llmGateway;
+    private final ChatPipelineMetrics chatPipelineMetrics;
+    private final OcrJobService ocrJobService;
+    private final PortfolioSnapshotService portfolioSnapshotService;
+    private final ChatResponseCache chatResponseCache;
+
+    private final Object statsLock = new Object();
+    private volatile CachedStats cachedStats;
+
+    private record CachedStats(Map<String, Object> stats, long computedAt) {
+    }
 
     // Paginated users with filters (database-level filtering)
     public Map<String, Object> getAllUsersPaginated(int page, int size, String status, String role, String search,
             boolean includeDeleted) {
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-
-        // Build specification with filters
-        Specification<User> spec = (root, query, cb) -> cb.conjunction();
-
-        // Include/exclude deleted users
-        if (!includeDeleted) {
-            spec = spec.and(UserSpecification.notDeleted());
-        }
-
-        // Status filter
-        if (status != null && !status.isEmpty()) {
-            try {
-                User.UserStatus filterStatus = User.UserStatus.valueOf(status.toUpperCase());
-                spec = spec.and(UserSpecification.hasStatus(filterStatus));
-            } catch (IllegalArgumentException ignored) {
-            }
-        }
-
-        // Role filter (using subquery)
-        if (role != null && !role.isEmpty()) {
-            try {
-                User.Role filterRole = User.Role.valueOf(role.toUpperCase());
-                spec = spec.and(UserSpecification.hasRole(filterRole, "userRole"));
-            } catch (IllegalArgumentException ignored) {
-            }
-        }
+        DirectoryFilter filter = DirectoryFilter.of(status, role, search, includeDeleted);
 
-        // Search filter
-        if (search != null && !search.isEmpty()) {
-            spec = spec.and(UserSpecification.searchByNameOrPhone(search));
-        }
-
-        // Execute query with specifications
-        Page<User> userPage = userRepository.findAll(spec, pageRequest);
+        Page<User> userPage = userRepository.searchDirectory(filter.includeDeleted(), filter.status(),
+                filter.role(), filter.nameQuery(), filter.namePrefix(), filter.phonePrefix(),
+                PageRequest.of(page, size));
 
-        List<UserDto> users = userPage.getContent().stream()
-                .peek(user -> user.setRoles(userRoleRepository.findRolesByUserId(user.getId())))
+        List<User> content = userPage.getContent();
+        attachRoles(content);
+        List<UserDto> users = content.stream()
                 .map(UserDto::fromEntity)
                 .toList();
 
@@ -99,18 +105,126 @@ public class AdminService {
         return getAllUsersPaginated(page, size, status, role, search, false);
     }
 
+    // Keyset-paginated directory: stable cost per page regardless of depth, approximate total
+    public Map<String, Object> getUserDirectory(String cursor, int size, String status, String role, String search,
+            boolean includeDeleted, boolean withTotal) {
+        int pageSize = Math.max(1, Math.min(size, MAX_DIRECTORY_PAGE_SIZE));
+        DirectoryFilter filter = DirectoryFilter.of(status, role, search, includeDeleted);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        List<User> rows = userRepository.findDirectoryAfter(filter.includeDeleted(), filter.status(),
+                filter.role(), filter.nameQuery(), filter.namePrefix(), filter.phonePrefix(),
+                after != null ? after.createdAt() : null, after != null ? after.id() : null, pageSize + 1);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<User> content = hasNext ? rows.subList(0, pageSize) : rows;
+        attachRoles(content);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("content", content.stream().map(UserDto::fromEntity).toList());
+        response.put("size", pageSize);
+        response.put("hasNext", hasNext);
+        response.put("nextCursor", hasNext
+                ? new KeysetCursor(content.get(content.size() - 1).getCreatedAt(),
+                        content.get(content.size() - 1).getId()).encode()
+                : null);
+        if (withTotal) {
+            long total = userRepository.countDirectoryCapped(filter.includeDeleted(), filter.status(),
+                    filter.role(), filter.nameQuery(), filter.namePrefix(), filter.phonePrefix(),
+                    DIRECTORY_COUNT_CAP + 1);
+            boolean exact = total <= DIRECTORY_COUNT_CAP;
+            if (!exact && filter.isUnfiltered()) {
+                Long estimate = userRepository.estimateRowCount();
+                total = estimate != null ? Math.max(estimate, DIRECTORY_COUNT_CAP) : DIRECTORY_COUNT_CAP;
+            } else if (!exact) {
+                total = DIRECTORY_COUNT_CAP;
+            }
+            response.put("totalElements", total);
+            response.put("totalExact", exact);
+        }
+        return response;
+    }
+
     public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .peek(user -> user.setRoles(userRoleRepository.findRolesByUserId(user.getId())))
+        List<User> users = userRepository.findAll();
+        attachRoles(users);
+        return users.stream()
                 .map(UserDto::fromEntity)
                 .toList();
     }
 
+    // Loads roles for many users with one IN query per batch instead of one query per user
+    private void attachRoles(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        List<String> userIds = users.stream().map(User::getId).toList();
+        Map<String, List<User.Role>> rolesByUser = new HashMap<>();
+        for (int i = 0; i < userIds.size(); i += ROLE_BATCH_SIZE) {
+            userRoleRepository.findByUserIdIn(userIds.subList(i, Math.min(i + ROLE_BATCH_SIZE, userIds.size())))
+                    .forEach(userRole -> rolesByUser
+                            .computeIfAbsent(userRole.getUserId(), id -> new ArrayList<>())
+                            .add(userRole.getRole()));
+        }
+        users.forEach(user -> user.setRoles(rolesByUser.getOrDefault(user.getId(), List.of())));
+    }
+
+    /**
+     * Directory filters translated to native query parameters. Numeric searches match
+     * phone prefixes; text searches use the ngram full-text index on full_name, falling
+     * back to a name prefix match for one-character terms the index cannot serve.
+     */
+    private record DirectoryFilter(boolean includeDeleted, String status, String role,
+            String nameQuery, String namePrefix, String phonePrefix) {
+
+        private static final Pattern NUMERIC = Pattern.compile("[0-9\\s.+()-]+");
+        private static final int MIN_FULLTEXT_TERM = 2;
+
+        static DirectoryFilter of(String status, String role, String search, boolean includeDeleted) {
+            String statusName = null;
+            if (status != null && !status.isEmpty()) {
+                try {
+                    statusName = User.UserStatus.valueOf(status.toUpperCase()).name();
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+            String roleName = null;
+            if (role != null && !role.isEmpty()) {
+                try {
+                    roleName = User.Role.valueOf(role.toUpperCase()).name();
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+
+            String nameQuery = null;
+            String namePrefix = null;
+            String phonePrefix = null;
+            if (search != null && !search.isBlank()) {
+                String trimmed = search.trim();
+                String digits = TextNormalizer.digitsOnly(trimmed);
+                List<String> terms = TextNormalizer.tokens(trimmed);
+                if (!digits.isEmpty() && NUMERIC.matcher(trimmed).matches()) {
+                    phonePrefix = digits + "%";
+                } else if (!terms.isEmpty() && terms.stream().allMatch(term -> term.length() >= MIN_FULLTEXT_TERM)) {
+                    // Every term required; quoting keeps each term a phrase of ngrams
+                    nameQuery = terms.stream().map(term -> "+\"" + term + "\"").collect(Collectors.joining(" "));
+                } else {
+                    namePrefix = trimmed.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+                }
+            }
+            return new DirectoryFilter(includeDeleted, statusName, roleName, nameQuery, namePrefix, phonePrefix);
+        }
+
+        boolean isUnfiltered() {
+            return includeDeleted && status == null && role == null
+                    && nameQuery == null && namePrefix == null && phonePrefix == null;
+        }
+    }
+
     public UserDto getUserById(String id) {
-        User user = userRepository.findById(id)
+        return userDetailsCache.get(id)
+                .map(UserDetailsCache.CachedUser::user)
                 .orElseThrow(() -> ApiException.notFound(MessageConstant.USER_NOT_FOUND));
-        user.setRoles(userRoleRepository.findRolesByUserId(user.getId()));
-        return UserDto.fromEntity(user);
     }
 
     @Transactional
@@ -123,7 +237,9 @@ public class AdminService {
         }
         user.setStatus(User.UserStatus.LOCKED);
         user.setUpdatedAt(LocalDateTime.now());
+        tokenVersionService.revoke(user);
         userRepository.save(user);
+        userDetailsCache.invalidate(user.getId());
         user.setRoles(roles);
         return UserDto.fromEntity(user);
     }
@@ -135,6 +251,8 @@ public class AdminService {
         user.setStatus(User.UserStatus.ACTIVE);
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        tokenVersionService.evict(user.getId());
+        userDetailsCache.invalidate(user.getId());
         user.setRoles(userRoleRepository.findRolesByUserId(user.getId()));
         return UserDto.fromEntity(user);
     }
@@ -151,7 +269,9 @@ public class AdminService {
         user.setStatus(User.UserStatus.DELETED);
         user.setDeletedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
+        tokenVersionService.revoke(user);
         userRepository.save(user);
+        userDetailsCache.invalidate(user.getId());
     }
 
     @Transactional
@@ -165,6 +285,8 @@ public class AdminService {
         user.setDeletedAt(null);
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        tokenVersionService.evict(user.getId());
+        userDetailsCache.invalidate(user.getId());
         user.setRoles(userRoleRepository.findRolesByUserId(user.getId()));
         return UserDto.fromEntity(user);
     }
@@ -180,6 +302,8 @@ public class AdminService {
         // Hard delete - remove from database
         userRoleRepository.deleteByUserId(id);
         userRepository.delete(user);
+        tokenVersionService.evict(id);
+        userDetailsCache.invalidate(id);
     }
 
     // Paginated houses
@@ -225,42 +349,29 @@ public class AdminService {
         }).collect(Collectors.toList());
     }
 
-    // Paginated rooms
-    public Map<String, Object> getAllRoomsWithDetailsPaginated(int page, int size) {
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Room> roomPage = roomRepository.findAll(pageRequest);
-        Map<String, House> houseMap = houseRepository.findAll().stream()
-                .collect(Collectors.toMap(House::getId, h -> h));
-        Map<String, User> userMap = userRepository.findAll().stream().collect(Collectors.toMap(User::getId, u -> u));
-        List<Map<String, Object>> rooms = roomPage.getContent().stream().map(room -> {
-            Map<String, Object> result = new LinkedHashMap<>();
-            result.put("id", room.getId());
-            result.put("name", room.getCode());
-            result.put("status", room.getStatus().name());
-            result.put("basePrice", room.getBaseRent());
-            result.put("area", room.getAreaM2());
-            result.put("floor", room.getFloor());
-            result.put("createdAt", room.getCreatedAt());
-            House house = houseMap.get(room.getHouseId());
-            if (house != null) {
-                result.put("houseName", house.getName());
-                result.put("houseId", house.getId());
-                User owner = userMap.get(house.getOwnerId());
-                if (owner != null) {
-                    result.put("ownerName", owner.getFullName());
-                    result.put("ownerPhone", owner.getPhone());
-                }
-            }
-            return result;
-        }).collect(Collectors.toList());
-        return createPageResponse(rooms, roomPage.getTotalElements(), page, size);
+    // Paginated rooms with filters; related houses/owners are loaded only for the rows on the page
+    public Map<String, Object> getAllRoomsWithDetailsPaginated(int page, int size, String status, String houseId,
+            String ownerId, String search, String sort) {
+        PageRequest pageRequest = PageRequest.of(page, size, parseSort(sort, ROOM_SORT_FIELDS));
+
+        Specification<Room> spec = (root, query, cb) -> cb.conjunction();
+        spec = spec.and(RoomSpecification.hasStatusString(status))
+                .and(RoomSpecification.inHouse(houseId))
+                .and(RoomSpecification.ownedBy(ownerId))
+                .and(RoomSpecification.codeStartsWith(search));
+
+        Page<Room> roomPage = roomRepository.findAll(spec, pageRequest);
+        return createPageResponse(toRoomRows(roomPage.getContent()), roomPage.getTotalElements(), page, size);
     }
 
     public List<Map<String, Object>> getAllRoomsWithDetails() {
-        List<Room> rooms = roomRepository.findAll();
-        Map<String, House> houseMap = houseRepository.findAll().stream()
-                .collect(Collectors.toMap(House::getId, h -> h));
-        Map<String, User> userMap = userRepository.findAll().stream().collect(Collectors.toMap(User::getId, u -> u));
+        return toRoomRows(roomRepository.findAll());
+    }
+
+    private List<Map<String, Object>> toRoomRows(List<Room> rooms) {
+        Map<String, House> houseMap = loadById(ids(rooms, Room::getHouseId), houseRepository::findAllById, House::getId);
+        Map<String, User> userMap = loadById(ids(houseMap.values(), House::getOwnerId), userRepository::findAllById,
+                User::getId);
         return rooms.stream().map(room -> {
             Map<String, Object> result = new LinkedHashMap<>();
             result.put("id", room.getId());
@@ -284,50 +395,33 @@ public class AdminService {
         }).collect(Collectors.toList());
     }
 
-    // Paginated contracts
-    public Map<String, Object> getAllContractsWithDetailsPaginated(int page, int size) {
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Contract> contractPage = contractRepository.findAll(pageRequest);
-        Map<String, Room> roomMap = roomRepository.findAll().stream().collect(Collectors.toMap(Room::getId, r -> r));
-        Map<String, House> houseMap = houseRepository.findAll().stream()
-                .collect(Collectors.toMap(House::getId, h -> h));
-        Map<String, User> userMap = userRepository.findAll().stream().collect(Collectors.toMap(User::getId, u -> u));
-        List<Map<String, Object>> contracts = contractPage.getContent().stream().map(contract -> {
-            Map<String, Object> result = new LinkedHashMap<>();
-            result.put("id", contract.getId());
-            result.put("status", contract.getStatus().name());
-            result.put("startDate", contract.getStartDate());
-            result.put("endDate", contract.getEndDate());
-            result.put("monthlyRent", contract.getMonthlyRent());
-            result.put("depositAmount", contract.getDepositAmount());
-            result.put("depositPaid", contract.isDepositPaid() ? contract.getDepositAmount() : BigDecimal.ZERO);
-            result.put("createdAt", contract.getCreatedAt());
-            Room room = roomMap.get(contract.getRoomId());
-            if (room != null) {
-                result.put("roomName", room.getCode());
-                result.put("roomId", room.getId());
-                House house = houseMap.get(room.getHouseId());
-                if (house != null) {
-                    result.put("houseName", house.getName());
-                    result.put("houseId", house.getId());
-                }
-            }
-            User tenant = userMap.get(contract.getTenantId());
-            if (tenant != null) {
-                result.put("tenantName", tenant.getFullName());
-                result.put("tenantPhone", tenant.getPhone());
-            }
-            return result;
-        }).collect(Collectors.toList());
-        return createPageResponse(contracts, contractPage.getTotalElements(), page, size);
+    // Paginated contracts with filters; related rooms/houses/tenants are loaded only for the rows on the page
+    public Map<String, Object> getAllContractsWithDetailsPaginated(int page, int size, String status, String houseId,
+            String landlordId, String tenantId, String sort) {
+        PageRequest pageRequest = PageRequest.of(page, size, parseSort(sort, CONTRACT_SORT_FIELDS));
+
+        Specification<Contract> spec = (root, query, cb) -> cb.conjunction();
+        spec = spec.and(ContractSpecification.hasStatusString(status))
+                .and(ContractSpecification.inHouse(houseId))
+                .and(ContractSpecification.hasLandlordId(landlordId))
+                .and(ContractSpecification.hasTenantId(tenantId));
+
+        Page<Contract> contractPage = contractRepository.findAll(spec, pageRequest);
+        return createPageResponse(toContractRows(contractPage.getContent()), contractPage.getTotalElements(), page,
+                size);
     }
 
     public List<Map<String, Object>> getAllContractsWithDetails() {
-        List<Contract> contracts = contractRepository.findAll();
-        Map<String, Room> roomMap = roomRepository.findAll().stream().collect(Collectors.toMap(Room::getId, r -> r));
-        Map<String, House> houseMap = houseRepository.findAll().stream()
-                .collect(Collectors.toMap(House::getId, h -> h));
-        Map<String, User> userMap = userRepository.findAll().stream().collect(Collectors.toMap(User::getId, u -> u));
+        return toContractRows(contractRepository.findAll());
+    }
+
+    private List<Map<String, Object>> toContractRows(List<Contract> contracts) {
+        Map<String, Room> roomMap = loadById(ids(contracts, Contract::getRoomId), roomRepository::findAllById,
+                Room::getId);
+        Map<String, House> houseMap = loadById(ids(roomMap.values(), Room::getHouseId), houseRepository::findAllById,
+                House::getId);
+        Map<String, User> userMap = loadById(ids(contracts, Contract::getTenantId), userRepository::findAllById,
+                User::getId);
         return contracts.stream().map(contract -> {
             Map<String, Object> result = new LinkedHashMap<>();
             result.put("id", contract.getId());
@@ -357,55 +451,36 @@ public class AdminService {
         }).collect(Collectors.toList());
     }
 
-    // Paginated invoices
-    public Map<String, Object> getAllInvoicesWithDetailsPaginated(int page, int size) {
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Invoice> invoicePage = invoiceRepository.findAll(pageRequest);
-        Map<String, Contract> contractMap = contractRepository.findAll().stream()
-                .collect(Collectors.toMap(Contract::getId, c -> c));
-        Map<String, Room> roomMap = roomRepository.findAll().stream().collect(Collectors.toMap(Room::getId, r -> r));
-        Map<String, House> houseMap = houseRepository.findAll().stream()
-                .collect(Collectors.toMap(House::getId, h -> h));
-        Map<String, User> userMap = userRepository.findAll().stream().collect(Collectors.toMap(User::getId, u -> u));
-        List<Map<String, Object>> invoices = invoicePage.getContent().stream().map(invoice -> {
-            Map<String, Object> result = new LinkedHashMap<>();
-            result.put("id", invoice.getId());
-            result.put("invoiceNumber", invoice.getId().substring(0, 8).toUpperCase());
-            result.put("status", invoice.getStatus().name());
-            result.put("totalAmount", invoice.getTotalAmount());
-            result.put("paidAmount", invoice.getPaidAmount());
-            result.put("periodMonth", invoice.getPeriodMonth());
-            result.put("dueDate", invoice.getDueDate());
-            result.put("createdAt", invoice.getCreatedAt());
-            Contract contract = contractMap.get(invoice.getContractId());
-            if (contract != null) {
-                Room room = roomMap.get(contract.getRoomId());
-                if (room != null) {
-                    result.put("roomName", room.getCode());
-                    House house = houseMap.get(room.getHouseId());
-                    if (house != null) {
-                        result.put("houseName", house.getName());
-                    }
-                }
-            }
-            User tenant = userMap.get(invoice.getTenantId());
-            if (tenant != null) {
-                result.put("tenantName", tenant.getFullName());
-                result.put("tenantPhone", tenant.getPhone());
-            }
-            return result;
-        }).collect(Collectors.toList());
-        return createPageResponse(invoices, invoicePage.getTotalElements(), page, size);
+    // Paginated invoices with filters; related contracts/rooms/houses/tenants are loaded only for the rows on the page
+    public Map<String, Object> getAllInvoicesWithDetailsPaginated(int page, int size, String status,
+            String periodMonth, String houseId, String landlordId, String tenantId, String sort) {
+        PageRequest pageRequest = PageRequest.of(page, size, parseSort(sort, INVOICE_SORT_FIELDS));
+
+        Specification<Invoice> spec = (root, query, cb) -> cb.conjunction();
+        spec = spec.and(InvoiceSpecification.hasStatusString(status))
+                .and(InvoiceSpecification.hasPeriodMonth(periodMonth))
+                .and(InvoiceSpecification.inHouse(houseId))
+                .and(InvoiceSpecification.hasLandlordId(landlordId))
+                .and(InvoiceSpecification.hasTenantId(tenantId));
+
+        Page<Invoice> invoicePage = invoiceRepository.findAll(spec, pageRequest);
+        return createPageResponse(toInvoiceRows(invoicePage.getContent()), invoicePage.getTotalElements(), page,
+                size);
     }
 
     public List<Map<String, Object>> getAllInvoicesWithDetails() {
-        List<Invoice> invoices = invoiceRepository.findAll();
-        Map<String, Contract> contractMap = contractRepository.findAll().stream()
-                .collect(Collectors.toMap(Contract::getId, c -> c));
-        Map<String, Room> roomMap = roomRepository.findAll().stream().collect(Collectors.toMap(Room::getId, r -> r));
-        Map<String, House> houseMap = houseRepository.findAll().stream()
-                .collect(Collectors.toMap(House::getId, h -> h));
-        Map<String, User> userMap = userRepository.findAll().stream().collect(Collectors.toMap(User::getId, u -> u));
+        return toInvoiceRows(invoiceRepository.findAll());
+    }
+
+    private List<Map<String, Object>> toInvoiceRows(List<Invoice> invoices) {
+        Map<String, Contract> contractMap = loadById(ids(invoices, Invoice::getContractId),
+                contractRepository::findAllById, Contract::getId);
+        Map<String, Room> roomMap = loadById(ids(contractMap.values(), Contract::getRoomId),
+                roomRepository::findAllById, Room::getId);
+        Map<String, House> houseMap = loadById(ids(roomMap.values(), Room::getHouseId), houseRepository::findAllById,
+                House::getId);
+        Map<String, User> userMap = loadById(ids(invoices, Invoice::getTenantId), userRepository::findAllById,
+                User::getId);
         return invoices.stream().map(invoice -> {
             Map<String, Object> result = new LinkedHashMap<>();
             result.put("id", invoice.getId());
@@ -436,56 +511,63 @@ public class AdminService {
         }).collect(Collectors.toList());
     }
 
+    private static <T> Set<String> ids(Collection<T> rows, Function<T, String> idOf) {
+        return rows.stream().map(idOf).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    private static <T> Map<String, T> loadById(Set<String> ids, Function<Set<String>, List<T>> loader,
+            Function<T, String> idOf) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return loader.apply(ids).stream().collect(Collectors.toMap(idOf, Function.identity()));
+    }
+
+    // "field" or "field,asc|desc" restricted to a whitelist; defaults to newest first. id breaks ties
+    // so offset pages stay stable.
+    private static Sort parseSort(String sort, Set<String> allowedFields) {
+        Sort.Direction direction = Sort.Direction.DESC;
+        String field = "createdAt";
+        if (sort != null && !sort.isBlank()) {
+            String[] parts = sort.split(",");
+            if (allowedFields.contains(parts[0].trim())) {
+                field = parts[0].trim();
+                if (parts.length > 1 && parts[1].trim().equalsIgnoreCase("asc")) {
+                    direction = Sort.Direction.ASC;
+                }
+            }
+        }
+        return Sort.by(direction, field).and(Sort.by(direction, "id"));
+    }
+
+    // Month totals come from the nightly rollup table for closed months, grouped SQL otherwise
     public Map<String, Object> getFinancialReport(int year, Integer month) {
         Map<String, Object> report = new LinkedHashMap<>();
-        LocalDateTime startDate, endDate;
-        if (month != null) {
-            YearMonth ym = YearMonth.of(year, month);
-            startDate = ym.atDay(1).atStartOfDay();
-            endDate = ym.atEndOfMonth().atTime(23, 59, 59);
-        } else {
-            startDate = LocalDate.of(year, 1, 1).atStartOfDay();
-            endDate = LocalDate.of(year, 12, 31).atTime(23, 59, 59);
-        }
-        List<Payment> payments = paymentRepository.findAll().stream()
-                .filter(p -> p.getCreatedAt().isAfter(startDate) && p.getCreatedAt().isBefore(endDate)).toList();
-        BigDecimal totalRevenue = payments.stream().map(Payment::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        List<Invoice> invoices = invoiceRepository.findAll().stream()
-                .filter(i -> i.getCreatedAt().isAfter(startDate) && i.getCreatedAt().isBefore(endDate)).toList();
-        long paidInvoices = invoices.stream().filter(i -> i.getStatus() == Invoice.InvoiceStatus.PAID).count();
-        long unpaidInvoices = invoices.stream().filter(i -> i.getStatus() == Invoice.InvoiceStatus.SENT).count();
-        long overdueInvoices = invoices.stream().filter(i -> i.getStatus() == Invoice.InvoiceStatus.SENT
-                && i.getDueDate() != null && i.getDueDate().isBefore(LocalDate.now())).count();
-        BigDecimal totalBilled = invoices.stream().map(Invoice::getTotalAmount).reduce(BigDecimal.ZERO,
-                BigDecimal::add);
-        BigDecimal totalPaid = invoices.stream().map(Invoice::getPaidAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        report.put("totalRevenue", totalRevenue);
-        report.put("totalBilled", totalBilled);
-        report.put("totalPaid", totalPaid);
-        report.put("totalOutstanding", totalBilled.subtract(totalPaid));
-        report.put("paidInvoices", paidInvoices);
-        report.put("unpaidInvoices", unpaidInvoices);
-        report.put("overdueInvoices", overdueInvoices);
-        report.put("totalInvoices", invoices.size());
-        report.put("totalPayments", payments.size());
+        YearMonth from = month != null ? YearMonth.of(year, month) : YearMonth.of(year, 1);
+        YearMonth to = month != null ? from : YearMonth.of(year, 12);
+        Map<YearMonth, FinancialRollupService.MonthTotals> monthlyTotals =
+                financialRollupService.getMonthlyTotals(from, to);
+        FinancialRollupService.MonthTotals totals = monthlyTotals.values().stream()
+                .reduce(FinancialRollupService.MonthTotals.EMPTY, FinancialRollupService.MonthTotals::plus);
+
+        report.put("totalRevenue", totals.revenue());
+        report.put("totalBilled", totals.totalBilled());
+        report.put("totalPaid", totals.totalPaid());
+        report.put("totalOutstanding", totals.totalBilled().subtract(totals.totalPaid()));
+        report.put("paidInvoices", totals.paidInvoices());
+        report.put("unpaidInvoices", totals.unpaidInvoices());
+        report.put("overdueInvoices", totals.overdueInvoices());
+        report.put("totalInvoices", totals.invoiceCount());
+        report.put("totalPayments", totals.paymentCount());
         if (month == null) {
             List<Map<String, Object>> monthlyData = new ArrayList<>();
-            for (int m = 1; m <= 12; m++) {
-                YearMonth ym = YearMonth.of(year, m);
-                LocalDateTime mStart = ym.atDay(1).atStartOfDay();
-                LocalDateTime mEnd = ym.atEndOfMonth().atTime(23, 59, 59);
-                final int fm = m;
-                BigDecimal monthRevenue = payments.stream()
-                        .filter(p -> p.getCreatedAt().isAfter(mStart) && p.getCreatedAt().isBefore(mEnd))
-                        .map(Payment::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-                long monthInvoices = invoices.stream()
-                        .filter(i -> i.getCreatedAt().isAfter(mStart) && i.getCreatedAt().isBefore(mEnd)).count();
+            monthlyTotals.forEach((ym, monthTotals) -> {
                 Map<String, Object> monthData = new LinkedHashMap<>();
-                monthData.put("month", fm);
-                monthData.put("revenue", monthRevenue);
-                monthData.put("invoices", monthInvoices);
+                monthData.put("month", ym.getMonthValue());
+                monthData.put("revenue", monthTotals.revenue());
+                monthData.put("invoices", monthTotals.invoiceCount());
                 monthlyData.add(monthData);
-            }
+            });
             report.put("monthlyBreakdown", monthlyData);
         }
         return report;
@@ -496,6 +578,41 @@ public class AdminService {
             LocalDateTime startDate, LocalDateTime endDate) {
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
 
+        // Execute query with specifications
+        Page<ActivityLog> logPage = activityLogRepository.findAll(
+                activityLogFilter(type, userId, startDate, endDate), pageRequest);
+
+        List<ActivityLogDto> logs = logPage.getContent().stream()
+                .map(ActivityLogDto::fromEntity)
+                .toList();
+
+        return createPageResponse(logs, logPage.getTotalElements(), page, size);
+    }
+
+    // Cursor-paginated activity logs; the total is estimated from table statistics when unfiltered
+    public CursorPage<ActivityLogDto> getActivityLogsAfter(String cursor, int size, String type, String userId,
+            LocalDateTime startDate, LocalDateTime endDate, boolean withTotal) {
+        Specification<ActivityLog> spec = activityLogFilter(type, userId, startDate, endDate);
+        boolean unfiltered = (type == null || type.isEmpty()) && (userId == null || userId.isEmpty())
+                && startDate == null && endDate == null;
+
+        Supplier<KeysetPaging.Total> total = null;
+        if (withTotal && unfiltered) {
+            total = () -> {
+                Long estimate = activityLogRepository.estimateRowCount();
+                return new KeysetPaging.Total(estimate != null ? estimate : 0L, false);
+            };
+        } else if (withTotal) {
+            total = () -> new KeysetPaging.Total(activityLogRepository.count(spec), true);
+        }
+
+        return KeysetPaging.fetch(activityLogRepository, spec, cursor, size,
+                activity -> new KeysetCursor(activity.getCreatedAt(), activity.getId()), total)
+                .map(ActivityLogDto::fromEntity);
+    }
+
+    private Specification<ActivityLog> activityLogFilter(String type, String userId,
+            LocalDateTime startDate, LocalDateTime endDate) {
         // Build specification with filters
         Specification<ActivityLog> spec = (root, query, cb) -> cb.conjunction();
 
@@ -510,16 +627,7 @@ public class AdminService {
         }
 
         // Date range filter
-        spec = spec.and(ActivityLogSpecification.createdBetween(startDate, endDate));
-
-        // Execute query with specifications
-        Page<ActivityLog> logPage = activityLogRepository.findAll(spec, pageRequest);
-
-        List<ActivityLogDto> logs = logPage.getContent().stream()
-                .map(ActivityLogDto::fromEntity)
-                .toList();
-
-        return createPageResponse(logs, logPage.getTotalElements(), page, size);
+        return spec.and(ActivityLogSpecification.createdBetween(startDate, endDate));
     }
 
     public List<ActivityLogDto> getActivityLogs(int limit, int offset) {
@@ -532,36 +640,65 @@ public class AdminService {
         return activityLogRepository.count();
     }
 
+    // Hit/miss counters of the in-process caches
+    public List<BoundedCache.Stats> getCacheStats() {
+        return List.of(userDetailsCache.stats(), portfolioSnapshotService.stats(), chatResponseCache.stats());
+    }
+
+    public List<LlmGateway.Stats> getLlmStats() {
+        return llmGateway.stats();
+    }
+
+    public List<ChatPipelineMetrics.StageStats> getChatPipelineStats() {
+        return chatPipelineMetrics.stats();
+    }
+
+    public OcrJobService.Stats getOcrJobStats() {
+        return ocrJobService.stats();
+    }
+
     public Map<String, Object> getSystemStats() {
+        return getSystemStats(false);
+    }
+
+    // Served from a short-lived cache; refresh=true recomputes immediately
+    public Map<String, Object> getSystemStats(boolean refresh) {
+        CachedStats cached = cachedStats;
+        if (!refresh && cached != null && System.currentTimeMillis() - cached.computedAt() < STATS_TTL_MILLIS) {
+            return cached.stats();
+        }
+        synchronized (statsLock) {
+            cached = cachedStats;
+            if (!refresh && cached != null && System.currentTimeMillis() - cached.computedAt() < STATS_TTL_MILLIS) {
+                return cached.stats();
+            }
+            Map<String, Object> stats = Collections.unmodifiableMap(computeSystemStats());
+            cachedStats = new CachedStats(stats, System.currentTimeMillis());
+            return stats;
+        }
+    }
+
+    private Map<String, Object> computeSystemStats() {
         Map<String, Object> stats = new LinkedHashMap<>();
-        List<User> allUsers = userRepository.findAll();
 
         // Total users with breakdown
-        stats.put("totalUsers", allUsers.size());
-        stats.put("activeUsers", allUsers.stream().filter(u -> u.getStatus() == User.UserStatus.ACTIVE).count());
-        stats.put("lockedUsers", allUsers.stream().filter(u -> u.getStatus() == User.UserStatus.LOCKED).count());
+        Map<User.UserStatus, Long> byStatus = new EnumMap<>(User.UserStatus.class);
+        userRepository.countGroupByStatus().forEach(row -> byStatus.put(row.getStatus(), row.getTotal()));
+        stats.put("totalUsers", byStatus.values().stream().mapToLong(Long::longValue).sum());
+        stats.put("activeUsers", byStatus.getOrDefault(User.UserStatus.ACTIVE, 0L));
+        stats.put("lockedUsers", byStatus.getOrDefault(User.UserStatus.LOCKED, 0L));
 
         // Count by role
-        Map<String, List<User.Role>> userRolesMap = new HashMap<>();
-        for (User user : allUsers) {
-            List<User.Role> roles = userRoleRepository.findRolesByUserId(user.getId());
-            userRolesMap.put(user.getId(), roles);
-        }
-
-        long totalLandlords = userRolesMap.values().stream()
-                .filter(roles -> roles.contains(User.Role.LANDLORD))
-                .count();
-        long totalTenants = userRolesMap.values().stream()
-                .filter(roles -> roles.contains(User.Role.TENANT))
-                .count();
-
-        stats.put("totalLandlords", totalLandlords);
-        stats.put("totalTenants", totalTenants);
+        Map<User.Role, Long> byRole = new EnumMap<>(User.Role.class);
+        userRoleRepository.countUsersGroupByRole().forEach(row -> byRole.put(row.getRole(), row.getTotal()));
+        stats.put("totalLandlords", byRole.getOrDefault(User.Role.LANDLORD, 0L));
+        stats.put("totalTenants", byRole.getOrDefault(User.Role.TENANT, 0L));
 
         // Platform scale
         stats.put("totalHouses", houseRepository.count());
         stats.put("totalRooms", roomRepository.count());
 
+        stats.put("generatedAt", LocalDateTime.now());
         return stats;
     }
 
@@ -665,6 +802,14 @@ public class AdminService {
         return createPageResponse(announcements, announcementPage.getTotalElements(), page, size);
     }
 
+    public CursorPage<AnnouncementDto> getAnnouncementsAfter(String cursor, int size, boolean withTotal) {
+        Specification<Announcement> all = (root, query, cb) -> cb.conjunction();
+        return KeysetPaging.fetch(announcementRepository, all, cursor, size,
+                announcement -> new KeysetCursor(announcement.getCreatedAt(), announcement.getId()),
+                withTotal ? () -> new KeysetPaging.Total(announcementRepository.count(), true) : null)
+                .map(AnnouncementDto::fromEntity);
+    }
+
     public AnnouncementDto getAnnouncementById(String id) {
         Announcement announcement = announcementRepository.findById(id)
                 .orElseThrow(() -> ApiException.notFound(MessageConstant.ANNOUNCEMENT_NOT_FOUND));
@@ -6,23 +6,27 @@ import com.pegacorn.rently.entity.OtpVerification;
 import com.pegacorn.rently.entity.User;
 import com.pegacorn.rently.entity.UserRole;
 import com.pegacorn.rently.exception.ApiException;
-import com.pegacorn.rently.repository.OtpVerificationRepository;
+import com.pegacorn.rently.otp.OtpStore;
+import com.pegacorn.rently.otp.OtpThrottle;
 import com.pegacorn.rently.repository.UserRepository;
 import com.pegacorn.rently.repository.UserRoleRepository;
 import com.pegacorn.rently.security.JwtService;
+import com.pegacorn.rently.security.UserDetailsCache;
+import com.pegacorn.rently.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.security.SecureRandom;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Random;
 import java.util.UUID;
 
 @Service
@@ -30,19 +34,22 @@ import java.util.UUID;
 public class AuthService {
 
     private static final int OTP_COOLDOWN_SECONDS = 120;
+    private static final Duration OTP_TTL = Duration.ofMinutes(5);
+    private static final SecureRandom OTP_RANDOM = new SecureRandom();
 
     private final UserRepository userRepository;
     private final UserRoleRepository userRoleRepository;
-    private final OtpVerificationRepository otpVerificationRepository;
+    private final OtpStore otpStore;
+    private final OtpThrottle otpThrottle;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final UserDetailsCache userDetailsCache;
     private final AuthenticationManager authenticationManager;
     private final SmsService smsService;
     private final ActivityLogService activityLogService;
     private final TaskService taskService;
 
-    @Transactional
-    public void requestOtp(OtpRequest request) {
+    public void requestOtp(OtpRequest request, String clientIp) {
         String phone = normalizePhone(request.phone());
         if (request.type() == OtpVerification.OtpType.REGISTER) {
             if (userRepository.existsByPhone(phone)) {
@@ -58,55 +65,13 @@ public class AuthService {
             }
         }
 
-        // Rate limiting: check if OTP was sent recently
-        checkOtpRateLimit(phone, request.type());
-
-        // Invalidate existing OTPs for this phone and type
-        otpVerificationRepository.deleteByPhoneAndType(phone, request.type());
-
-        String otpCode = generateOtp();
-
-        OtpVerification otp = OtpVerification.builder()
-                .id(UUID.randomUUID().toString())
-                .phone(phone)
-                .otpCode(otpCode)
-                .type(request.type())
-                .expiresAt(LocalDateTime.now().plusMinutes(5))
-                .verified(false)
-                .createdAt(LocalDateTime.now())
-                .build();
-
-        otpVerificationRepository.save(otp);
-
-        // Send OTP via SMS
-        smsService.sendOtp(phone, otpCode);
+        sendOtp(phone, request.type(), clientIp);
     }
 
-    @Transactional
     public void verifyOtp(VerifyOtpRequest request) {
         String phone = normalizePhone(request.phone());
-        // Debug: Log current time
-        LocalDateTime now = LocalDateTime.now();
-        System.out.println("Verifying OTP for " + phone + " at " + now);
-
-        // Find unverified OTP
-        OtpVerification.OtpType type = OtpVerification.OtpType.REGISTER;
-        // Basic verify assumes REGISTER unless context implies otherwise, but here we
-        // can stick to REGISTER default
-        // or simplistic overloading. For clarity, let's keep this for REGISTER/generic.
-
-        OtpVerification otp = otpVerificationRepository
-                .findLatestUnverifiedOtp(phone, type, now)
-                .orElseThrow(() -> {
-                    System.out.println("No valid unverified OTP found for " + phone);
-                    return ApiException.badRequest(MessageConstant.OTP_INVALID_OR_EXPIRED);
-                });
-
-        if (!otp.getOtpCode().equals(request.otp())) {
-            throw ApiException.badRequest(MessageConstant.OTP_INVALID);
-        }
-
-        otpVerificationRepository.markAsVerified(otp.getId());
+        // Basic verify is for REGISTER; the other flows verify inside their own step
+        verifyOtpCode(phone, OtpVerification.OtpType.REGISTER, request.otp());
     }
 
     @Transactional
@@ -120,13 +85,9 @@ public class AuthService {
             throw ApiException.conflict(MessageConstant.PHONE_ALREADY_EXISTS);
         }
 
-        // Verify OTP was validated (find verified OTP)
-        OtpVerification otp = otpVerificationRepository
-                .findLatestVerifiedOtp(phone, OtpVerification.OtpType.REGISTER, LocalDateTime.now())
-                .orElseThrow(() -> ApiException.badRequest(MessageConstant.OTP_REQUIRED_FIRST));
-
-        if (!otp.getOtpCode().equals(request.otp())) {
-            throw ApiException.badRequest(MessageConstant.OTP_INVALID);
+        // Verify OTP was validated in the verify step
+        if (!otpStore.isVerified(phone, OtpVerification.OtpType.REGISTER, request.otp())) {
+            throw ApiException.badRequest(MessageConstant.OTP_REQUIRED_FIRST);
         }
 
         String userId = UUID.randomUUID().toString();
@@ -152,11 +113,11 @@ public class AuthService {
         userRoleRepository.save(role);
 
         // Clean up all OTPs for this phone number
-        otpVerificationRepository.deleteByPhone(phone);
+        otpStore.clear(phone);
 
         user.setRoles(List.of(User.Role.LANDLORD));
 
-        String token = jwtService.generateToken(userId, List.of("LANDLORD"));
+        String token = jwtService.generateToken(userId, List.of("LANDLORD"), user.getTokenVersion());
         String refreshToken = jwtService.generateRefreshToken(userId);
 
         return new LoginResponse(UserDto.fromEntity(user), token, refreshToken);
@@ -164,29 +125,31 @@ public class AuthService {
 
     public LoginResponse login(LoginRequest request) {
         String phone = normalizePhone(request.phone());
+        Authentication authentication;
         try {
-            authenticationManager.authenticate(
+            authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(phone, request.password()));
         } catch (LockedException | DisabledException e) {
             throw ApiException.forbidden(MessageConstant.ACCOUNT_LOCKED);
+        } catch (ApiException e) {
+            // Password hashing pool saturated
+            throw e;
         } catch (Exception e) {
             throw ApiException.unauthorized(MessageConstant.CREDENTIALS_INVALID);
         }
 
-        User user = userRepository.findByPhone(phone)
+        String userId = ((UserPrincipal) authentication.getPrincipal()).getId();
+        UserDetailsCache.CachedUser cached = userDetailsCache.get(userId)
                 .orElseThrow(() -> ApiException.unauthorized(MessageConstant.CREDENTIALS_INVALID));
+        UserDto user = cached.user();
 
-        List<User.Role> roles = userRoleRepository.findRolesByUserId(user.getId());
-        user.setRoles(roles);
-
-        List<String> roleNames = roles.stream().map(Enum::name).toList();
-        String token = jwtService.generateToken(user.getId(), roleNames);
-        String refreshToken = jwtService.generateRefreshToken(user.getId());
+        String token = jwtService.generateToken(user.id(), user.roles(), cached.tokenVersion());
+        String refreshToken = jwtService.generateRefreshToken(user.id());
 
         // Log user login
-        activityLogService.logUserLogin(user.getId(), user.getPhone());
+        activityLogService.logUserLogin(user.id(), user.phone());
 
-        return new LoginResponse(UserDto.fromEntity(user), token, refreshToken);
+        return new LoginResponse(user, token, refreshToken);
     }
 
     public LoginResponse refreshToken(String refreshToken) {
@@ -195,52 +158,28 @@ public class AuthService {
         }
 
         String userId = jwtService.extractUserId(refreshToken);
-        User user = userRepository.findById(userId)
+        UserDetailsCache.CachedUser cached = userDetailsCache.get(userId)
                 .orElseThrow(() -> ApiException.unauthorized(MessageConstant.USER_NOT_FOUND));
+        UserDto user = cached.user();
 
-        if (user.getStatus() == User.UserStatus.LOCKED) {
+        // Refresh tokens are not versioned, so re-check the account here
+        if (!User.UserStatus.ACTIVE.name().equals(user.status())) {
             throw ApiException.forbidden(MessageConstant.ACCOUNT_LOCKED);
         }
 
-        List<User.Role> roles = userRoleRepository.findRolesByUserId(user.getId());
-        user.setRoles(roles);
-
-        List<String> roleNames = roles.stream().map(Enum::name).toList();
-        String newToken = jwtService.generateToken(user.getId(), roleNames);
-        String newRefreshToken = jwtService.generateRefreshToken(user.getId());
+        String newToken = jwtService.generateToken(user.id(), user.roles(), cached.tokenVersion());
+        String newRefreshToken = jwtService.generateRefreshToken(user.id());
 
-        return new LoginResponse(UserDto.fromEntity(user), newToken, newRefreshToken);
+        return new LoginResponse(user, newToken, newRefreshToken);
     }
 
-    @Transactional
-    public void forgotPasswordOtp(String rawPhone) {
+    public void forgotPasswordOtp(String rawPhone, String clientIp) {
         String phone = normalizePhone(rawPhone);
         if (!userRepository.existsByPhone(phone)) {
             throw ApiException.notFound(MessageConstant.PHONE_NOT_FOUND);
         }
 
-        // Rate limiting: check if OTP was sent recently
-        checkOtpRateLimit(phone, OtpVerification.OtpType.RESET_PASSWORD);
-
-        // Invalidate existing OTPs for this phone
-        otpVerificationRepository.deleteByPhoneAndType(phone, OtpVerification.OtpType.RESET_PASSWORD);
-
-        String otpCode = generateOtp();
-
-        OtpVerification otp = OtpVerification.builder()
-                .id(UUID.randomUUID().toString())
-                .phone(phone)
-                .otpCode(otpCode)
-                .type(OtpVerification.OtpType.RESET_PASSWORD)
-                .expiresAt(LocalDateTime.now().plusMinutes(5))
-                .verified(false)
-                .createdAt(LocalDateTime.now())
-                .build();
-
-        otpVerificationRepository.save(otp);
-
-        // Send OTP via SMS
-        smsService.sendOtp(phone, otpCode);
+        sendOtp(phone, OtpVerification.OtpType.RESET_PASSWORD, clientIp);
     }
 
     @Transactional
@@ -250,14 +189,8 @@ public class AuthService {
             throw ApiException.badRequest(MessageConstant.PASSWORD_MISMATCH);
         }
 
-        // Find unverified OTP (reset password verifies and uses in one step)
-        OtpVerification otp = otpVerificationRepository
-                .findLatestUnverifiedOtp(phone, OtpVerification.OtpType.RESET_PASSWORD, LocalDateTime.now())
-                .orElseThrow(() -> ApiException.badRequest(MessageConstant.OTP_INVALID_OR_EXPIRED));
-
-        if (!otp.getOtpCode().equals(request.otp())) {
-            throw ApiException.badRequest(MessageConstant.OTP_INVALID);
-        }
+        // Reset password verifies and uses the OTP in one step
+        verifyOtpCode(phone, OtpVerification.OtpType.RESET_PASSWORD, request.otp());
 
         User user = userRepository.findByPhone(phone)
                 .orElseThrow(() -> ApiException.notFound(MessageConstant.USER_NOT_FOUND));
@@ -265,9 +198,7 @@ public class AuthService {
         user.setPasswordHash(passwordEncoder.encode(request.newPassword()));
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
-
-        // Mark OTP as used
-        otpVerificationRepository.markAsVerified(otp.getId());
+        userDetailsCache.invalidate(user.getId());
     }
 
     @Transactional
@@ -286,6 +217,7 @@ public class AuthService {
         user.setPasswordHash(passwordEncoder.encode(request.newPassword()));
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        userDetailsCache.invalidate(user.getId());
     }
 
     public boolean checkUserExistence(String rawPhone) {
@@ -296,16 +228,7 @@ public class AuthService {
     @Transactional
     public UserDto verifyTenantAccessOtp(VerifyOtpRequest request) {
         String phone = normalizePhone(request.phone());
-        OtpVerification otp = otpVerificationRepository
-                .findLatestUnverifiedOtp(phone, OtpVerification.OtpType.TENANT_VERIFICATION,
-                        LocalDateTime.now())
-                .orElseThrow(() -> ApiException.badRequest(MessageConstant.OTP_INVALID_OR_EXPIRED));
-
-        if (!otp.getOtpCode().equals(request.otp())) {
-            throw ApiException.badRequest(MessageConstant.OTP_INVALID);
-        }
-
-        otpVerificationRepository.markAsVerified(otp.getId());
+        verifyOtpCode(phone, OtpVerification.OtpType.TENANT_VERIFICATION, request.otp());
 
         User user = userRepository.findByPhone(phone)
                 .orElseThrow(() -> ApiException.notFound(MessageConstant.USER_NOT_FOUND));
@@ -315,11 +238,9 @@ public class AuthService {
     }
 
     public UserDto getMe(String userId) {
-        User user = userRepository.findById(userId)
+        return userDetailsCache.get(userId)
+                .map(UserDetailsCache.CachedUser::user)
                 .orElseThrow(() -> ApiException.notFound(MessageConstant.USER_NOT_FOUND));
-
-        user.setRoles(userRoleRepository.findRolesByUserId(userId));
-        return UserDto.fromEntity(user);
     }
 
     @Transactional
@@ -362,6 +283,7 @@ public class AuthService {
 
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        userDetailsCache.invalidate(userId);
 
         user.setRoles(userRoleRepository.findRolesByUserId(userId));
         return UserDto.fromEntity(user);
@@ -387,20 +309,43 @@ public class AuthService {
 
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        userDetailsCache.invalidate(userId);
 
         user.setRoles(userRoleRepository.findRolesByUserId(userId));
         return UserDto.fromEntity(user);
     }
 
+    private void sendOtp(String phone, OtpVerification.OtpType type, String clientIp) {
+        // Rate limiting: check if OTP was sent recently, then the per phone/IP budgets
+        checkOtpRateLimit(phone, type);
+        otpThrottle.checkSend(phone, clientIp);
+
+        String otpCode = generateOtp();
+        // Replaces any pending code for this phone and type
+        otpStore.issue(phone, type, otpCode, OTP_TTL);
+
+        // Send OTP via SMS
+        smsService.sendOtp(phone, otpCode);
+    }
+
+    private void verifyOtpCode(String phone, OtpVerification.OtpType type, String otp) {
+        otpThrottle.checkVerify(phone);
+        switch (otpStore.verify(phone, type, otp)) {
+            case EXPIRED -> throw ApiException.badRequest(MessageConstant.OTP_INVALID_OR_EXPIRED);
+            case MISMATCH -> throw ApiException.badRequest(MessageConstant.OTP_INVALID);
+            case VALID -> {
+            }
+        }
+    }
+
     private String generateOtp() {
-        Random random = new Random();
-        return String.format("%06d", random.nextInt(1000000));
+        return String.format("%06d", OTP_RANDOM.nextInt(1000000));
     }
 
     private void checkOtpRateLimit(String phone, OtpVerification.OtpType type) {
-        otpVerificationRepository.findLatestByPhoneAndType(phone, type)
-                .ifPresent(lastOtp -> {
-                    LocalDateTime cooldownEnd = lastOtp.getCreatedAt().plusSeconds(OTP_COOLDOWN_SECONDS);
+        otpStore.lastIssuedAt(phone, type)
+                .ifPresent(lastIssuedAt -> {
+                    LocalDateTime cooldownEnd = lastIssuedAt.plusSeconds(OTP_COOLDOWN_SECONDS);
                     if (LocalDateTime.now().isBefore(cooldownEnd)) {
                         long remainingSeconds = Duration.between(LocalDateTime.now(), cooldownEnd).getSeconds();
                         throw ApiException
@@ -0,0 +1,263 @@
+package com.pegacorn.rently.service;
+
+import com.pegacorn.rently.dto.ai.DataRequirementDto;
+import com.pegacorn.rently.dto.ai.FetchedDataDto;
+import com.pegacorn.rently.util.TextNormalizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Renders fetched data into the "DỮ LIỆU HIỆN TẠI" block of the response prompt within a token
+ * budget. The overview and house list always go in; each list section then gets a fair share
+ * of what is left. A section that does not fit is replaced by per-status/per-category totals
+ * plus its most relevant rows: the requested room or house first, then unpaid invoices,
+ * contracts ending soonest and the largest expenses.
+ */
+@Component
+public class ChatContextBuilder {
+
+    // Rough average for Vietnamese text with the OpenAI tokenizers
+    private static final int CHARS_PER_TOKEN = 3;
+
+    private final int maxTokens;
+
+    public ChatContextBuilder(@Value("${ai-chat.context.max-tokens:3000}") int maxTokens) {
+        this.maxTokens = maxTokens;
+    }
+
+    private record Section(String title, List<String> rows, List<String> totals, String moreLabel) {
+    }
+
+    public String build(FetchedDataDto data, DataRequirementDto req) {
+        StringBuilder ctx = new StringBuilder();
+        appendOverview(ctx, data);
+
+        if (!data.houses().isEmpty()) {
+            ctx.append("\n### Danh sách nhà:\n");
+            for (var h : data.houses()) {
+                ctx.append(String.format("- %s: %d phòng (Trống: %d, Đang thuê: %d)\n",
+                        h.name(), h.totalRooms(), h.emptyRooms(), h.rentedRooms()));
+            }
+        }
+
+        List<Section> sections = new ArrayList<>();
+        addIfPresent(sections, meterSection(data));
+        addIfPresent(sections, invoiceSection(data, req));
+        addIfPresent(sections, contractSection(data, req));
+        addIfPresent(sections, roomSection(data, req));
+        addIfPresent(sections, expenseSection(data));
+
+        int remaining = maxTokens - estimateTokens(ctx);
+        for (int i = 0; i < sections.size(); i++) {
+            int share = Math.max(0, remaining / (sections.size() - i));
+            String rendered = render(sections.get(i), share);
+            ctx.append(rendered);
+            remaining -= estimateTokens(rendered);
+        }
+
+        if (ctx.length() == 0) {
+            ctx.append("Không có dữ liệu phù hợp với yêu cầu.");
+        }
+        return ctx.toString();
+    }
+
+    static int estimateTokens(CharSequence text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    static String formatCurrency(BigDecimal amount) {
+        if (amount == null) return "0đ";
+        return String.format("%,dđ", amount.longValue());
+    }
+
+    private void appendOverview(StringBuilder ctx, FetchedDataDto data) {
+        if (data.summary() == null) {
+            return;
+        }
+        var s = data.summary();
+        if (s.totalHouses() > 0) {
+            ctx.append(String.format("Tổng quan: %d nhà, %d phòng (Trống: %d, Đang thuê: %d)\n",
+                    s.totalHouses(), s.totalRooms(), s.emptyRooms(), s.rentedRooms()));
+        }
+        if (s.totalInvoiceAmount().compareTo(BigDecimal.ZERO) > 0) {
+            ctx.append(String.format("Hóa đơn: Tổng %s, Đã thu %s\n",
+                    formatCurrency(s.totalInvoiceAmount()), formatCurrency(s.paidInvoiceAmount())));
+        }
+        if (s.totalExpenseAmount().compareTo(BigDecimal.ZERO) > 0) {
+            ctx.append(String.format("Chi phí: Tổng %s\n", formatCurrency(s.totalExpenseAmount())));
+        }
+    }
+
+    /**
+     * Whole section when it fits the share; otherwise totals first, then rows in rank order
+     * until the share is spent, then a count of what was left out.
+     */
+    private String render(Section section, int shareTokens) {
+        StringBuilder full = new StringBuilder("\n### ").append(section.title()).append(":\n");
+        section.rows().forEach(row -> full.append(row).append('\n'));
+        if (estimateTokens(full) <= shareTokens) {
+            return full.toString();
+        }
+
+        StringBuilder out = new StringBuilder("\n### ").append(section.title()).append(":\n");
+        section.totals().forEach(total -> out.append(total).append('\n'));
+        int included = 0;
+        // Leave room for the closing "... và N ..." line
+        int limit = shareTokens - estimateTokens(section.moreLabel()) - 4;
+        for (String row : section.rows()) {
+            if (estimateTokens(out) + estimateTokens(row) + 1 > limit) {
+                break;
+            }
+            out.append(row).append('\n');
+            included++;
+        }
+        int omitted = section.rows().size() - included;
+        if (omitted > 0) {
+            out.append(String.format("- ... và %d %s\n", omitted, section.moreLabel()));
+        }
+        return out.toString();
+    }
+
+    private Section meterSection(FetchedDataDto data) {
+        List<String> rows = data.meterReadings().stream()
+                .map(m -> String.format("- Phòng %s kỳ %s: Điện %s→%s, Nước %s→%s",
+                        m.roomCode(), m.periodMonth(),
+                        m.electricityOld(), m.electricityNew(),
+                        m.waterOld(), m.waterNew()))
+                .toList();
+        return new Section("Chỉ số điện nước", rows, List.of(), "chỉ số khác");
+    }
+
+    private Section invoiceSection(FetchedDataDto data, DataRequirementDto req) {
+        List<FetchedDataDto.InvoiceData> ranked = ranked(data.invoices(),
+                i -> (matches(i.roomCode(), req.roomCodeFilter()) ? 10 : 0) + unpaidRank(i.status()),
+                Comparator.comparing((FetchedDataDto.InvoiceData i) -> outstanding(i)).reversed());
+        List<String> rows = ranked.stream()
+                .map(i -> String.format("- Phòng %s (%s): %s/%s, Trạng thái: %s",
+                        i.roomCode(), i.tenantName(),
+                        formatCurrency(i.paidAmount()), formatCurrency(i.totalAmount()),
+                        translateStatus(i.status())))
+                .toList();
+        List<String> totals = totalsBy(data.invoices(), i -> translateStatus(i.status()),
+                FetchedDataDto.InvoiceData::totalAmount, "Theo trạng thái");
+        return new Section("Hóa đơn", rows, totals, "hóa đơn khác");
+    }
+
+    private Section contractSection(FetchedDataDto data, DataRequirementDto req) {
+        List<FetchedDataDto.ContractData> ranked = ranked(data.contracts(),
+                c -> (matches(c.roomCode(), req.roomCodeFilter()) ? 10 : 0)
+                        + (matchesHouse(c.houseName(), req.houseNameFilter()) ? 5 : 0),
+                Comparator.comparing((FetchedDataDto.ContractData c) -> c.endDate() != null ? c.endDate() : "9999"));
+        List<String> rows = ranked.stream()
+                .map(c -> String.format("- Phòng %s (%s): %s, Tiền thuê: %s",
+                        c.roomCode(), c.houseName(), c.tenantName(), formatCurrency(c.monthlyRent())))
+                .toList();
+        List<String> totals = totalsBy(data.contracts(), FetchedDataDto.ContractData::houseName,
+                FetchedDataDto.ContractData::monthlyRent, "Theo nhà");
+        return new Section("Hợp đồng đang hoạt động", rows, totals, "hợp đồng khác");
+    }
+
+    private Section roomSection(FetchedDataDto data, DataRequirementDto req) {
+        String intent = " " + TextNormalizer.normalize(req.intentSummary()) + " ";
+        List<FetchedDataDto.RoomData> ranked = ranked(data.rooms(),
+                r -> (matches(r.code(), req.roomCodeFilter()) ? 10 : 0)
+                        + (matchesHouse(r.houseName(), req.houseNameFilter()) ? 5 : 0)
+                        + (intent.contains(" " + TextNormalizer.normalize(r.status()) + " ") ? 2 : 0),
+                Comparator.comparing(FetchedDataDto.RoomData::code));
+        List<String> rows = ranked.stream()
+                .map(r -> {
+                    String row = String.format("- %s (%s): %s, Giá: %s",
+                            r.code(), r.houseName(), r.status(), formatCurrency(r.baseRent()));
+                    return r.tenantName() != null ? row + String.format(", Người thuê: %s", r.tenantName()) : row;
+                })
+                .toList();
+        // Per-house counts are already in the house list
+        return new Section("Danh sách phòng", rows, List.of(), "phòng khác (xem số liệu theo nhà ở trên)");
+    }
+
+    private Section expenseSection(FetchedDataDto data) {
+        List<FetchedDataDto.ExpenseData> ranked = ranked(data.expenses(), e -> 0,
+                Comparator.comparing(FetchedDataDto.ExpenseData::amount,
+                        Comparator.nullsLast(Comparator.reverseOrder())));
+        List<String> rows = ranked.stream()
+                .map(e -> String.format("- %s (%s): %s, Ngày: %s",
+                        e.title(), e.category(), formatCurrency(e.amount()), e.expenseDate()))
+                .toList();
+        List<String> totals = totalsBy(data.expenses(), FetchedDataDto.ExpenseData::category,
+                FetchedDataDto.ExpenseData::amount, "Theo danh mục");
+        return new Section("Chi phí", rows, totals, "khoản chi nhỏ hơn");
+    }
+
+    private static void addIfPresent(List<Section> sections, Section section) {
+        if (!section.rows().isEmpty()) {
+            sections.add(section);
+        }
+    }
+
+    // Highest score first, ties broken by the comparator
+    private static <T> List<T> ranked(List<T> items, ToIntFunction<T> score, Comparator<T> tieBreak) {
+        return items.stream()
+                .sorted(Comparator.comparingInt(score).reversed().thenComparing(tieBreak))
+                .toList();
+    }
+
+    private static <T> List<String> totalsBy(List<T> items, Function<T, String> group,
+                                             Function<T, BigDecimal> amount, String label) {
+        Map<String, long[]> counts = new LinkedHashMap<>();
+        Map<String, BigDecimal> sums = new LinkedHashMap<>();
+        for (T item : items) {
+            String key = group.apply(item);
+            counts.computeIfAbsent(key, k -> new long[1])[0]++;
+            BigDecimal value = amount.apply(item);
+            sums.merge(key, value != null ? value : BigDecimal.ZERO, BigDecimal::add);
+        }
+        List<String> parts = new ArrayList<>();
+        counts.forEach((key, count) -> parts.add(String.format("%s: %d (%s)", key, count[0], formatCurrency(sums.get(key)))));
+        return List.of("- " + label + ": " + String.join("; ", parts));
+    }
+
+    private static boolean matches(String value, String filter) {
+        return filter != null && value != null && value.equalsIgnoreCase(filter);
+    }
+
+    private static boolean matchesHouse(String houseName, String filter) {
+        return filter != null && houseName != null
+                && TextNormalizer.fold(houseName).contains(TextNormalizer.fold(filter));
+    }
+
+    private static int unpaidRank(String status) {
+        return switch (status) {
+            case "OVERDUE" -> 3;
+            case "PARTIALLY_PAID" -> 2;
+            case "SENT", "PENDING" -> 1;
+            default -> 0;
+        };
+    }
+
+    private static BigDecimal outstanding(FetchedDataDto.InvoiceData invoice) {
+        BigDecimal total = invoice.totalAmount() != null ? invoice.totalAmount() : BigDecimal.ZERO;
+        BigDecimal paid = invoice.paidAmount() != null ? invoice.paidAmount() : BigDecimal.ZERO;
+        return total.subtract(paid);
+    }
+
+    private static String translateStatus(String status) {
+        return switch (status) {
+            case "DRAFT" -> "Nháp";
+            case "SENT", "PENDING" -> "Chờ thanh toán";
+            case "PARTIALLY_PAID" -> "Thanh toán một phần";
+            case "PAID" -> "Đã thanh toán";
+            case "OVERDUE" -> "Quá hạn";
+            case "CANCELLED" -> "Đã hủy";
+            default -> status;
+        };
+    }
+}
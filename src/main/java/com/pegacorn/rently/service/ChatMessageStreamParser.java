@@ -0,0 +1,151 @@
+package com.pegacorn.rently.service;
+
+/**
+ * Pulls the user-visible text out of a streamed chat answer. The model answers with
+ * {@code {"message": "...", "actionType": ..., "actionData": ...}}; this feeds on the raw
+ * chunks and returns only the decoded characters of the "message" string as they arrive.
+ * Answers that do not start with a JSON object (after an optional code fence) are passed
+ * through unchanged.
+ */
+class ChatMessageStreamParser {
+
+    private static final String MESSAGE_KEY = "\"message\"";
+
+    private enum State { START, RAW, SEEK_KEY, SEEK_VALUE, IN_VALUE, DONE }
+
+    private State state = State.START;
+    private final StringBuilder pending = new StringBuilder();
+    // Escape sequence carried over a chunk boundary
+    private final StringBuilder escape = new StringBuilder();
+
+    /**
+     * Consumes the next chunk and returns the text to show for it (possibly empty).
+     */
+    String accept(String chunk) {
+        StringBuilder out = new StringBuilder();
+        pending.append(chunk);
+        boolean progressed = true;
+        while (progressed) {
+            progressed = switch (state) {
+                case START -> detectFormat();
+                case RAW -> {
+                    out.append(pending);
+                    pending.setLength(0);
+                    yield false;
+                }
+                case SEEK_KEY -> seek(MESSAGE_KEY, State.SEEK_VALUE);
+                case SEEK_VALUE -> seekValueStart();
+                case IN_VALUE -> readValue(out);
+                case DONE -> {
+                    pending.setLength(0);
+                    yield false;
+                }
+            };
+        }
+        return out.toString();
+    }
+
+    private boolean detectFormat() {
+        String text = pending.toString().stripLeading();
+        if (!text.isEmpty() && text.length() < 3 && "```".startsWith(text)) {
+            // Possibly a code fence split across chunks
+            return false;
+        }
+        if (text.startsWith("```")) {
+            int lineEnd = text.indexOf('\n');
+            if (lineEnd < 0) {
+                return false;
+            }
+            text = text.substring(lineEnd + 1).stripLeading();
+        }
+        if (text.isEmpty()) {
+            return false;
+        }
+        pending.setLength(0);
+        pending.append(text);
+        state = text.charAt(0) == '{' ? State.SEEK_KEY : State.RAW;
+        return true;
+    }
+
+    private boolean seek(String token, State next) {
+        int index = pending.indexOf(token);
+        if (index < 0) {
+            // Keep a tail in case the token is split across chunks
+            int keep = Math.min(pending.length(), token.length() - 1);
+            pending.delete(0, pending.length() - keep);
+            return false;
+        }
+        pending.delete(0, index + token.length());
+        state = next;
+        return true;
+    }
+
+    private boolean seekValueStart() {
+        for (int i = 0; i < pending.length(); i++) {
+            char c = pending.charAt(i);
+            if (c == '"') {
+                pending.delete(0, i + 1);
+                state = State.IN_VALUE;
+                return true;
+            }
+            if (c != ':' && !Character.isWhitespace(c)) {
+                // "message" is not a string (e.g. null): nothing to stream
+                state = State.DONE;
+                return true;
+            }
+        }
+        pending.setLength(0);
+        return false;
+    }
+
+    private boolean readValue(StringBuilder out) {
+        int i = 0;
+        while (i < pending.length()) {
+            char c = pending.charAt(i);
+            if (!escape.isEmpty()) {
+                escape.append(c);
+                i++;
+                if (decodeEscape(out)) {
+                    escape.setLength(0);
+                }
+            } else if (c == '\\') {
+                escape.append(c);
+                i++;
+            } else if (c == '"') {
+                pending.setLength(0);
+                state = State.DONE;
+                return true;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        pending.setLength(0);
+        return false;
+    }
+
+    // True once the escape in progress is complete and has been written
+    private boolean decodeEscape(StringBuilder out) {
+        char kind = escape.charAt(1);
+        if (kind == 'u') {
+            if (escape.length() < 6) {
+                return false;
+            }
+            try {
+                out.append((char) Integer.parseInt(escape.substring(2, 6), 16));
+            } catch (NumberFormatException e) {
+                // Malformed escape: drop it, the final parse decides what is shown
+            }
+            return true;
+        }
+        out.append(switch (kind) {
+            case 'n' -> '\n';
+            case 't' -> '\t';
+            case 'r' -> '\r';
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            default -> kind;
+        });
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package com.pegacorn.rently.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative time spent in each step of an AI chat answer. Cache hits and cooldown replies
+ * skip the stages they never reach, so counts differ per stage.
+ */
+@Component
+public class ChatPipelineMetrics {
+
+    public enum Stage { INTENT, FETCH, CONTEXT, GENERATION, PARSE }
+
+    public record StageStats(String stage, long count, long totalMicros, long maxMicros) {
+        public double getAvgMillis() {
+            return count == 0 ? 0.0 : totalMicros / 1000.0 / count;
+        }
+    }
+
+    private record Timer(LongAdder count, LongAdder totalMicros, LongAccumulator maxMicros) {
+    }
+
+    private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+
+    public ChatPipelineMetrics() {
+        for (Stage stage : Stage.values()) {
+            timers.put(stage, new Timer(new LongAdder(), new LongAdder(), new LongAccumulator(Math::max, 0)));
+        }
+    }
+
+    public void record(Stage stage, long elapsedNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+        Timer timer = timers.get(stage);
+        timer.count().increment();
+        timer.totalMicros().add(micros);
+        timer.maxMicros().accumulate(micros);
+    }
+
+    // One entry per stage, in pipeline order
+    public List<StageStats> stats() {
+        List<StageStats> stats = new ArrayList<>();
+        timers.forEach((stage, timer) -> stats.add(new StageStats(stage.name(),
+                timer.count().sum(), timer.totalMicros().sum(), timer.maxMicros().get())));
+        return stats;
+    }
+}
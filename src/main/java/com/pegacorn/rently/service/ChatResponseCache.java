@@ -0,0 +1,84 @@
+package com.pegacorn.rently.service;
+
+import com.pegacorn.rently.dto.ai.ChatMessageDto;
+import com.pegacorn.rently.dto.ai.ChatResponseDto;
+import com.pegacorn.rently.dto.ai.DataRequirementDto;
+import com.pegacorn.rently.util.BoundedCache;
+import com.pegacorn.rently.util.TextNormalizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Answers to repeated AI chat questions. Entries are keyed on the folded question, a digest of
+ * the conversation history sent with it (the model answers follow-ups from that history), the
+ * resolved data requirements and the version of the landlord's portfolio snapshot the answer
+ * was built from; any write to that data produces a new snapshot version, so an old answer can
+ * no longer be found.
+ */
+@Component
+public class ChatResponseCache {
+
+    private final boolean enabled;
+    private final BoundedCache<Key, ChatResponseDto> cache;
+
+    public record Key(String landlordId, String question, String historyDigest, DataRequirementDto requirements,
+                      long dataVersion) {
+    }
+
+    public ChatResponseCache(
+            @Value("${ai-chat.response-cache.enabled:true}") boolean enabled,
+            @Value("${ai-chat.response-cache.max-size:2000}") int maxSize,
+            @Value("${ai-chat.response-cache.ttl-ms:600000}") long ttlMillis) {
+        this.enabled = enabled;
+        this.cache = new BoundedCache<>("ai-chat-responses", maxSize, ttlMillis);
+    }
+
+    public Key key(String landlordId, String question, List<ChatMessageDto> history,
+                   DataRequirementDto requirements, PortfolioSnapshot snapshot) {
+        // The intent summary is free text from the model and differs between identical questions
+        return new Key(landlordId, TextNormalizer.normalize(question), historyDigest(history),
+                requirements.withIntentSummary(null), snapshot.version());
+    }
+
+    // SHA-256 over the role/content pairs, length-prefixed so message boundaries are unambiguous
+    private static String historyDigest(List<ChatMessageDto> history) {
+        if (history == null || history.isEmpty()) {
+            return "";
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (ChatMessageDto message : history) {
+            for (String part : new String[] {message.role(), message.content()}) {
+                byte[] bytes = (part != null ? part : "").getBytes(StandardCharsets.UTF_8);
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+                digest.update(bytes);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public ChatResponseDto get(Key key) {
+        return enabled ? cache.getIfPresent(key) : null;
+    }
+
+    public void put(Key key, ChatResponseDto response) {
+        if (enabled) {
+            cache.put(key, response);
+        }
+    }
+
+    public BoundedCache.Stats stats() {
+        return cache.stats();
+    }
+}
@@ -7,6 +7,8 @@ import com.pegacorn.rently.dto.contract.UpdateContractRequest;
 import com.pegacorn.rently.entity.*;
 import com.pegacorn.rently.exception.ApiException;
 import com.pegacorn.rently.repository.*;
+import com.pegacorn.rently.security.TokenVersionService;
+import com.pegacorn.rently.security.UserDetailsCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -47,6 +49,8 @@ public class ContractService {
     private final ContractSnapshotRepository contractSnapshotRepository;
     private final ActivityLogService activityLogService;
     private final SmsService smsService;
+    private final TokenVersionService tokenVersionService;
+    private final UserDetailsCache userDetailsCache;
 
     @Value("${app.base-url:http://localhost:5173}")
     private String appBaseUrl;
@@ -145,7 +149,7 @@ public class ContractService {
             }
 
             // Ensure user has TENANT role
-            ensureTenantRole(tenant);
+            ensureTenantRole(tenant, tenantReq.isExisting());
 
             allTenants.add(tenant);
             if (tenantReq.isPrimary()) {
@@ -330,6 +334,7 @@ public class ContractService {
         if (updated) {
             tenant.setUpdatedAt(LocalDateTime.now());
             userRepository.save(tenant);
+            userDetailsCache.invalidate(tenant.getId());
         }
     }
 
@@ -363,7 +368,7 @@ public class ContractService {
         return userRepository.save(tenant);
     }
 
-    private void ensureTenantRole(User tenant) {
+    private void ensureTenantRole(User tenant, boolean existingUser) {
         if (!userRoleRepository.existsByUserIdAndRole(tenant.getId(), User.Role.TENANT)) {
             UserRole role = UserRole.builder()
                     .id(UUID.randomUUID().toString())
@@ -372,6 +377,12 @@ public class ContractService {
                     .createdAt(LocalDateTime.now())
                     .build();
             userRoleRepository.save(role);
+            if (existingUser) {
+                // Roles live in the access token; force a refresh so TENANT takes effect
+                tokenVersionService.revoke(tenant);
+                userRepository.save(tenant);
+            }
+            userDetailsCache.invalidate(tenant.getId());
         }
     }
 
@@ -0,0 +1,162 @@
+package com.pegacorn.rently.service;
+
+import com.pegacorn.rently.entity.FinancialMonthlyRollup;
+import com.pegacorn.rently.entity.Invoice;
+import com.pegacorn.rently.repository.FinancialMonthlyRollupRepository;
+import com.pegacorn.rently.repository.InvoiceRepository;
+import com.pegacorn.rently.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Monthly payment/invoice totals for the admin financial report. Closed months are
+ * read from {@code financial_monthly_rollups}, refreshed nightly; the current month and
+ * any closed month without a rollup are aggregated live with grouped queries.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FinancialRollupService {
+
+    // Invoices from closed months still get paid or go overdue, so recent months are re-aggregated
+    private static final int REFRESH_WINDOW_MONTHS = 12;
+
+    private final FinancialMonthlyRollupRepository rollupRepository;
+    private final PaymentRepository paymentRepository;
+    private final InvoiceRepository invoiceRepository;
+
+    public record MonthTotals(
+            BigDecimal revenue,
+            long paymentCount,
+            long invoiceCount,
+            BigDecimal totalBilled,
+            BigDecimal totalPaid,
+            long paidInvoices,
+            long unpaidInvoices,
+            long overdueInvoices
+    ) {
+        public static final MonthTotals EMPTY = new MonthTotals(BigDecimal.ZERO, 0, 0, BigDecimal.ZERO,
+                BigDecimal.ZERO, 0, 0, 0);
+
+        static MonthTotals fromRollup(FinancialMonthlyRollup rollup) {
+            return new MonthTotals(rollup.getRevenue(), rollup.getPaymentCount(), rollup.getInvoiceCount(),
+                    rollup.getTotalBilled(), rollup.getTotalPaid(), rollup.getPaidInvoices(),
+                    rollup.getUnpaidInvoices(), rollup.getOverdueInvoices());
+        }
+
+        public MonthTotals plus(MonthTotals other) {
+            return new MonthTotals(revenue.add(other.revenue), paymentCount + other.paymentCount,
+                    invoiceCount + other.invoiceCount, totalBilled.add(other.totalBilled),
+                    totalPaid.add(other.totalPaid), paidInvoices + other.paidInvoices,
+                    unpaidInvoices + other.unpaidInvoices, overdueInvoices + other.overdueInvoices);
+        }
+    }
+
+    /**
+     * Totals for every month in [from, to], in order. Months without data map to {@link MonthTotals#EMPTY}.
+     */
+    public Map<YearMonth, MonthTotals> getMonthlyTotals(YearMonth from, YearMonth to) {
+        Map<YearMonth, MonthTotals> totals = new LinkedHashMap<>();
+        YearMonth currentMonth = YearMonth.now();
+
+        Map<YearMonth, MonthTotals> rolledUp = new LinkedHashMap<>();
+        if (from.isBefore(currentMonth)) {
+            YearMonth lastClosed = to.isBefore(currentMonth) ? to : currentMonth.minusMonths(1);
+            rollupRepository.findByPeriodMonthBetween(periodOf(from), periodOf(lastClosed))
+                    .forEach(rollup -> rolledUp.put(YearMonth.parse(rollup.getPeriodMonth()),
+                            MonthTotals.fromRollup(rollup)));
+        }
+
+        // One grouped pass covers every month the rollups do not
+        YearMonth firstMissing = null;
+        YearMonth lastMissing = null;
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            if (!rolledUp.containsKey(month)) {
+                firstMissing = firstMissing == null ? month : firstMissing;
+                lastMissing = month;
+            }
+        }
+        Map<YearMonth, MonthTotals> live = firstMissing != null
+                ? aggregate(firstMissing, lastMissing)
+                : Map.of();
+
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            MonthTotals monthTotals = rolledUp.get(month);
+            if (monthTotals == null) {
+                monthTotals = live.getOrDefault(month, MonthTotals.EMPTY);
+            }
+            totals.put(month, monthTotals);
+        }
+        return totals;
+    }
+
+    /**
+     * Runs nightly to re-aggregate the trailing closed months into the rollup table.
+     */
+    @Scheduled(cron = "0 30 2 * * *")
+    @Transactional
+    public void refreshClosedMonths() {
+        YearMonth lastClosed = YearMonth.now().minusMonths(1);
+        YearMonth first = lastClosed.minusMonths(REFRESH_WINDOW_MONTHS - 1);
+        log.info("Refreshing financial rollups {} to {}", first, lastClosed);
+
+        Map<YearMonth, MonthTotals> totals = aggregate(first, lastClosed);
+        LocalDateTime now = LocalDateTime.now();
+        for (YearMonth month = first; !month.isAfter(lastClosed); month = month.plusMonths(1)) {
+            MonthTotals monthTotals = totals.getOrDefault(month, MonthTotals.EMPTY);
+            rollupRepository.save(FinancialMonthlyRollup.builder()
+                    .periodMonth(periodOf(month))
+                    .revenue(monthTotals.revenue())
+                    .paymentCount(monthTotals.paymentCount())
+                    .invoiceCount(monthTotals.invoiceCount())
+                    .totalBilled(monthTotals.totalBilled())
+                    .totalPaid(monthTotals.totalPaid())
+                    .paidInvoices(monthTotals.paidInvoices())
+                    .unpaidInvoices(monthTotals.unpaidInvoices())
+                    .overdueInvoices(monthTotals.overdueInvoices())
+                    .refreshedAt(now)
+                    .build());
+        }
+        log.info("Financial rollups refreshed");
+    }
+
+    // Grouped SUM/COUNT by year-month (and invoice status) over the created_at range
+    private Map<YearMonth, MonthTotals> aggregate(YearMonth from, YearMonth to) {
+        LocalDateTime start = from.atDay(1).atStartOfDay();
+        LocalDateTime end = to.plusMonths(1).atDay(1).atStartOfDay();
+        Map<YearMonth, MonthTotals> totals = new LinkedHashMap<>();
+
+        for (PaymentRepository.MonthlyPaymentTotals row : paymentRepository.sumByMonth(start, end)) {
+            totals.merge(YearMonth.of(row.getYear(), row.getMonth()),
+                    new MonthTotals(row.getRevenue(), row.getPaymentCount(), 0, BigDecimal.ZERO, BigDecimal.ZERO,
+                            0, 0, 0),
+                    MonthTotals::plus);
+        }
+
+        for (InvoiceRepository.MonthlyInvoiceTotals row : invoiceRepository.sumByMonthAndStatus(start, end,
+                LocalDate.now())) {
+            long count = row.getInvoiceCount();
+            totals.merge(YearMonth.of(row.getYear(), row.getMonth()),
+                    new MonthTotals(BigDecimal.ZERO, 0, count, row.getBilled(), row.getPaid(),
+                            row.getStatus() == Invoice.InvoiceStatus.PAID ? count : 0,
+                            row.getStatus() == Invoice.InvoiceStatus.SENT ? count : 0,
+                            row.getOverdueCount() != null ? row.getOverdueCount() : 0),
+                    MonthTotals::plus);
+        }
+        return totals;
+    }
+
+    private static String periodOf(YearMonth month) {
+        return String.format("%d-%02d", month.getYear(), month.getMonthValue());
+    }
+}
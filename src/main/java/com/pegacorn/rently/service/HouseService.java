@@ -4,24 +4,38 @@ import com.pegacorn.rently.constant.MessageConstant;
 import com.pegacorn.rently.dto.house.CreateHouseRequest;
 import com.pegacorn.rently.dto.house.HouseDto;
 import com.pegacorn.rently.dto.house.HouseStatsDto;
+import com.pegacorn.rently.dto.house.RoomGridDto;
 import com.pegacorn.rently.dto.house.UpdateHouseRequest;
 import com.pegacorn.rently.entity.Amenity;
 import com.pegacorn.rently.entity.House;
+import com.pegacorn.rently.entity.Room;
 import com.pegacorn.rently.entity.ServiceFee;
 import com.pegacorn.rently.exception.ApiException;
 import com.pegacorn.rently.repository.AmenityRepository;
 import com.pegacorn.rently.repository.ExpenseRepository;
 import com.pegacorn.rently.repository.HouseRepository;
+import com.pegacorn.rently.repository.InvoiceRepository;
+import com.pegacorn.rently.repository.MeterReadingRepository;
+import com.pegacorn.rently.repository.RoomRepository;
+import com.pegacorn.rently.repository.RoomTenantRepository;
 import com.pegacorn.rently.repository.ServiceFeeRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BinaryOperator;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +45,10 @@ public class HouseService {
         private final AmenityRepository amenityRepository;
         private final ServiceFeeRepository serviceFeeRepository;
         private final ExpenseRepository expenseRepository;
+        private final RoomRepository roomRepository;
+        private final RoomTenantRepository roomTenantRepository;
+        private final MeterReadingRepository meterReadingRepository;
+        private final InvoiceRepository invoiceRepository;
         private final ActivityLogService activityLogService;
         private final TaskService taskService;
 
@@ -336,4 +354,91 @@ public class HouseService {
                                 })
                                 .toList();
         }
+
+        /**
+         * Room grid for a house and billing period. Uses a fixed number of grouped
+         * queries regardless of room count, instead of enriching rooms one by one.
+         */
+        @Transactional(readOnly = true)
+        public RoomGridDto getRoomGrid(String houseId, String ownerId, Integer month, Integer year) {
+                House house = houseRepository.findById(houseId)
+                                .orElseThrow(() -> ApiException.notFound(MessageConstant.HOUSE_NOT_FOUND));
+
+                if (!house.getOwnerId().equals(ownerId)) {
+                        throw ApiException.forbidden(MessageConstant.ACCESS_DENIED);
+                }
+
+                LocalDate today = LocalDate.now();
+                String periodMonth = String.format("%d-%02d",
+                                year != null ? year : today.getYear(),
+                                month != null ? month : today.getMonthValue());
+
+                List<Room> rooms = roomRepository.findByHouseIdOrderByFloorAscCodeAsc(houseId);
+                if (rooms.isEmpty()) {
+                        return new RoomGridDto(houseId, periodMonth, List.of());
+                }
+
+                Map<String, Long> tenantCounts = roomTenantRepository.countActiveByHouseIdGroupByRoom(houseId).stream()
+                                .collect(Collectors.toMap(
+                                                RoomTenantRepository.RoomTenantCount::getRoomId,
+                                                RoomTenantRepository.RoomTenantCount::getTenantCount));
+
+                Map<String, BigDecimal> debts = roomRepository.sumDebtByHouseIdGroupByRoom(houseId).stream()
+                                .collect(Collectors.toMap(
+                                                RoomRepository.RoomDebt::getRoomId,
+                                                RoomRepository.RoomDebt::getDebt));
+
+                Set<String> roomsWithReading = new HashSet<>(
+                                meterReadingRepository.findRoomIdsByHouseIdAndPeriodMonth(houseId, periodMonth));
+
+                // A room can have more than one invoice in a period (e.g. after a contract
+                // change), keep the most recent one
+                Map<String, InvoiceRepository.RoomInvoiceStatus> invoices = invoiceRepository
+                                .findRoomInvoiceStatusByHouseIdAndPeriod(houseId, periodMonth).stream()
+                                .collect(Collectors.toMap(
+                                                InvoiceRepository.RoomInvoiceStatus::getRoomId,
+                                                inv -> inv,
+                                                BinaryOperator.maxBy(Comparator.comparing(
+                                                                InvoiceRepository.RoomInvoiceStatus::getCreatedAt))));
+
+                List<RoomGridDto.RoomCell> cells = rooms.stream()
+                                .map(room -> {
+                                        InvoiceRepository.RoomInvoiceStatus invoice = invoices.get(room.getId());
+                                        return new RoomGridDto.RoomCell(
+                                                        room.getId(),
+                                                        room.getCode(),
+                                                        room.getFloor(),
+                                                        room.getStatus().name(),
+                                                        tenantCounts.getOrDefault(room.getId(), 0L).intValue(),
+                                                        room.getMaxTenants(),
+                                                        debts.getOrDefault(room.getId(), BigDecimal.ZERO),
+                                                        roomsWithReading.contains(room.getId()),
+                                                        invoice != null ? invoice.getInvoiceId() : null,
+                                                        invoice != null ? invoice.getStatus().name() : null);
+                                })
+                                .toList();
+
+                return new RoomGridDto(houseId, periodMonth, cells);
+        }
+
+        /**
+         * Content hash of a room grid, used as its ETag so unchanged grids can be
+         * answered with 304 Not Modified.
+         */
+        public String computeRoomGridEtag(RoomGridDto grid) {
+                StringBuilder content = new StringBuilder(grid.houseId()).append('|').append(grid.periodMonth());
+                for (RoomGridDto.RoomCell cell : grid.rooms()) {
+                        content.append('|').append(cell.id())
+                                        .append(',').append(cell.code())
+                                        .append(',').append(cell.floor())
+                                        .append(',').append(cell.status())
+                                        .append(',').append(cell.tenantCount())
+                                        .append(',').append(cell.maxTenants())
+                                        .append(',').append(cell.debt().stripTrailingZeros().toPlainString())
+                                        .append(',').append(cell.hasMeterReading())
+                                        .append(',').append(cell.invoiceId())
+                                        .append(',').append(cell.invoiceStatus());
+                }
+                return DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+        }
 }
@@ -0,0 +1,218 @@
+package com.pegacorn.rently.service;
+
+import com.pegacorn.rently.dto.ai.DataRequirementDto;
+import com.pegacorn.rently.dto.ai.DataRequirementDto.QueryType;
+import com.pegacorn.rently.entity.House;
+import com.pegacorn.rently.entity.Room;
+import com.pegacorn.rently.util.TextNormalizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Keyword scorer for the AI assistant's common questions ("phòng nào còn trống", "ai chưa đóng
+ * tiền", "tổng chi phí tháng này"). Works on diacritic-folded text, picks up room codes and
+ * house names from the landlord's portfolio and months such as "tháng 3/2025" or "tháng trước".
+ * Returns empty whenever the question looks like an action, mixes in unknown context or scores
+ * too low, so the LLM intent pass still handles everything ambiguous.
+ */
+@Component
+public class IntentClassifier {
+
+    // Folded phrase -> weight; 2 = decisive on its own, 1 = needs support
+    private static final Map<String, Integer> ROOM_PHRASES = Map.ofEntries(
+            Map.entry("phong trong", 2), Map.entry("con trong", 2), Map.entry("dang thue", 2),
+            Map.entry("lap day", 2), Map.entry("bao nhieu phong", 2), Map.entry("phong nao", 2),
+            Map.entry("danh sach phong", 2), Map.entry("tinh trang phong", 2),
+            Map.entry("so phong", 1), Map.entry("phong", 1), Map.entry("nha tro", 1));
+    private static final Map<String, Integer> CONTRACT_PHRASES = Map.ofEntries(
+            Map.entry("hop dong", 2), Map.entry("nguoi thue", 2), Map.entry("khach thue", 2),
+            Map.entry("het han", 1), Map.entry("tien coc", 1));
+    private static final Map<String, Integer> INVOICE_PHRASES = Map.ofEntries(
+            Map.entry("hoa don", 2), Map.entry("chua dong", 2), Map.entry("chua tra", 2),
+            Map.entry("chua thanh toan", 2), Map.entry("da dong", 2), Map.entry("qua han", 2),
+            Map.entry("doanh thu", 2), Map.entry("thu nhap", 2), Map.entry("da thu", 2),
+            Map.entry("con no", 2), Map.entry("tien phong", 1), Map.entry("thu tien", 1),
+            Map.entry("dong tien", 1));
+    private static final Map<String, Integer> EXPENSE_PHRASES = Map.ofEntries(
+            Map.entry("chi phi", 2), Map.entry("khoan chi", 2), Map.entry("chi tieu", 2),
+            Map.entry("tong chi", 2), Map.entry("da chi", 2), Map.entry("tien chi", 1));
+    private static final Map<String, Integer> METER_PHRASES = Map.ofEntries(
+            Map.entry("chi so", 2), Map.entry("so dien", 2), Map.entry("so nuoc", 2),
+            Map.entry("dien nuoc", 1));
+
+    private static final List<String> HELP_PHRASES = List.of(
+            "lam sao", "lam the nao", "cach nao", "huong dan", "o dau", "the nao de", "cach de");
+    private static final List<String> GREETING_PHRASES = List.of(
+            "xin chao", "chao ban", "chao", "hello", "hi", "cam on", "thanks", "ok", "tam biet");
+    private static final List<String> STATISTICS_PHRASES = List.of(
+            "bao nhieu", "tong", "thong ke", "ty le", "bao cao");
+    // Requests to change something go through the LLM, which also builds the action payload
+    private static final List<String> ACTION_PHRASES = List.of(
+            "tao", "them", "xoa", "sua", "ghi", "danh dau", "cap nhat", "huy", "gui", "doi");
+    // Follow-ups that only make sense with the conversation history
+    private static final List<String> REFERENCE_PHRASES = List.of(
+            "thi sao", "the con", "cai do", "phong do", "nguoi do", "nhu tren", "o tren", "con lai");
+
+    // Words that mark the next token as a room code ("phòng 101", "p.101", "room 101")
+    private static final List<String> ROOM_PREFIXES = List.of("phong", "p", "room");
+
+    private static final int MAX_GREETING_TOKENS = 4;
+    private static final Pattern MONTH = Pattern.compile("\\bthang (\\d{1,2})(?: (?:nam )?(\\d{4}))?\\b");
+
+    private final boolean enabled;
+    private final int minScore;
+
+    public IntentClassifier(
+            @Value("${ai-chat.local-intent.enabled:true}") boolean enabled,
+            @Value("${ai-chat.local-intent.min-score:2}") int minScore) {
+        this.enabled = enabled;
+        this.minScore = minScore;
+    }
+
+    /**
+     * Data requirements for the message, or empty when the LLM should decide. The portfolio is
+     * only asked for once the wording alone looks answerable, so a caller still loading it in
+     * the background waits for it only then.
+     */
+    public Optional<DataRequirementDto> classify(String message, boolean hasHistory,
+                                                 Supplier<PortfolioSnapshot> portfolio) {
+        if (!enabled || message == null || message.isBlank()) {
+            return Optional.empty();
+        }
+        String text = " " + TextNormalizer.normalize(message) + " ";
+        int tokenCount = text.isBlank() ? 0 : text.trim().split(" ").length;
+
+        if (containsAny(text, ACTION_PHRASES)) {
+            return Optional.empty();
+        }
+
+        int rooms = score(text, ROOM_PHRASES);
+        int contracts = score(text, CONTRACT_PHRASES);
+        int invoices = score(text, INVOICE_PHRASES);
+        int expenses = score(text, EXPENSE_PHRASES);
+        int meter = score(text, METER_PHRASES);
+        int best = Math.max(Math.max(rooms, contracts), Math.max(Math.max(invoices, expenses), meter));
+
+        if (best == 0) {
+            if (!hasHistory && tokenCount <= MAX_GREETING_TOKENS && containsAny(text, GREETING_PHRASES)) {
+                return Optional.of(DataRequirementDto.simpleQuestion(message));
+            }
+            return Optional.empty();
+        }
+        if (containsAny(text, HELP_PHRASES)) {
+            return Optional.of(DataRequirementDto.helpQuestion(message));
+        }
+        if (best < minScore || (hasHistory && containsAny(text, REFERENCE_PHRASES))) {
+            return Optional.empty();
+        }
+
+        PortfolioSnapshot snapshot = portfolio.get();
+        Room room = findRoom(text, snapshot);
+        House house = findHouse(text, snapshot);
+        if (meter >= minScore && room == null) {
+            // Meter readings are per room; let the LLM resolve which one
+            return Optional.empty();
+        }
+
+        YearMonth period = findPeriod(text);
+        Integer month = period != null ? period.getMonthValue() : null;
+        Integer year = period != null ? period.getYear() : null;
+        boolean needRooms = rooms >= minScore || room != null || house != null;
+        boolean needMeter = meter >= minScore;
+
+        QueryType queryType;
+        if (containsAny(text, STATISTICS_PHRASES)) {
+            queryType = QueryType.STATISTICS;
+        } else if (room != null) {
+            queryType = QueryType.SINGLE_ITEM;
+        } else {
+            queryType = QueryType.LIST_DATA;
+        }
+
+        return Optional.of(new DataRequirementDto(
+                queryType,
+                needRooms, needRooms, house != null ? house.getName() : null,
+                contracts >= minScore, room != null ? room.getCode() : null,
+                invoices >= minScore, month, year,
+                expenses >= minScore, month, year,
+                needMeter, needMeter ? room.getCode() : null,
+                needMeter && period != null ? period.toString() : null,
+                false, false, null, false, message
+        ));
+    }
+
+    private static int score(String text, Map<String, Integer> phrases) {
+        int score = 0;
+        for (Map.Entry<String, Integer> phrase : phrases.entrySet()) {
+            if (text.contains(" " + phrase.getKey() + " ")) {
+                score += phrase.getValue();
+            }
+        }
+        return score;
+    }
+
+    private static boolean containsAny(String text, List<String> phrases) {
+        for (String phrase : phrases) {
+            if (text.contains(" " + phrase + " ")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Room findRoom(String text, PortfolioSnapshot snapshot) {
+        // Month numbers are not room codes
+        String[] tokens = MONTH.matcher(text).replaceAll(" ").trim().split(" +");
+        for (int i = 0; i < tokens.length; i++) {
+            Room room = snapshot.roomByCode(tokens[i]);
+            // A bare number is an amount or a count ("3 trieu", "3 nha") unless it follows a room word
+            if (room != null && (!isNumber(tokens[i]) || (i > 0 && ROOM_PREFIXES.contains(tokens[i - 1])))) {
+                return room;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isNumber(String token) {
+        return token.chars().allMatch(Character::isDigit);
+    }
+
+    private static House findHouse(String text, PortfolioSnapshot snapshot) {
+        for (House house : snapshot.houses()) {
+            String name = TextNormalizer.normalize(house.getName());
+            if (!name.isEmpty() && text.contains(" " + name + " ")) {
+                return house;
+            }
+        }
+        return null;
+    }
+
+    private static YearMonth findPeriod(String text) {
+        YearMonth current = YearMonth.from(LocalDate.now());
+        if (text.contains(" thang truoc ")) {
+            return current.minusMonths(1);
+        }
+        if (text.contains(" thang nay ")) {
+            return current;
+        }
+        Matcher matcher = MONTH.matcher(text);
+        if (matcher.find()) {
+            int month = Integer.parseInt(matcher.group(1));
+            if (month < 1 || month > 12) {
+                return null;
+            }
+            int year = matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : current.getYear();
+            return YearMonth.of(year, month);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,252 @@
+package com.pegacorn.rently.service;
+
+import com.pegacorn.rently.dto.search.SearchResultDto;
+import com.pegacorn.rently.entity.*;
+import com.pegacorn.rently.event.EntityChangedEvent;
+import com.pegacorn.rently.repository.*;
+import com.pegacorn.rently.search.LandlordSearchIndex;
+import com.pegacorn.rently.search.LandlordSearchIndex.DocType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Quick search across a landlord's tenants, rooms, houses, contracts and invoices.
+ * Each landlord gets an in-memory {@link LandlordSearchIndex}, built lazily on the first
+ * query and dropped when an entity it was built from changes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LandlordSearchService {
+
+    private static final int MAX_CACHED_INDEXES = 500;
+    // Safety net for writes that bypass entity events
+    private static final long INDEX_TTL_MILLIS = 10 * 60 * 1000;
+    private static final int MAX_LIMIT = 50;
+
+    private final HouseRepository houseRepository;
+    private final RoomRepository roomRepository;
+    private final RoomTenantRepository roomTenantRepository;
+    private final ContractRepository contractRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final UserRepository userRepository;
+
+    private final Map<String, CachedIndex> indexes = new ConcurrentHashMap<>();
+
+    // Entity ids changed while an index build may have been running, so a build that
+    // read pre-change data is not cached
+    private final Map<String, Long> recentChanges = new ConcurrentHashMap<>();
+    private final AtomicLong changeSeq = new AtomicLong();
+    private final AtomicInteger buildsInFlight = new AtomicInteger();
+
+    private record CachedIndex(LandlordSearchIndex index, long builtAt) {
+    }
+
+    public List<SearchResultDto> search(String landlordId, String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        int effectiveLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return getIndex(landlordId).search(query, effectiveLimit).stream()
+                .map(SearchResultDto::fromHit)
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        Set<String> changedIds = changedIds(event.entity());
+        if (changedIds.isEmpty()) {
+            return;
+        }
+
+        // Read before checking for builds: one starting after the check sees startSeq >= settled,
+        // so entries up to settled are of no use to it. removeIf drops entry by entry, so ids
+        // re-recorded meanwhile with a newer sequence survive.
+        long settled = changeSeq.get();
+        if (buildsInFlight.get() == 0) {
+            recentChanges.values().removeIf(seq -> seq <= settled);
+        }
+        long seq = changeSeq.incrementAndGet();
+        changedIds.forEach(id -> recentChanges.put(id, seq));
+
+        indexes.entrySet().removeIf(entry -> changedIds.contains(entry.getKey())
+                || changedIds.stream().anyMatch(entry.getValue().index()::references));
+    }
+
+    private Set<String> changedIds(Object entity) {
+        Set<String> ids = new HashSet<>();
+        if (entity instanceof House house) {
+            ids.add(house.getId());
+            ids.add(house.getOwnerId());
+        } else if (entity instanceof Room room) {
+            ids.add(room.getId());
+            ids.add(room.getHouseId());
+        } else if (entity instanceof RoomTenant roomTenant) {
+            ids.add(roomTenant.getRoomId());
+            ids.add(roomTenant.getUserId());
+        } else if (entity instanceof User user) {
+            ids.add(user.getId());
+        } else if (entity instanceof Contract contract) {
+            ids.add(contract.getId());
+            ids.add(contract.getLandlordId());
+        } else if (entity instanceof Invoice invoice) {
+            ids.add(invoice.getId());
+            ids.add(invoice.getContractId());
+        }
+        ids.remove(null);
+        return ids;
+    }
+
+    private LandlordSearchIndex getIndex(String landlordId) {
+        CachedIndex cached = indexes.get(landlordId);
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.builtAt() < INDEX_TTL_MILLIS) {
+            return cached.index();
+        }
+
+        buildsInFlight.incrementAndGet();
+        try {
+            long startSeq = changeSeq.get();
+            LandlordSearchIndex index = buildIndex(landlordId);
+
+            boolean changedDuringBuild = recentChanges.entrySet().stream()
+                    .anyMatch(change -> change.getValue() > startSeq
+                            && (change.getKey().equals(landlordId) || index.references(change.getKey())));
+            if (!changedDuringBuild) {
+                evictIfFull();
+                indexes.put(landlordId, new CachedIndex(index, now));
+            }
+            return index;
+        } finally {
+            buildsInFlight.decrementAndGet();
+        }
+    }
+
+    private void evictIfFull() {
+        if (indexes.size() < MAX_CACHED_INDEXES) {
+            return;
+        }
+        indexes.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue().builtAt()))
+                .ifPresent(oldest -> indexes.remove(oldest.getKey()));
+    }
+
+    private LandlordSearchIndex buildIndex(String landlordId) {
+        long start = System.currentTimeMillis();
+        LandlordSearchIndex.Builder builder = LandlordSearchIndex.builder();
+
+        List<House> houses = houseRepository.findByOwnerId(landlordId);
+        Map<String, House> houseById = houses.stream()
+                .collect(Collectors.toMap(House::getId, Function.identity()));
+
+        List<Room> rooms = houses.isEmpty() ? List.of() : roomRepository.findByHouseIdIn(List.copyOf(houseById.keySet()));
+        Map<String, Room> roomById = rooms.stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+
+        List<RoomTenant> roomTenants = rooms.isEmpty() ? List.of()
+                : roomTenantRepository.findActiveWithUserByRoomIds(List.copyOf(roomById.keySet()));
+        List<Contract> contracts = contractRepository.findByLandlordId(landlordId);
+        List<Invoice> invoices = invoiceRepository.findByLandlordId(landlordId);
+
+        Set<String> userIds = Stream.concat(
+                contracts.stream().map(Contract::getTenantId),
+                invoices.stream().map(Invoice::getTenantId))
+                .collect(Collectors.toSet());
+        Map<String, User> userById = userIds.isEmpty() ? Map.of()
+                : userRepository.findAllById(userIds).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<String, Contract> contractById = contracts.stream()
+                .collect(Collectors.toMap(Contract::getId, Function.identity()));
+
+        for (House house : houses) {
+            builder.add(DocType.HOUSE, house.getId(), house.getName(), house.getAddress(), house.getId(), null,
+                    List.of(house.getName(), nullToEmpty(house.getAddress())), List.of(), List.of());
+        }
+
+        for (Room room : rooms) {
+            House house = houseById.get(room.getHouseId());
+            String houseName = house != null ? house.getName() : "";
+            builder.add(DocType.ROOM, room.getId(), "Phòng " + room.getCode(), houseName, room.getHouseId(),
+                    room.getId(), List.of(room.getCode(), houseName), List.of(), List.of(room.getHouseId()));
+        }
+
+        for (RoomTenant tenant : roomTenants) {
+            Room room = roomById.get(tenant.getRoomId());
+            if (room == null) {
+                continue;
+            }
+            House house = houseById.get(room.getHouseId());
+            String houseName = house != null ? house.getName() : "";
+            builder.add(DocType.TENANT, tenant.getUserId(), tenant.getFullName(),
+                    "Phòng " + room.getCode() + " - " + houseName, room.getHouseId(), room.getId(),
+                    List.of(nullToEmpty(tenant.getFullName()), room.getCode(), houseName),
+                    numbers(tenant.getPhone(), tenant.getIdNumber()),
+                    List.of(tenant.getId(), tenant.getRoomId(), room.getHouseId()));
+        }
+
+        for (Contract contract : contracts) {
+            Room room = roomById.get(contract.getRoomId());
+            if (room == null) {
+                continue;
+            }
+            House house = houseById.get(room.getHouseId());
+            User tenant = userById.get(contract.getTenantId());
+            String tenantName = tenant != null ? tenant.getFullName() : "";
+            builder.add(DocType.CONTRACT, contract.getId(), "Hợp đồng phòng " + room.getCode(),
+                    tenantName + " - " + contract.getStatus().name(), room.getHouseId(), room.getId(),
+                    List.of(room.getCode(), tenantName, house != null ? house.getName() : ""),
+                    tenant != null ? numbers(tenant.getPhone(), tenant.getIdNumber()) : List.of(),
+                    List.of(contract.getRoomId(), contract.getTenantId()));
+        }
+
+        for (Invoice invoice : invoices) {
+            Contract contract = contractById.get(invoice.getContractId());
+            Room room = contract != null ? roomById.get(contract.getRoomId()) : null;
+            if (room == null) {
+                continue;
+            }
+            User tenant = userById.get(invoice.getTenantId());
+            String tenantName = tenant != null ? tenant.getFullName() : "";
+            builder.add(DocType.INVOICE, invoice.getId(),
+                    "Hóa đơn " + room.getCode() + " - " + invoice.getPeriodMonth(),
+                    tenantName + " - " + invoice.getStatus().name(), room.getHouseId(), room.getId(),
+                    List.of(room.getCode(), invoice.getPeriodMonth(), tenantName),
+                    List.of(),
+                    List.of(invoice.getContractId(), invoice.getTenantId(), room.getId()));
+        }
+
+        LandlordSearchIndex index = builder.build();
+        log.debug("Built search index for landlord {}: {} docs in {}ms",
+                landlordId, index.size(), System.currentTimeMillis() - start);
+        return index;
+    }
+
+    private static List<String> numbers(String... values) {
+        List<String> result = new ArrayList<>();
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -1,12 +1,16 @@
 package com.pegacorn.rently.service;
 
+import com.pegacorn.rently.dto.common.CursorPage;
 import com.pegacorn.rently.dto.notification.NotificationDto;
 import com.pegacorn.rently.entity.Notification;
 import com.pegacorn.rently.repository.NotificationRepository;
+import com.pegacorn.rently.util.KeysetCursor;
+import com.pegacorn.rently.util.KeysetPaging;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +33,16 @@ public class NotificationService {
                 .map(NotificationDto::from);
     }
 
+    // Keyset variant of getNotifications for infinite scroll; no COUNT unless withTotal
+    public CursorPage<NotificationDto> getNotificationsAfter(String userId, String cursor, int size,
+            boolean withTotal) {
+        Specification<Notification> ownedBy = (root, query, cb) -> cb.equal(root.get("userId"), userId);
+        return KeysetPaging.fetch(notificationRepository, ownedBy, cursor, size,
+                notification -> new KeysetCursor(notification.getCreatedAt(), notification.getId()),
+                withTotal ? () -> new KeysetPaging.Total(notificationRepository.count(ownedBy), true) : null)
+                .map(NotificationDto::from);
+    }
+
     public List<NotificationDto> getUnreadNotifications(String userId) {
         return notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId)
                 .stream()
@@ -0,0 +1,260 @@
+package com.pegacorn.rently.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Shrinks contract photos before they are sent to the vision model. Each page is read from
+ * the upload's stream (the multipart temp file for large uploads), decoded with subsampling
+ * so a 12 MP photo never sits in heap at full size, turned upright from its EXIF orientation,
+ * scaled to what the model actually looks at (fit in 2048 px, shortest side 768 px), and
+ * written as a grayscale JPEG without metadata. Formats ImageIO cannot decode are passed
+ * through unchanged.
+ */
+@Component
+@Slf4j
+public class OcrImagePreprocessor {
+
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    private final boolean enabled;
+    private final int maxLongEdge;
+    private final int maxShortEdge;
+    private final float jpegQuality;
+    private final boolean grayscale;
+
+    public record PreparedImage(byte[] data, MimeType mimeType) {
+    }
+
+    public OcrImagePreprocessor(
+            @Value("${ocr.preprocess.enabled:true}") boolean enabled,
+            @Value("${ocr.preprocess.max-long-edge:2048}") int maxLongEdge,
+            @Value("${ocr.preprocess.max-short-edge:768}") int maxShortEdge,
+            @Value("${ocr.preprocess.jpeg-quality:0.8}") float jpegQuality,
+            @Value("${ocr.preprocess.grayscale:true}") boolean grayscale) {
+        this.enabled = enabled;
+        this.maxLongEdge = maxLongEdge;
+        this.maxShortEdge = maxShortEdge;
+        this.jpegQuality = jpegQuality;
+        this.grayscale = grayscale;
+    }
+
+    public PreparedImage prepare(MultipartFile image) throws IOException {
+        MimeType originalType = MimeTypeUtils.parseMimeType(
+                image.getContentType() != null ? image.getContentType() : "image/jpeg");
+        if (enabled) {
+            BufferedImage page = decode(image);
+            if (page != null) {
+                byte[] jpeg = encodeJpeg(page);
+                log.debug("Preprocessed {}: {} -> {} bytes ({}x{})", image.getOriginalFilename(),
+                        image.getSize(), jpeg.length, page.getWidth(), page.getHeight());
+                return new PreparedImage(jpeg, MimeTypeUtils.IMAGE_JPEG);
+            }
+            log.warn("Cannot decode {} ({}), sending it unchanged", image.getOriginalFilename(), originalType);
+        }
+        return new PreparedImage(image.getBytes(), originalType);
+    }
+
+    // Upright, scaled and (optionally) grayscale page, or null when ImageIO has no reader for it
+    private BufferedImage decode(MultipartFile image) throws IOException {
+        int orientation;
+        try (InputStream in = image.getInputStream()) {
+            orientation = readExifOrientation(in);
+        }
+
+        BufferedImage decoded;
+        try (InputStream in = image.getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Largest step that still leaves at least the target size: 3 for a 4032x3024 photo,
+                // whose short side comes out at 1008 px for a 768 px target
+                int subsampling = Math.max(1, (int) Math.floor(1 / scaleFor(width, height)));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                decoded = reader.read(0, param);
+            } catch (IOException | RuntimeException e) {
+                // e.g. CMYK JPEGs, which ImageIO cannot read
+                log.debug("Decoding {} failed: {}", image.getOriginalFilename(), e.getMessage());
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        boolean swapsAxes = orientation >= 5;
+        int sourceWidth = swapsAxes ? decoded.getHeight() : decoded.getWidth();
+        int sourceHeight = swapsAxes ? decoded.getWidth() : decoded.getHeight();
+        double scale = scaleFor(sourceWidth, sourceHeight);
+        int targetWidth = Math.max(1, (int) Math.round(sourceWidth * scale));
+        int targetHeight = Math.max(1, (int) Math.round(sourceHeight * scale));
+
+        // Halve first so bilinear filtering never skips more than every other pixel
+        BufferedImage current = decoded;
+        while (current.getWidth() / 2 >= (swapsAxes ? targetHeight : targetWidth)
+                && current.getHeight() / 2 >= (swapsAxes ? targetWidth : targetHeight)) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2,
+                    AffineTransform.getScaleInstance(0.5, 0.5), BufferedImage.TYPE_INT_RGB);
+        }
+
+        AffineTransform transform = AffineTransform.getScaleInstance(
+                (double) targetWidth / (swapsAxes ? current.getHeight() : current.getWidth()),
+                (double) targetHeight / (swapsAxes ? current.getWidth() : current.getHeight()));
+        transform.concatenate(orientationTransform(orientation, current.getWidth(), current.getHeight()));
+        return draw(current, targetWidth, targetHeight, transform,
+                grayscale ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_INT_RGB);
+    }
+
+    private double scaleFor(int width, int height) {
+        int longEdge = Math.max(width, height);
+        int shortEdge = Math.min(width, height);
+        return Math.min(1.0, Math.min((double) maxLongEdge / longEdge, (double) maxShortEdge / shortEdge));
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, AffineTransform transform, int type) {
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D g = target.createGraphics();
+        try {
+            // Transparent areas (screenshots, scans saved as PNG) become paper white, not black
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    // Maps stored pixels to display orientation (EXIF values 1-8); width/height are the stored size
+    private static AffineTransform orientationTransform(int orientation, int width, int height) {
+        return switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);
+            default -> new AffineTransform();
+        };
+    }
+
+    // ImageIO writes a bare JFIF header, so EXIF, GPS and thumbnails are dropped
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * EXIF orientation (1-8) from a JPEG's APP1 segment; 1 for other formats or when absent.
+     * Only the headers before the image data are read.
+     */
+    static int readExifOrientation(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        try {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                // Start of scan / end of image: no more metadata segments
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    return 1;
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return 1;
+                }
+                if (marker == 0xFFE1) {
+                    int orientation = exifOrientation(in.readNBytes(length));
+                    if (orientation > 0) {
+                        return orientation;
+                    }
+                } else {
+                    in.skipNBytes(length);
+                }
+            }
+        } catch (EOFException e) {
+            return 1;
+        }
+    }
+
+    // 0 when the segment is not EXIF or has no orientation tag
+    private static int exifOrientation(byte[] segment) {
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i'
+                || segment[3] != 'f' || segment[4] != 0 || segment[5] != 0) {
+            return 0;
+        }
+        int tiff = 6;
+        boolean littleEndian = segment[tiff] == 'I' && segment[tiff + 1] == 'I';
+        int ifd = tiff + (int) readUnsigned(segment, tiff + 4, 4, littleEndian);
+        if (ifd < tiff || ifd + 2 > segment.length) {
+            return 0;
+        }
+        int entries = (int) readUnsigned(segment, ifd, 2, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > segment.length) {
+                return 0;
+            }
+            if (readUnsigned(segment, entry, 2, littleEndian) == EXIF_ORIENTATION_TAG) {
+                int value = (int) readUnsigned(segment, entry + 8, 2, littleEndian);
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    private static long readUnsigned(byte[] bytes, int offset, int length, boolean littleEndian) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int b = bytes[offset + (littleEndian ? length - 1 - i : i)] & 0xFF;
+            value = (value << 8) | b;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,341 @@
+package com.pegacorn.rently.service;
+
+import com.pegacorn.rently.constant.MessageConstant;
+import com.pegacorn.rently.dto.ocr.OcrJobDto;
+import com.pegacorn.rently.exception.ApiException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs contract OCR as background jobs so no request waits for the vision model. Pages are
+ * preprocessed while the upload is still available, then the job waits in its landlord's
+ * queue; a fixed set of workers takes one job per landlord in turn, so one landlord uploading
+ * a stack of contracts does not hold up everyone else. Submissions beyond the global or
+ * per-landlord queue limit are refused with 429 and a Retry-After estimated from recent job
+ * durations. Finished jobs are kept for
+ * {@code ocr.jobs.result-ttl-ms}, readable by polling or as a single "done" SSE event.
+ */
+@Service
+@Slf4j
+public class OcrJobService {
+
+    public enum JobType { SCAN_AND_STRUCTURE, EXTRACT_CONTRACT_DATA }
+
+    public enum JobStatus { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    static final String DONE_EVENT = "done";
+
+    public record Stats(int workers, int running, int queued, int maxQueued, int retained,
+                        long submitted, long rejected, long succeeded, long failed) {
+    }
+
+    private static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final String landlordId;
+        final JobType type;
+        final int pageCount;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        // Dropped once the job has run
+        List<OcrImagePreprocessor.PreparedImage> pages;
+        volatile JobStatus status = JobStatus.QUEUED;
+        volatile Object result;
+        volatile String error;
+        volatile LocalDateTime finishedAt;
+        volatile long finishedAtMillis;
+        // Open "done" subscriptions (guarded by this)
+        final List<SseEmitter> listeners = new ArrayList<>();
+
+        Job(String landlordId, JobType type, List<OcrImagePreprocessor.PreparedImage> pages) {
+            this.landlordId = landlordId;
+            this.type = type;
+            this.pages = pages;
+            this.pageCount = pages.size();
+        }
+
+        boolean finished() {
+            return status == JobStatus.SUCCEEDED || status == JobStatus.FAILED;
+        }
+
+        OcrJobDto toDto() {
+            return new OcrJobDto(id, type.name(), status.name(), pageCount, result, error, createdAt, finishedAt);
+        }
+    }
+
+    private final OcrService ocrService;
+    private final int workerCount;
+    private final int maxQueued;
+    private final int maxQueuedPerLandlord;
+    private final long resultTtlMs;
+    private final long sseTimeoutMs;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+
+    // Waiting jobs per landlord, and the landlords with waiting jobs in serving order (guarded by lock)
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition jobAvailable = lock.newCondition();
+    private final Map<String, ArrayDeque<Job>> queues = new HashMap<>();
+    private final ArrayDeque<String> turns = new ArrayDeque<>();
+    private int queued;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    // Moving average of job run time, for Retry-After
+    private volatile long averageJobMs;
+
+    public OcrJobService(
+            OcrService ocrService,
+            // At most llm.ocr.max-concurrent, or the extra workers only wait on the gateway
+            @Value("${ocr.jobs.workers:4}") int workerCount,
+            @Value("${ocr.jobs.max-queued:20}") int maxQueued,
+            @Value("${ocr.jobs.max-queued-per-landlord:3}") int maxQueuedPerLandlord,
+            @Value("${ocr.jobs.result-ttl-ms:900000}") long resultTtlMs,
+            @Value("${ocr.jobs.sse-timeout-ms:300000}") long sseTimeoutMs,
+            @Value("${ocr.jobs.expected-job-ms:20000}") long expectedJobMs) {
+        this.ocrService = ocrService;
+        this.workerCount = Math.max(1, workerCount);
+        this.maxQueued = maxQueued;
+        this.maxQueuedPerLandlord = maxQueuedPerLandlord;
+        this.resultTtlMs = resultTtlMs;
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.averageJobMs = expectedJobMs;
+    }
+
+    // Started once the bean is fully built, not from the constructor, so a failed context
+    // never leaves workers behind
+    @PostConstruct
+    void start() {
+        // Workers only wait on the model, so virtual threads; their number is the concurrency bound
+        Thread.Builder builder = Thread.ofVirtual().name("ocr-job-", 1);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(builder.start(this::work));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Queues the images for OCR and returns the job straight away. The images are shrunk
+     * here, on the request thread, because the multipart files are deleted when it ends.
+     */
+    public OcrJobDto submit(JobType type, List<MultipartFile> images, String landlordId) throws IOException {
+        // Refuse before spending time on preprocessing; checked again when enqueuing
+        lock.lock();
+        try {
+            checkCapacity(landlordId);
+        } finally {
+            lock.unlock();
+        }
+
+        Job job = new Job(landlordId, type, ocrService.prepareImages(images));
+        lock.lock();
+        try {
+            checkCapacity(landlordId);
+            ArrayDeque<Job> queue = queues.computeIfAbsent(landlordId, id -> new ArrayDeque<>());
+            if (queue.isEmpty()) {
+                turns.addLast(landlordId);
+            }
+            queue.addLast(job);
+            queued++;
+            jobs.put(job.id, job);
+            jobAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        submitted.increment();
+        log.info("Queued OCR job {} ({}, {} pages) for landlord {}", job.id, type, job.pageCount, landlordId);
+        return job.toDto();
+    }
+
+    public OcrJobDto getJob(String jobId, String landlordId) {
+        return find(jobId, landlordId).toDto();
+    }
+
+    /**
+     * One "done" event carrying the finished job, sent immediately if it has already finished.
+     */
+    public SseEmitter subscribe(String jobId, String landlordId) {
+        Job job = find(jobId, landlordId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        synchronized (job) {
+            if (!job.finished()) {
+                job.listeners.add(emitter);
+                Runnable unsubscribe = () -> {
+                    synchronized (job) {
+                        job.listeners.remove(emitter);
+                    }
+                };
+                emitter.onCompletion(unsubscribe);
+                emitter.onTimeout(unsubscribe);
+                emitter.onError(error -> unsubscribe.run());
+                return emitter;
+            }
+        }
+        sendDone(emitter, job.toDto());
+        return emitter;
+    }
+
+    public Stats stats() {
+        int waiting;
+        lock.lock();
+        try {
+            waiting = queued;
+        } finally {
+            lock.unlock();
+        }
+        int retained = (int) jobs.values().stream().filter(Job::finished).count();
+        return new Stats(workerCount, running.get(), waiting, maxQueued, retained,
+                submitted.sum(), rejected.sum(), succeeded.sum(), failed.sum());
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    void evictExpired() {
+        long cutoff = System.currentTimeMillis() - resultTtlMs;
+        jobs.values().removeIf(job -> job.finished() && job.finishedAtMillis < cutoff);
+    }
+
+    // Unknown and other landlords' jobs look the same, so ids cannot be probed
+    private Job find(String jobId, String landlordId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.landlordId.equals(landlordId)) {
+            throw ApiException.notFound(MessageConstant.OCR_JOB_NOT_FOUND);
+        }
+        return job;
+    }
+
+    // Caller holds lock
+    private void checkCapacity(String landlordId) {
+        ArrayDeque<Job> queue = queues.get(landlordId);
+        if (queued >= maxQueued || (queue != null && queue.size() >= maxQueuedPerLandlord)) {
+            rejected.increment();
+            throw ApiException.tooManyRequests(MessageConstant.OCR_QUEUE_FULL, retryAfterMillis());
+        }
+    }
+
+    // Roughly when a slot frees up: each landlord ahead in line gets one job, workerCount at a time
+    private long retryAfterMillis() {
+        return averageJobMs * Math.max(1, turns.size()) / workerCount;
+    }
+
+    private void work() {
+        while (true) {
+            Job job;
+            try {
+                job = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            running.incrementAndGet();
+            try {
+                run(job);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    // Next job of the landlord whose turn it is; that landlord goes to the back of the line
+    private Job take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (turns.isEmpty()) {
+                jobAvailable.await();
+            }
+            String landlordId = turns.pollFirst();
+            ArrayDeque<Job> queue = queues.get(landlordId);
+            Job job = queue.pollFirst();
+            if (queue.isEmpty()) {
+                queues.remove(landlordId);
+            } else {
+                turns.addLast(landlordId);
+            }
+            queued--;
+            job.status = JobStatus.RUNNING;
+            return job;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run(Job job) {
+        long start = System.currentTimeMillis();
+        try {
+            Object result = switch (job.type) {
+                case SCAN_AND_STRUCTURE -> ocrService.scanAndStructurePrepared(job.pages);
+                case EXTRACT_CONTRACT_DATA -> ocrService.extractContractDataPrepared(job.pages);
+            };
+            finish(job, result, null);
+            succeeded.increment();
+            recordDuration(System.currentTimeMillis() - start);
+            log.info("OCR job {} done in {} ms", job.id, System.currentTimeMillis() - start);
+        } catch (ApiException e) {
+            finish(job, null, e.getMessage());
+            failed.increment();
+            log.warn("OCR job {} refused: {}", job.id, e.getMessage());
+        } catch (Exception e) {
+            finish(job, null, MessageConstant.OCR_JOB_FAILED);
+            failed.increment();
+            log.error("OCR job {} failed: {}", job.id, e.getMessage(), e);
+        }
+    }
+
+    private void recordDuration(long elapsedMs) {
+        averageJobMs = (averageJobMs * 4 + elapsedMs) / 5;
+    }
+
+    private void finish(Job job, Object result, String error) {
+        List<SseEmitter> listeners;
+        synchronized (job) {
+            job.result = result;
+            job.error = error;
+            job.pages = null;
+            job.finishedAt = LocalDateTime.now();
+            job.finishedAtMillis = System.currentTimeMillis();
+            job.status = error == null ? JobStatus.SUCCEEDED : JobStatus.FAILED;
+            listeners = new ArrayList<>(job.listeners);
+            job.listeners.clear();
+        }
+        OcrJobDto dto = job.toDto();
+        listeners.forEach(emitter -> sendDone(emitter, dto));
+    }
+
+    private static void sendDone(SseEmitter emitter, OcrJobDto job) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(DONE_EVENT)
+                    .data(job, MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter timed out; the result can still be polled
+            log.debug("Could not deliver OCR job {} completion: {}", job.id(), e.getMessage());
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -2,7 +2,12 @@ package com.pegacorn.rently.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pegacorn.rently.dto.ocr.ExtractContractDataResponse;
+import com.pegacorn.rently.constant.MessageConstant;
 import com.pegacorn.rently.dto.ocr.ScanContractResponse;
+import com.pegacorn.rently.exception.ApiException;
+import com.pegacorn.rently.llm.LlmGateway;
+import com.pegacorn.rently.llm.LlmUnavailableException;
+import com.pegacorn.rently.llm.LlmUseCase;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.messages.SystemMessage;
@@ -10,10 +15,8 @@ import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.content.Media;
-import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.stereotype.Service;
-import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -25,7 +28,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OcrService {
 
-    private final OpenAiChatModel chatModel;
+    private final LlmGateway llmGateway;
+    private final OcrImagePreprocessor imagePreprocessor;
     private final ObjectMapper objectMapper;
 
     private static final String SYSTEM_PROMPT = """
@@ -164,21 +168,17 @@ public class OcrService {
             """;
 
     public ScanContractResponse scanAndStructure(List<MultipartFile> images) throws IOException {
+        return scanAndStructurePrepared(prepareImages(images));
+    }
+
+    /**
+     * {@link #scanAndStructure} for pages already run through {@link #prepareImages}, e.g. by a
+     * queued OCR job whose upload is gone by the time it runs.
+     */
+    public ScanContractResponse scanAndStructurePrepared(List<OcrImagePreprocessor.PreparedImage> images) {
         log.info("Processing {} images for contract extraction", images.size());
 
-        // Build media list from images
-        List<Media> mediaList = new ArrayList<>();
-        for (int i = 0; i < images.size(); i++) {
-            MultipartFile image = images.get(i);
-            String contentType = image.getContentType() != null ? image.getContentType() : "image/jpeg";
-
-            Media media = Media.builder()
-                    .mimeType(MimeTypeUtils.parseMimeType(contentType))
-                    .data(new ByteArrayResource(image.getBytes()))
-                    .build();
-            mediaList.add(media);
-            log.debug("Added image {} of type {} ({} bytes)", i + 1, contentType, image.getSize());
-        }
+        List<Media> mediaList = toMedia(images);
 
         // Create prompt with images
         SystemMessage systemMessage = new SystemMessage(SYSTEM_PROMPT);
@@ -197,7 +197,7 @@ public class OcrService {
 
         try {
             log.info("Calling OpenAI Vision API...");
-            ChatResponse response = chatModel.call(prompt);
+            ChatResponse response = llmGateway.call(LlmUseCase.OCR, prompt);
             String html = response.getResult().getOutput().getText();
 
             // Clean up the response (remove markdown code blocks if present)
@@ -209,12 +209,39 @@ public class OcrService {
             String suggestedName = extractSuggestedName(html);
 
             return new ScanContractResponse(html, suggestedName);
+        } catch (LlmUnavailableException e) {
+            log.warn("Contract extraction refused: {}", e.getMessage());
+            throw ApiException.serviceUnavailable(MessageConstant.AI_SERVICE_BUSY, e.getRetryAfterMillis());
         } catch (Exception e) {
             log.error("Failed to extract contract content: {}", e.getMessage(), e);
             throw new RuntimeException("Không thể trích xuất nội dung hợp đồng: " + e.getMessage(), e);
         }
     }
 
+    // Pages are preprocessed one at a time, so only the shrunken JPEGs are held together
+    public List<OcrImagePreprocessor.PreparedImage> prepareImages(List<MultipartFile> images) throws IOException {
+        List<OcrImagePreprocessor.PreparedImage> prepared = new ArrayList<>();
+        long originalBytes = 0;
+        long preparedBytes = 0;
+        for (MultipartFile image : images) {
+            OcrImagePreprocessor.PreparedImage page = imagePreprocessor.prepare(image);
+            prepared.add(page);
+            originalBytes += image.getSize();
+            preparedBytes += page.data().length;
+        }
+        log.info("Prepared {} images for OCR: {} KB -> {} KB", images.size(), originalBytes / 1024, preparedBytes / 1024);
+        return prepared;
+    }
+
+    private static List<Media> toMedia(List<OcrImagePreprocessor.PreparedImage> images) {
+        return images.stream()
+                .map(image -> Media.builder()
+                        .mimeType(image.mimeType())
+                        .data(new ByteArrayResource(image.data()))
+                        .build())
+                .toList();
+    }
+
     private String extractSuggestedName(String html) {
         try {
             // Extract title from h1 tag if present
@@ -236,7 +263,7 @@ public class OcrService {
             UserMessage userMessage = new UserMessage(
                     SUGGESTED_NAME_PROMPT + "\n\nNội dung:\n" + html.substring(0, Math.min(500, html.length())));
             Prompt prompt = new Prompt(List.of(userMessage));
-            ChatResponse response = chatModel.call(prompt);
+            ChatResponse response = llmGateway.call(LlmUseCase.OCR, prompt);
             return response.getResult().getOutput().getText().trim();
         } catch (Exception e) {
             log.warn("Could not extract suggested name: {}", e.getMessage());
@@ -250,21 +277,13 @@ public class OcrService {
      * This is used to import existing paper contracts into the system.
      */
     public ExtractContractDataResponse extractContractData(List<MultipartFile> images) throws IOException {
+        return extractContractDataPrepared(prepareImages(images));
+    }
+
+    public ExtractContractDataResponse extractContractDataPrepared(List<OcrImagePreprocessor.PreparedImage> images) {
         log.info("Processing {} images for contract data extraction", images.size());
 
-        // Build media list from images
-        List<Media> mediaList = new ArrayList<>();
-        for (int i = 0; i < images.size(); i++) {
-            MultipartFile image = images.get(i);
-            String contentType = image.getContentType() != null ? image.getContentType() : "image/jpeg";
-
-            Media media = Media.builder()
-                    .mimeType(MimeTypeUtils.parseMimeType(contentType))
-                    .data(new ByteArrayResource(image.getBytes()))
-                    .build();
-            mediaList.add(media);
-            log.debug("Added image {} of type {} ({} bytes)", i + 1, contentType, image.getSize());
-        }
+        List<Media> mediaList = toMedia(images);
 
         // Create prompt with images
         SystemMessage systemMessage = new SystemMessage(EXTRACT_DATA_SYSTEM_PROMPT);
@@ -282,7 +301,7 @@ public class OcrService {
 
         try {
             log.info("Calling OpenAI Vision API for data extraction...");
-            ChatResponse response = chatModel.call(prompt);
+            ChatResponse response = llmGateway.call(LlmUseCase.OCR, prompt);
             String jsonResponse = response.getResult().getOutput().getText();
 
             // Clean up the response (remove markdown code blocks if present)
@@ -304,6 +323,9 @@ public class OcrService {
             }
 
             return result;
+        } catch (LlmUnavailableException e) {
+            log.warn("Contract data extraction refused: {}", e.getMessage());
+            throw ApiException.serviceUnavailable(MessageConstant.AI_SERVICE_BUSY, e.getRetryAfterMillis());
         } catch (Exception e) {
             log.error("Failed to extract contract data: {}", e.getMessage(), e);
             throw new RuntimeException("Không thể trích xuất dữ liệu hợp đồng: " + e.getMessage(), e);
@@ -1,29 +1,25 @@
 package com.pegacorn.rently.service;
 
-import com.pegacorn.rently.repository.OtpVerificationRepository;
+import com.pegacorn.rently.otp.OtpStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.time.LocalDateTime;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OtpCleanupService {
 
-    private final OtpVerificationRepository otpVerificationRepository;
+    private final OtpStore otpStore;
 
     /**
-     * Runs every 24 hours to clean up expired or used OTPs
+     * Runs hourly to clean up expired or used OTPs (deleted in chunks by the database store)
      */
-    @Scheduled(fixedRate = 24 * 60 * 60 * 1000) // 24 hours in milliseconds
-    @Transactional
+    @Scheduled(fixedRate = 60 * 60 * 1000) // 1 hour in milliseconds
     public void cleanupExpiredAndUsedOtps() {
         log.info("Running OTP cleanup task...");
-        otpVerificationRepository.deleteExpiredOrUsedOtps(LocalDateTime.now());
-        log.info("OTP cleanup completed");
+        int removed = otpStore.purgeExpired();
+        log.info("OTP cleanup completed, removed {}", removed);
     }
 }
@@ -0,0 +1,180 @@
+package com.pegacorn.rently.service;
+
+import com.pegacorn.rently.entity.*;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A landlord's houses, rooms, contracts and tenants, loaded together and indexed by id and
+ * room code. Invoices and expenses are loaded per period on first use and kept with the
+ * snapshot. Entities are shared between readers and must not be modified.
+ * <p>
+ * Every load gets a new {@link #version()}, and a snapshot is discarded whenever its data
+ * changes, so the version identifies one consistent state of the landlord's data.
+ */
+public class PortfolioSnapshot {
+
+    private final String landlordId;
+    private final long version;
+    private final List<House> houses;
+    private final Map<String, House> housesById = new HashMap<>();
+    private final Map<String, Room> roomsById = new HashMap<>();
+    private final Map<String, List<Room>> roomsByHouseId = new HashMap<>();
+    // Lower-cased code; the first house (in house order) wins when codes repeat
+    private final Map<String, Room> roomsByCode = new HashMap<>();
+    private final List<Contract> contracts;
+    private final Map<String, Contract> contractsById = new HashMap<>();
+    private final Map<String, List<Contract>> contractsByRoomId = new HashMap<>();
+    private final Map<String, User> tenantsById = new ConcurrentHashMap<>();
+
+    private final Function<String, List<Invoice>> invoiceLoader;
+    private final Function<YearMonth, List<Expense>> expenseLoader;
+    private final Function<Collection<String>, List<User>> userLoader;
+    private final Map<String, List<Invoice>> invoicesByPeriod = new ConcurrentHashMap<>();
+    private final Map<YearMonth, List<Expense>> expensesByMonth = new ConcurrentHashMap<>();
+
+    PortfolioSnapshot(String landlordId, long version, List<House> houses, List<Room> rooms, List<Contract> contracts,
+                      List<User> tenants, Function<String, List<Invoice>> invoiceLoader,
+                      Function<YearMonth, List<Expense>> expenseLoader,
+                      Function<Collection<String>, List<User>> userLoader) {
+        this.landlordId = landlordId;
+        this.version = version;
+        this.houses = List.copyOf(houses);
+        this.contracts = List.copyOf(contracts);
+        this.invoiceLoader = invoiceLoader;
+        this.expenseLoader = expenseLoader;
+        this.userLoader = userLoader;
+
+        for (House house : houses) {
+            housesById.put(house.getId(), house);
+            roomsByHouseId.put(house.getId(), new ArrayList<>());
+        }
+        for (Room room : rooms) {
+            roomsById.put(room.getId(), room);
+            roomsByHouseId.computeIfAbsent(room.getHouseId(), id -> new ArrayList<>()).add(room);
+        }
+        for (House house : houses) {
+            for (Room room : roomsByHouseId.get(house.getId())) {
+                roomsByCode.putIfAbsent(room.getCode().toLowerCase(Locale.ROOT), room);
+            }
+        }
+        for (Contract contract : contracts) {
+            contractsById.put(contract.getId(), contract);
+            contractsByRoomId.computeIfAbsent(contract.getRoomId(), id -> new ArrayList<>()).add(contract);
+        }
+        tenants.forEach(tenant -> tenantsById.put(tenant.getId(), tenant));
+    }
+
+    public String landlordId() {
+        return landlordId;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public List<House> houses() {
+        return houses;
+    }
+
+    public House house(String houseId) {
+        return houseId != null ? housesById.get(houseId) : null;
+    }
+
+    public List<Room> rooms(String houseId) {
+        return roomsByHouseId.getOrDefault(houseId, List.of());
+    }
+
+    public Room room(String roomId) {
+        return roomId != null ? roomsById.get(roomId) : null;
+    }
+
+    // Case-insensitive
+    public Room roomByCode(String code) {
+        return code != null ? roomsByCode.get(code.toLowerCase(Locale.ROOT)) : null;
+    }
+
+    public List<Contract> contracts() {
+        return contracts;
+    }
+
+    public Contract contract(String contractId) {
+        return contractId != null ? contractsById.get(contractId) : null;
+    }
+
+    public Contract activeContract(String roomId) {
+        for (Contract contract : contractsByRoomId.getOrDefault(roomId, List.of())) {
+            if (contract.getStatus() == Contract.ContractStatus.ACTIVE) {
+                return contract;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tenant of the room's first ACTIVE or DRAFT contract, or null when the room is free.
+     */
+    public User currentTenant(String roomId) {
+        for (Contract contract : contractsByRoomId.getOrDefault(roomId, List.of())) {
+            if (contract.getStatus() == Contract.ContractStatus.ACTIVE
+                    || contract.getStatus() == Contract.ContractStatus.DRAFT) {
+                User tenant = tenantsById.get(contract.getTenantId());
+                if (tenant != null) {
+                    return tenant;
+                }
+            }
+        }
+        return null;
+    }
+
+    public String tenantName(String userId) {
+        User tenant = userId != null ? tenantsById.get(userId) : null;
+        return tenant != null ? tenant.getFullName() : null;
+    }
+
+    /**
+     * Invoices for the period (yyyy-MM). Tenants the snapshot does not know yet (e.g. from
+     * ended contracts) are loaded in one query alongside.
+     */
+    public List<Invoice> invoices(String periodMonth) {
+        return invoicesByPeriod.computeIfAbsent(periodMonth, period -> {
+            List<Invoice> invoices = List.copyOf(invoiceLoader.apply(period));
+            Set<String> missingTenantIds = new HashSet<>();
+            for (Invoice invoice : invoices) {
+                if (invoice.getTenantId() != null && !tenantsById.containsKey(invoice.getTenantId())) {
+                    missingTenantIds.add(invoice.getTenantId());
+                }
+            }
+            if (!missingTenantIds.isEmpty()) {
+                userLoader.apply(missingTenantIds).forEach(user -> tenantsById.put(user.getId(), user));
+            }
+            return invoices;
+        });
+    }
+
+    public List<Expense> expenses(int month, int year) {
+        return expensesByMonth.computeIfAbsent(YearMonth.of(year, month),
+                yearMonth -> List.copyOf(expenseLoader.apply(yearMonth)));
+    }
+
+    /**
+     * True when the snapshot was built from (or is keyed by) the given entity id.
+     */
+    public boolean references(String id) {
+        return landlordId.equals(id)
+                || housesById.containsKey(id)
+                || roomsById.containsKey(id)
+                || contractsById.containsKey(id)
+                || tenantsById.containsKey(id);
+    }
+}
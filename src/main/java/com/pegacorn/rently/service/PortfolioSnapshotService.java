@@ -0,0 +1,116 @@
+package com.pegacorn.rently.service;
+
+import com.pegacorn.rently.entity.*;
+import com.pegacorn.rently.event.EntityChangedEvent;
+import com.pegacorn.rently.repository.*;
+import com.pegacorn.rently.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads {@link PortfolioSnapshot}s with one query per entity type (houses, rooms, contracts,
+ * tenants; invoices and expenses per period) and caches them per landlord. A snapshot is
+ * dropped as soon as an entity it was built from changes; the TTL is a safety net for writes
+ * that bypass entity events.
+ */
+@Service
+public class PortfolioSnapshotService {
+
+    private final HouseRepository houseRepository;
+    private final RoomRepository roomRepository;
+    private final ContractRepository contractRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final ExpenseRepository expenseRepository;
+    private final UserRepository userRepository;
+    private final BoundedCache<String, PortfolioSnapshot> cache;
+    private final AtomicLong versions = new AtomicLong();
+
+    public PortfolioSnapshotService(
+            HouseRepository houseRepository,
+            RoomRepository roomRepository,
+            ContractRepository contractRepository,
+            InvoiceRepository invoiceRepository,
+            ExpenseRepository expenseRepository,
+            UserRepository userRepository,
+            @Value("${ai-chat.snapshot-cache.max-size:500}") int maxSize,
+            @Value("${ai-chat.snapshot-cache.ttl-ms:300000}") long ttlMillis) {
+        this.houseRepository = houseRepository;
+        this.roomRepository = roomRepository;
+        this.contractRepository = contractRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.expenseRepository = expenseRepository;
+        this.userRepository = userRepository;
+        this.cache = new BoundedCache<>("portfolio-snapshots", maxSize, ttlMillis);
+    }
+
+    public PortfolioSnapshot get(String landlordId) {
+        return cache.get(landlordId, this::load);
+    }
+
+    // The cached snapshot without loading one, or null
+    public PortfolioSnapshot getIfCached(String landlordId) {
+        return cache.getIfPresent(landlordId);
+    }
+
+    public void invalidate(String landlordId) {
+        cache.invalidate(landlordId);
+    }
+
+    public BoundedCache.Stats stats() {
+        return cache.stats();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        Set<String> changedIds = changedIds(event.entity());
+        if (!changedIds.isEmpty()) {
+            cache.invalidateIf((landlordId, snapshot) -> changedIds.stream().anyMatch(snapshot::references));
+        }
+    }
+
+    private Set<String> changedIds(Object entity) {
+        Set<String> ids = new HashSet<>();
+        if (entity instanceof House house) {
+            ids.add(house.getId());
+            ids.add(house.getOwnerId());
+        } else if (entity instanceof Room room) {
+            ids.add(room.getId());
+            ids.add(room.getHouseId());
+        } else if (entity instanceof User user) {
+            ids.add(user.getId());
+        } else if (entity instanceof Contract contract) {
+            ids.add(contract.getId());
+            ids.add(contract.getLandlordId());
+        } else if (entity instanceof Invoice invoice) {
+            ids.add(invoice.getContractId());
+        } else if (entity instanceof Expense expense) {
+            ids.add(expense.getHouseId());
+        } else if (entity instanceof MeterReading meterReading) {
+            ids.add(meterReading.getRoomId());
+        }
+        ids.remove(null);
+        return ids;
+    }
+
+    private PortfolioSnapshot load(String landlordId) {
+        List<House> houses = houseRepository.findByOwnerId(landlordId);
+        List<Room> rooms = houses.isEmpty()
+                ? List.of()
+                : roomRepository.findByHouseIdIn(houses.stream().map(House::getId).toList());
+        List<Contract> contracts = contractRepository.findByLandlordId(landlordId);
+        Set<String> tenantIds = new HashSet<>();
+        contracts.forEach(contract -> tenantIds.add(contract.getTenantId()));
+        List<User> tenants = tenantIds.isEmpty() ? List.of() : userRepository.findAllById(tenantIds);
+
+        return new PortfolioSnapshot(landlordId, versions.incrementAndGet(), houses, rooms, contracts, tenants,
+                period -> invoiceRepository.findByLandlordIdAndPeriodMonth(landlordId, period),
+                month -> expenseRepository.findByLandlordIdAndMonthYear(landlordId, month.getMonthValue(), month.getYear()),
+                userRepository::findAllById);
+    }
+}
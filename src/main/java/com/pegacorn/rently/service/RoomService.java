@@ -3,11 +3,15 @@ package com.pegacorn.rently.service;
 import com.pegacorn.rently.constant.MessageConstant;
 import com.pegacorn.rently.dto.room.*;
 import com.pegacorn.rently.entity.*;
+import com.pegacorn.rently.event.EntityChangedEvent;
 import com.pegacorn.rently.exception.ApiException;
 import com.pegacorn.rently.repository.*;
+import com.pegacorn.rently.security.TokenVersionService;
+import com.pegacorn.rently.security.UserDetailsCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -35,9 +39,12 @@ public class RoomService {
     private final ContractServiceFeeRepository contractServiceFeeRepository;
     private final UserRepository userRepository;
     private final UserRoleRepository userRoleRepository;
+    private final TokenVersionService tokenVersionService;
+    private final UserDetailsCache userDetailsCache;
     private final PasswordEncoder passwordEncoder;
     private final ActivityLogService activityLogService;
     private final SmsService smsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.base-url:http://localhost:5173}")
     private String appBaseUrl;
@@ -289,6 +296,7 @@ public class RoomService {
             tenant.setIdIssuePlace(request.idIssuePlace());
             tenant.setUpdatedAt(LocalDateTime.now());
             userRepository.save(tenant);
+            userDetailsCache.invalidate(tenant.getId());
         }
 
         if (roomTenantRepository.existsByRoomIdAndUserIdAndLeftAtIsNull(roomId, tenant.getId())) {
@@ -304,6 +312,12 @@ public class RoomService {
                     .createdAt(LocalDateTime.now())
                     .build();
             userRoleRepository.save(role);
+            if (!isNewTenant) {
+                // Roles live in the access token; force a refresh so TENANT takes effect
+                tokenVersionService.revoke(tenant);
+                userRepository.save(tenant);
+            }
+            userDetailsCache.invalidate(tenant.getId());
         }
 
         // Determine if this tenant should be primary
@@ -436,6 +450,8 @@ public class RoomService {
                 });
 
         roomTenantRepository.markAsLeft(roomId, tenantId, LocalDateTime.now());
+        // Bulk update skips entity listeners
+        eventPublisher.publishEvent(new EntityChangedEvent(room));
 
         // Check if room has any remaining tenants, if not set status to EMPTY
         // But only if there's no active contract
@@ -15,7 +15,6 @@ import com.pegacorn.rently.repository.RoomTenantRepository;
 import com.pegacorn.rently.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,111 +35,37 @@ public class TenantService {
     private final UserRepository userRepository;
 
     public Page<TenantListDto> getAllTenantsForLandlord(String ownerId, String houseId, String search, Pageable pageable) {
-        // Get all tenants first
-        List<TenantListDto> allTenants = fetchAllTenants(ownerId);
-
-        // Apply house filter
-        if (houseId != null && !houseId.isBlank()) {
-            allTenants = allTenants.stream()
-                    .filter(t -> houseId.equals(t.house().id()))
-                    .toList();
-        }
-
-        // Apply search filter
-        if (search != null && !search.isBlank()) {
-            String searchLower = search.toLowerCase().trim();
-            allTenants = allTenants.stream()
-                    .filter(t -> matchesSearch(t, searchLower))
-                    .toList();
-        }
-
-        // Apply pagination
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + pageable.getPageSize(), allTenants.size());
+        String houseFilter = houseId != null && !houseId.isBlank() ? houseId : null;
+        String searchPattern = search != null && !search.isBlank() ? toContainsPattern(search.trim()) : null;
 
-        if (start > allTenants.size()) {
-            return new PageImpl<>(List.of(), pageable, allTenants.size());
-        }
-
-        List<TenantListDto> pageContent = allTenants.subList(start, end);
-        return new PageImpl<>(pageContent, pageable, allTenants.size());
+        return roomTenantRepository.searchActiveTenantsByOwner(ownerId, houseFilter, searchPattern, pageable)
+                .map(this::toTenantListDto);
     }
 
-    private boolean matchesSearch(TenantListDto tenant, String search) {
-        return (tenant.fullName() != null && tenant.fullName().toLowerCase().contains(search)) ||
-                (tenant.phone() != null && tenant.phone().contains(search)) ||
-                (tenant.idNumber() != null && tenant.idNumber().contains(search)) ||
-                (tenant.room().code() != null && tenant.room().code().toLowerCase().contains(search)) ||
-                (tenant.house().name() != null && tenant.house().name().toLowerCase().contains(search));
+    private String toContainsPattern(String search) {
+        String escaped = search
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
     }
 
-    private List<TenantListDto> fetchAllTenants(String ownerId) {
-        // Get all houses owned by landlord
-        List<House> houses = houseRepository.findByOwnerId(ownerId);
-        if (houses.isEmpty()) {
-            return List.of();
-        }
-
-        // Map house by id for quick lookup
-        Map<String, House> houseMap = houses.stream()
-                .collect(Collectors.toMap(House::getId, h -> h));
-
-        // Get all rooms in those houses
-        List<String> houseIds = houses.stream().map(House::getId).toList();
-        List<Room> rooms = roomRepository.findByHouseIdIn(houseIds);
-        if (rooms.isEmpty()) {
-            return List.of();
-        }
-
-        // Map room by id for quick lookup
-        Map<String, Room> roomMap = rooms.stream()
-                .collect(Collectors.toMap(Room::getId, r -> r));
-
-        // Get all active tenants in those rooms
-        List<String> roomIds = rooms.stream().map(Room::getId).toList();
-        List<RoomTenant> roomTenants = roomTenantRepository.findActiveByRoomIds(roomIds);
-        if (roomTenants.isEmpty()) {
-            return List.of();
-        }
-
-        // Get all user details
-        List<String> userIds = roomTenants.stream().map(RoomTenant::getUserId).distinct().toList();
-        Map<String, User> userMap = userRepository.findAllById(userIds).stream()
-                .collect(Collectors.toMap(User::getId, u -> u));
-
-        // Build result
-        List<TenantListDto> result = new ArrayList<>();
-        for (RoomTenant rt : roomTenants) {
-            Room room = roomMap.get(rt.getRoomId());
-            if (room == null)
-                continue;
-
-            House house = houseMap.get(room.getHouseId());
-            if (house == null)
-                continue;
-
-            User user = userMap.get(rt.getUserId());
-            if (user == null)
-                continue;
-
-            result.add(new TenantListDto(
-                    rt.getId(),
-                    rt.getUserId(),
-                    user.getFullName(),
-                    user.getPhone(),
-                    user.getIdNumber(),
-                    user.getIdIssueDate(),
-                    user.getIdIssuePlace(),
-                    user.getGender() != null ? user.getGender().name() : null,
-                    user.getDateOfBirth(),
-                    user.getPlaceOfOrigin(),
-                    rt.isPrimary(),
-                    rt.getJoinedAt(),
-                    new TenantListDto.RoomInfo(room.getId(), room.getCode(), room.getFloor()),
-                    new TenantListDto.HouseInfo(house.getId(), house.getName(), house.getAddress())));
-        }
-
-        return result;
+    private TenantListDto toTenantListDto(RoomTenantRepository.TenantListRow row) {
+        return new TenantListDto(
+                row.getId(),
+                row.getUserId(),
+                row.getFullName(),
+                row.getPhone(),
+                row.getIdNumber(),
+                row.getIdIssueDate(),
+                row.getIdIssuePlace(),
+                row.getGender() != null ? row.getGender().name() : null,
+                row.getDateOfBirth(),
+                row.getPlaceOfOrigin(),
+                row.getIsPrimary(),
+                row.getJoinedAt(),
+                new TenantListDto.RoomInfo(row.getRoomId(), row.getRoomCode(), row.getRoomFloor()),
+                new TenantListDto.HouseInfo(row.getHouseId(), row.getHouseName(), row.getHouseAddress()));
     }
 
     @Transactional
@@ -0,0 +1,48 @@
+package com.pegacorn.rently.specification;
+
+import com.pegacorn.rently.entity.Contract;
+import com.pegacorn.rently.entity.Room;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.jpa.domain.Specification;
+
+public class ContractSpecification {
+
+    public static Specification<Contract> hasStatusString(String status) {
+        return (root, query, cb) -> {
+            if (status == null || status.trim().isEmpty()) return null;
+            try {
+                return cb.equal(root.get("status"), Contract.ContractStatus.valueOf(status.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                return null; // Invalid status, no filter
+            }
+        };
+    }
+
+    public static Specification<Contract> hasLandlordId(String landlordId) {
+        return (root, query, cb) -> {
+            if (landlordId == null || landlordId.trim().isEmpty()) return null;
+            return cb.equal(root.get("landlordId"), landlordId);
+        };
+    }
+
+    public static Specification<Contract> hasTenantId(String tenantId) {
+        return (root, query, cb) -> {
+            if (tenantId == null || tenantId.trim().isEmpty()) return null;
+            return cb.equal(root.get("tenantId"), tenantId);
+        };
+    }
+
+    public static Specification<Contract> inHouse(String houseId) {
+        return (root, query, cb) -> {
+            if (houseId == null || houseId.trim().isEmpty()) return null;
+            Subquery<String> subquery = query.subquery(String.class);
+            Root<Room> roomRoot = subquery.from(Room.class);
+            subquery.select(roomRoot.get("id"))
+                    .where(cb.and(
+                        cb.equal(roomRoot.get("id"), root.get("roomId")),
+                        cb.equal(roomRoot.get("houseId"), houseId)
+                    ));
+            return cb.exists(subquery);
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.pegacorn.rently.specification;
+
+import com.pegacorn.rently.entity.Contract;
+import com.pegacorn.rently.entity.Invoice;
+import com.pegacorn.rently.entity.Room;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.jpa.domain.Specification;
+
+public class InvoiceSpecification {
+
+    public static Specification<Invoice> hasStatusString(String status) {
+        return (root, query, cb) -> {
+            if (status == null || status.trim().isEmpty()) return null;
+            try {
+                return cb.equal(root.get("status"), Invoice.InvoiceStatus.valueOf(status.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                return null; // Invalid status, no filter
+            }
+        };
+    }
+
+    public static Specification<Invoice> hasPeriodMonth(String periodMonth) {
+        return (root, query, cb) -> {
+            if (periodMonth == null || periodMonth.trim().isEmpty()) return null;
+            return cb.equal(root.get("periodMonth"), periodMonth);
+        };
+    }
+
+    public static Specification<Invoice> hasTenantId(String tenantId) {
+        return (root, query, cb) -> {
+            if (tenantId == null || tenantId.trim().isEmpty()) return null;
+            return cb.equal(root.get("tenantId"), tenantId);
+        };
+    }
+
+    public static Specification<Invoice> hasLandlordId(String landlordId) {
+        return (root, query, cb) -> {
+            if (landlordId == null || landlordId.trim().isEmpty()) return null;
+            Subquery<String> subquery = query.subquery(String.class);
+            Root<Contract> contractRoot = subquery.from(Contract.class);
+            subquery.select(contractRoot.get("id"))
+                    .where(cb.and(
+                        cb.equal(contractRoot.get("id"), root.get("contractId")),
+                        cb.equal(contractRoot.get("landlordId"), landlordId)
+                    ));
+            return cb.exists(subquery);
+        };
+    }
+
+    public static Specification<Invoice> inHouse(String houseId) {
+        return (root, query, cb) -> {
+            if (houseId == null || houseId.trim().isEmpty()) return null;
+            Subquery<String> subquery = query.subquery(String.class);
+            Root<Contract> contractRoot = subquery.from(Contract.class);
+            Root<Room> roomRoot = subquery.from(Room.class);
+            subquery.select(contractRoot.get("id"))
+                    .where(cb.and(
+                        cb.equal(contractRoot.get("id"), root.get("contractId")),
+                        cb.equal(roomRoot.get("id"), contractRoot.get("roomId")),
+                        cb.equal(roomRoot.get("houseId"), houseId)
+                    ));
+            return cb.exists(subquery);
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.pegacorn.rently.specification;
+
+import com.pegacorn.rently.util.KeysetCursor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Keyset paging over (createdAt, id), newest first. Works for any entity with those attributes.
+ */
+public class KeysetSpecification {
+
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt")
+            .and(Sort.by(Sort.Direction.DESC, "id"));
+
+    // Rows strictly after the cursor in NEWEST_FIRST order
+    public static <T> Specification<T> after(KeysetCursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor == null) return null;
+            return cb.or(
+                cb.lessThan(root.get("createdAt"), cursor.createdAt()),
+                cb.and(
+                    cb.equal(root.get("createdAt"), cursor.createdAt()),
+                    cb.lessThan(root.get("id"), cursor.id())
+                )
+            );
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.pegacorn.rently.specification;
+
+import com.pegacorn.rently.entity.House;
+import com.pegacorn.rently.entity.Room;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.jpa.domain.Specification;
+
+public class RoomSpecification {
+
+    public static Specification<Room> hasStatusString(String status) {
+        return (root, query, cb) -> {
+            if (status == null || status.trim().isEmpty()) return null;
+            try {
+                return cb.equal(root.get("status"), Room.RoomStatus.valueOf(status.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                return null; // Invalid status, no filter
+            }
+        };
+    }
+
+    public static Specification<Room> inHouse(String houseId) {
+        return (root, query, cb) -> {
+            if (houseId == null || houseId.trim().isEmpty()) return null;
+            return cb.equal(root.get("houseId"), houseId);
+        };
+    }
+
+    public static Specification<Room> ownedBy(String ownerId) {
+        return (root, query, cb) -> {
+            if (ownerId == null || ownerId.trim().isEmpty()) return null;
+            Subquery<String> subquery = query.subquery(String.class);
+            Root<House> houseRoot = subquery.from(House.class);
+            subquery.select(houseRoot.get("id"))
+                    .where(cb.and(
+                        cb.equal(houseRoot.get("id"), root.get("houseId")),
+                        cb.equal(houseRoot.get("ownerId"), ownerId)
+                    ));
+            return cb.exists(subquery);
+        };
+    }
+
+    public static Specification<Room> codeStartsWith(String search) {
+        return (root, query, cb) -> {
+            if (search == null || search.trim().isEmpty()) return null;
+            return cb.like(root.get("code"), prefixPattern(search), '\\');
+        };
+    }
+
+    // Prefix match; '\' is the escape char
+    private static String prefixPattern(String search) {
+        return search.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+}
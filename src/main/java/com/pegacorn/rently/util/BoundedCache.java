@@ -0,0 +1,135 @@
+package com.pegacorn.rently.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Small in-process read-through cache: least-recently-used eviction once maxSize is reached,
+ * entries expire ttlMillis after loading. Loads run outside the lock, so two threads missing
+ * the same key may both load it. A load that overlaps an invalidation is returned but not
+ * stored, so stale rows do not survive an update. Values must be immutable.
+ */
+public class BoundedCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Bumped on every invalidation (guarded by entries)
+    private long generation;
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+
+    public record Stats(String name, int size, int maxSize, long hits, long misses, long evictions) {
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+    }
+
+    public BoundedCache(String name, int maxSize, long ttlMillis) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value or loads it. A null from the loader is not cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long now = System.currentTimeMillis();
+        long loadGeneration;
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && now - entry.loadedAt() <= ttlMillis) {
+                hits.increment();
+                return entry.value();
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (entries) {
+                if (generation == loadGeneration) {
+                    entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the cached value, or null (counted as a miss) when absent or expired.
+     */
+    public V getIfPresent(K key) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && now - entry.loadedAt() <= ttlMillis) {
+                hits.increment();
+                return entry.value();
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            generation++;
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateIf(BiPredicate<K, V> predicate) {
+        synchronized (entries) {
+            generation++;
+            entries.entrySet().removeIf(entry -> predicate.test(entry.getKey(), entry.getValue().value()));
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    public Stats stats() {
+        synchronized (entries) {
+            return new Stats(name, entries.size(), maxSize, hits.sum(), misses.sum(), evictions.sum());
+        }
+    }
+}
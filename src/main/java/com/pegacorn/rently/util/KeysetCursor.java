@@ -0,0 +1,42 @@
+package com.pegacorn.rently.util;
+
+import com.pegacorn.rently.constant.MessageConstant;
+import com.pegacorn.rently.exception.ApiException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a list ordered by (created_at DESC, id DESC). Sent to clients as an opaque
+ * URL-safe token, so the encoding can change without breaking them.
+ */
+public record KeysetCursor(LocalDateTime createdAt, String id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = createdAt + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a client-supplied cursor; {@code null} or blank means the first page.
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw ApiException.badRequest(MessageConstant.INVALID_CURSOR);
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw ApiException.badRequest(MessageConstant.INVALID_CURSOR);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.pegacorn.rently.util;
+
+import com.pegacorn.rently.dto.common.CursorPage;
+import com.pegacorn.rently.specification.KeysetSpecification;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keyset pagination on top of {@link JpaSpecificationExecutor}. Each page is one indexed range
+ * read of size + 1 rows (the extra row only tells whether more exist), with no OFFSET and no COUNT.
+ */
+public final class KeysetPaging {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private KeysetPaging() {
+    }
+
+    // Optional total; exact = false when it comes from table statistics
+    public record Total(long value, boolean exact) {
+    }
+
+    public static <T> CursorPage<T> fetch(JpaSpecificationExecutor<T> repository, Specification<T> filter,
+            String cursor, int size, Function<T, KeysetCursor> positionOf, Supplier<Total> totalCounter) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Specification<T> spec = filter.and(KeysetSpecification.after(KeysetCursor.decode(cursor)));
+
+        List<T> rows = repository.findBy(spec, query -> query
+                .sortBy(KeysetSpecification.NEWEST_FIRST)
+                .limit(pageSize + 1)
+                .all());
+
+        boolean hasNext = rows.size() > pageSize;
+        List<T> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? positionOf.apply(content.get(content.size() - 1)).encode() : null;
+
+        Total total = totalCounter != null ? totalCounter.get() : null;
+        return new CursorPage<>(List.copyOf(content), pageSize, hasNext, nextCursor,
+                total != null ? total.value() : null, total != null ? total.exact() : null);
+    }
+}
@@ -0,0 +1,59 @@
+package com.pegacorn.rently.util;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Vietnamese-aware text folding: lowercases, strips diacritics and maps đ to d,
+ * so "Nguyễn Văn Đức" and "nguyen van duc" compare equal.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern NON_DIGIT = Pattern.compile("[^0-9]");
+
+    private TextNormalizer() {
+    }
+
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Folded text split into alphanumeric tokens; punctuation and whitespace are separators.
+     */
+    public static List<String> tokens(String text) {
+        String folded = fold(text);
+        if (folded.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(NON_ALNUM.split(folded))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Folded tokens joined by single spaces, a canonical form for comparisons and cache keys.
+     */
+    public static String normalize(String text) {
+        return String.join(" ", tokens(text));
+    }
+
+    public static String digitsOnly(String text) {
+        if (text == null) {
+            return "";
+        }
+        return NON_DIGIT.matcher(text).replaceAll("");
+    }
+}
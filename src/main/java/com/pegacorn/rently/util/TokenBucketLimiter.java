@@ -0,0 +1,121 @@
+package com.pegacorn.rently.util;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keyed token buckets: each key may burst up to capacity, then gets one token back per
+ * refill interval. Buckets are updated lock-free (compare-and-set on an immutable state).
+ * Buckets that have refilled completely carry no state worth keeping and are dropped by
+ * {@link #evictIdle()}. Once the key count reaches maxKeys, each new key first makes room by
+ * looking at the next few buckets of a circular scan: idle ones are dropped, or failing that
+ * the least recently used of them. A flood of new keys therefore costs a bounded amount of
+ * work per key and never throttles newcomers as a group.
+ */
+public class TokenBucketLimiter {
+
+    // Buckets inspected per new key once maxKeys is reached
+    private static final int EVICTION_SAMPLE = 32;
+
+    private final int capacity;
+    private final long nanosPerToken;
+    private final int maxKeys;
+    private final ConcurrentMap<String, AtomicReference<State>> buckets = new ConcurrentHashMap<>();
+
+    // Position of the circular eviction scan (guarded by evictionLock)
+    private final Object evictionLock = new Object();
+    private Iterator<Map.Entry<String, AtomicReference<State>>> evictionCursor;
+
+    private record State(double tokens, long updatedAt) {
+    }
+
+    public TokenBucketLimiter(int capacity, Duration refillInterval, int maxKeys) {
+        this.capacity = capacity;
+        this.nanosPerToken = refillInterval.toNanos();
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Takes a token for the key. Returns 0 when allowed, otherwise the milliseconds until
+     * the next token is available (suitable for Retry-After).
+     */
+    public long tryAcquire(String key) {
+        AtomicReference<State> bucket = bucketFor(key);
+        while (true) {
+            State current = bucket.get();
+            long now = Math.max(System.nanoTime(), current.updatedAt());
+            double tokens = refilled(current, now);
+            if (tokens < 1) {
+                long nanosUntilToken = (long) ((1 - tokens) * nanosPerToken);
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(nanosUntilToken));
+            }
+            if (bucket.compareAndSet(current, new State(tokens - 1, now))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that are full again, i.e. keys that have been quiet for long enough.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> refilled(bucket.get(), now) >= capacity);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private AtomicReference<State> bucketFor(String key) {
+        AtomicReference<State> bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxKeys) {
+            makeRoom();
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicReference<>(new State(capacity, System.nanoTime())));
+    }
+
+    private void makeRoom() {
+        long now = System.nanoTime();
+        synchronized (evictionLock) {
+            Map.Entry<String, AtomicReference<State>> leastRecent = null;
+            long leastRecentAt = Long.MAX_VALUE;
+            boolean removedIdle = false;
+            for (int i = 0; i < EVICTION_SAMPLE; i++) {
+                if (evictionCursor == null || !evictionCursor.hasNext()) {
+                    evictionCursor = buckets.entrySet().iterator();
+                    if (!evictionCursor.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<String, AtomicReference<State>> entry = evictionCursor.next();
+                State state = entry.getValue().get();
+                if (refilled(state, now) >= capacity) {
+                    evictionCursor.remove();
+                    removedIdle = true;
+                } else if (state.updatedAt() < leastRecentAt) {
+                    leastRecent = entry;
+                    leastRecentAt = state.updatedAt();
+                }
+            }
+            if (!removedIdle && leastRecent != null) {
+                buckets.remove(leastRecent.getKey(), leastRecent.getValue());
+            }
+        }
+    }
+
+    private double refilled(State state, long now) {
+        if (now <= state.updatedAt()) {
+            return state.tokens();
+        }
+        return Math.min(capacity, state.tokens() + (double) (now - state.updatedAt()) / nanosPerToken);
+    }
+}
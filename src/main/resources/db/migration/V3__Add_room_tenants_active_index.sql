@@ -0,0 +1,2 @@
+-- Speeds up active-tenant lookups (left_at IS NULL) used by tenant listing and room grid
+CREATE INDEX idx_room_tenants_room_left ON room_tenants (room_id, left_at);
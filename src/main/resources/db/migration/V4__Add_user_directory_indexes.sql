@@ -0,0 +1,4 @@
+-- Admin user directory: ngram full-text search on names (works for Vietnamese, no word
+-- delimiters needed) and keyset paging by (created_at, id). Phone prefix search uses idx_users_phone.
+ALTER TABLE users ADD FULLTEXT INDEX ft_users_full_name (full_name) WITH PARSER ngram;
+CREATE INDEX idx_users_created_id ON users (created_at, id);
@@ -0,0 +1,4 @@
+-- Admin listings page rooms, contracts and invoices by created_at
+CREATE INDEX idx_rooms_created_at ON rooms (created_at);
+CREATE INDEX idx_contracts_created_at ON contracts (created_at);
+CREATE INDEX idx_invoices_created_at ON invoices (created_at);
@@ -0,0 +1,16 @@
+-- Pre-aggregated admin financial report figures for closed months, refreshed nightly
+CREATE TABLE financial_monthly_rollups (
+    period_month CHAR(7) PRIMARY KEY,
+    revenue DECIMAL(15,2) NOT NULL DEFAULT 0,
+    payment_count INT NOT NULL DEFAULT 0,
+    invoice_count INT NOT NULL DEFAULT 0,
+    total_billed DECIMAL(15,2) NOT NULL DEFAULT 0,
+    total_paid DECIMAL(15,2) NOT NULL DEFAULT 0,
+    paid_invoices INT NOT NULL DEFAULT 0,
+    unpaid_invoices INT NOT NULL DEFAULT 0,
+    overdue_invoices INT NOT NULL DEFAULT 0,
+    refreshed_at DATETIME NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Grouped report queries scan payments by created_at range
+CREATE INDEX idx_payments_created_at ON payments (created_at);
@@ -0,0 +1,3 @@
+-- Keyset pages seek on (created_at, id) within a user/landlord, newest first
+CREATE INDEX idx_notifications_user_created ON notifications (user_id, created_at, id);
+CREATE INDEX idx_activity_logs_landlord_created ON activity_logs (landlord_id, created_at, id);
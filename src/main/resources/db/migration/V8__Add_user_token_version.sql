@@ -0,0 +1,2 @@
+-- Bumped to revoke a user's access tokens (lock, delete, role change)
+ALTER TABLE users ADD COLUMN token_version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,277 @@
+package com.pegacorn.rently.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pegacorn.rently.dto.ai.ChatRequest;
+import com.pegacorn.rently.dto.ai.ExecuteActionRequest;
+import com.pegacorn.rently.dto.ai.ExecuteActionResponse;
+import com.pegacorn.rently.dto.expense.ExpenseDto;
+import com.pegacorn.rently.llm.LlmGateway;
+import com.pegacorn.rently.llm.ReplayChatModel;
+import com.pegacorn.rently.repository.*;
+import com.pegacorn.rently.service.AIChatService;
+import com.pegacorn.rently.service.ChatPipelineMetrics;
+import com.pegacorn.rently.service.OcrService;
+import com.pegacorn.rently.service.PortfolioSnapshotService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.sql.DataSource;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the AI pipeline without network access. Opt-in and test-only:
+ * {@code mvn test -Dtest=AiPipelineBenchmark -Dbenchmark.ai=true}. The benchmark profile
+ * (src/test/resources/application-benchmark.yml) points at a separate rently_benchmark
+ * database, swaps in the replaying model and turns off the chat cooldown and answer cache.
+ * For each question in the corpus the first run starts from a cold portfolio snapshot and the
+ * rest are warm; the report gives wall time and JDBC statements prepared by Hibernate per
+ * question, time per pipeline stage, the same for chat actions and OCR, and the model calls
+ * made. Statement counts include the background invoice prefetch, which can finish just after
+ * an answer is returned.
+ */
+@SpringBootTest
+@ActiveProfiles("benchmark")
+@EnabledIfSystemProperty(named = "benchmark.ai", matches = "true")
+@Import(AiPipelineBenchmark.BenchmarkConfig.class)
+class AiPipelineBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(AiPipelineBenchmark.class);
+
+    @TestConfiguration
+    static class BenchmarkConfig {
+
+        @Bean
+        BenchmarkDataset benchmarkDataset(
+                UserRepository userRepository,
+                UserRoleRepository userRoleRepository,
+                HouseRepository houseRepository,
+                RoomRepository roomRepository,
+                ContractRepository contractRepository,
+                InvoiceRepository invoiceRepository,
+                ExpenseRepository expenseRepository,
+                @Value("${benchmark.ai.dataset.houses:5}") int houses,
+                @Value("${benchmark.ai.dataset.rooms-per-house:20}") int roomsPerHouse,
+                @Value("${benchmark.ai.dataset.occupancy:0.8}") double occupancy,
+                @Value("${benchmark.ai.dataset.months:6}") int months) {
+            return new BenchmarkDataset(userRepository, userRoleRepository, houseRepository, roomRepository,
+                    contractRepository, invoiceRepository, expenseRepository,
+                    houses, roomsPerHouse, occupancy, months);
+        }
+
+        // Recorded answers with simulated latency
+        @Bean
+        ReplayChatModel replayChatModel(
+                ObjectMapper objectMapper,
+                @Value("${llm.replay.recordings:classpath:benchmark/ai-recordings.json}") Resource recordings,
+                @Value("${llm.replay.intent-latency-ms:700}") long intentLatencyMs,
+                @Value("${llm.replay.response-latency-ms:1800}") long responseLatencyMs,
+                @Value("${llm.replay.ocr-latency-ms:9000}") long ocrLatencyMs) {
+            return new ReplayChatModel(recordings, objectMapper, Map.of(
+                    ReplayChatModel.Stage.INTENT, intentLatencyMs,
+                    ReplayChatModel.Stage.RESPONSE, responseLatencyMs,
+                    ReplayChatModel.Stage.OCR, ocrLatencyMs));
+        }
+    }
+
+    @Autowired
+    private BenchmarkDataset dataset;
+    @Autowired
+    private AIChatService aiChatService;
+    @Autowired
+    private OcrService ocrService;
+    @Autowired
+    private PortfolioSnapshotService portfolioSnapshotService;
+    @Autowired
+    private ChatPipelineMetrics pipelineMetrics;
+    @Autowired
+    private LlmGateway llmGateway;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${benchmark.ai.required-database-suffix:_benchmark}")
+    private String requiredDatabaseSuffix;
+    @Value("${benchmark.ai.questions:classpath:benchmark/ai-questions.txt}")
+    private Resource questions;
+    @Value("${benchmark.ai.iterations:5}")
+    private int iterations;
+    @Value("${benchmark.ai.ocr-pages:2}")
+    private int ocrPages;
+
+    private Statistics statistics;
+
+    private record Sample(long nanos, long statements) {
+    }
+
+    @Test
+    void run() throws Exception {
+        // The dataset is written to whatever database this is; never let that be a real one
+        try (Connection connection = dataSource.getConnection()) {
+            String catalog = connection.getCatalog();
+            assertTrue(catalog != null && catalog.endsWith(requiredDatabaseSuffix),
+                    "AI benchmark must run against a *" + requiredDatabaseSuffix + " database, not " + catalog);
+        }
+        iterations = Math.max(1, iterations);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        String landlordId = dataset.ensureLandlord();
+        List<String> corpus = loadQuestions();
+        log.info("AI benchmark: {} questions x {} iterations for landlord {}", corpus.size(), iterations, landlordId);
+
+        List<ChatPipelineMetrics.StageStats> stagesBefore = pipelineMetrics.stats();
+        StringBuilder report = new StringBuilder("\n=== Chat questions ===\n");
+        report.append(String.format("%-48s %10s %10s %8s %8s%n", "question", "cold ms", "warm ms", "cold q", "warm q"));
+        for (String question : corpus) {
+            List<Sample> samples = new ArrayList<>();
+            for (int i = 0; i < iterations; i++) {
+                if (i == 0) {
+                    portfolioSnapshotService.invalidate(landlordId);
+                }
+                samples.add(measure(() -> aiChatService.chat(new ChatRequest(question, List.of()), landlordId)));
+            }
+            Sample cold = samples.get(0);
+            List<Sample> warm = samples.size() > 1 ? samples.subList(1, samples.size()) : samples;
+            report.append(String.format("%-48s %10.1f %10.1f %8d %8.1f%n",
+                    abbreviate(question), millis(cold.nanos()),
+                    warm.stream().mapToLong(Sample::nanos).average().orElse(0) / 1_000_000.0,
+                    cold.statements(),
+                    warm.stream().mapToLong(Sample::statements).average().orElse(0)));
+        }
+        appendStages(report, stagesBefore, pipelineMetrics.stats());
+        appendActions(report, landlordId);
+        appendOcr(report);
+
+        report.append("\n=== Model calls ===\n");
+        llmGateway.stats().forEach(lane -> report.append(String.format(
+                "%-6s calls %d, failures %d, avg %d ms, max %d ms, tokens %d in / %d out%n",
+                lane.useCase(), lane.calls(), lane.failures(), lane.avgLatencyMs(), lane.maxLatencyMs(),
+                lane.promptTokens(), lane.completionTokens())));
+        log.info("AI benchmark report:{}", report);
+    }
+
+    private void appendStages(StringBuilder report, List<ChatPipelineMetrics.StageStats> before,
+                              List<ChatPipelineMetrics.StageStats> after) {
+        report.append("\n=== Chat stages ===\n");
+        report.append(String.format("%-12s %8s %10s %10s%n", "stage", "count", "avg ms", "total ms"));
+        for (int i = 0; i < after.size(); i++) {
+            long count = after.get(i).count() - before.get(i).count();
+            long totalMicros = after.get(i).totalMicros() - before.get(i).totalMicros();
+            report.append(String.format("%-12s %8d %10.2f %10.1f%n", after.get(i).stage(), count,
+                    count == 0 ? 0.0 : totalMicros / 1000.0 / count, totalMicros / 1000.0));
+        }
+    }
+
+    // A created-then-deleted expense, so the dataset is unchanged afterwards
+    private void appendActions(StringBuilder report, String landlordId) throws Exception {
+        report.append("\n=== Chat actions ===\n");
+        for (int i = 0; i < iterations; i++) {
+            ExecuteActionResponse[] created = new ExecuteActionResponse[1];
+            Sample create = measure(() -> created[0] = aiChatService.executeAction(new ExecuteActionRequest(
+                    "CREATE_EXPENSE", Map.of("description", "Benchmark", "amount", 100_000, "category", "OTHER")),
+                    landlordId));
+            if (!created[0].success() || !(created[0].data() instanceof ExpenseDto expense)) {
+                report.append("CREATE_EXPENSE failed: ").append(created[0].message()).append('\n');
+                return;
+            }
+            Sample delete = measure(() -> aiChatService.executeAction(new ExecuteActionRequest(
+                    "DELETE_EXPENSE", Map.of("expenseId", expense.id())), landlordId));
+            report.append(String.format("CREATE_EXPENSE %8.1f ms %4d q | DELETE_EXPENSE %8.1f ms %4d q%n",
+                    millis(create.nanos()), create.statements(), millis(delete.nanos()), delete.statements()));
+        }
+    }
+
+    private void appendOcr(StringBuilder report) throws Exception {
+        if (ocrPages <= 0) {
+            return;
+        }
+        List<MultipartFile> pages = new ArrayList<>();
+        for (int i = 1; i <= ocrPages; i++) {
+            pages.add(new MockMultipartFile("images", "page-" + i + ".png", "image/png", renderPage(i)));
+        }
+        long bytes = pages.stream().mapToLong(MultipartFile::getSize).sum();
+        Sample scan = measure(() -> ocrService.scanAndStructure(pages));
+        Sample extract = measure(() -> ocrService.extractContractData(pages));
+        report.append(String.format("%n=== OCR (%d pages, %d KB) ===%n", ocrPages, bytes / 1024));
+        report.append(String.format("scan-and-structure %8.1f ms | extract-contract-data %8.1f ms%n",
+                millis(scan.nanos()), millis(extract.nanos())));
+    }
+
+    private Sample measure(Callable<?> task) throws Exception {
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long start = System.nanoTime();
+        task.call();
+        long elapsed = System.nanoTime() - start;
+        return new Sample(elapsed, statistics.getPrepareStatementCount() - statementsBefore);
+    }
+
+    private List<String> loadQuestions() throws IOException {
+        try (InputStream in = questions.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+        }
+    }
+
+    // A4 page at 150 dpi with a few lines of contract-like text
+    private static byte[] renderPage(int number) throws IOException {
+        BufferedImage image = new BufferedImage(1240, 1754, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.setColor(Color.BLACK);
+            g.setFont(new Font(Font.SERIF, Font.PLAIN, 28));
+            g.drawString("HOP DONG THUE PHONG TRO - TRANG " + number, 300, 150);
+            for (int line = 0; line < 40; line++) {
+                g.drawString("Dieu " + (line + 1) + ": Ben A cho Ben B thue phong so A1" + line
+                        + ", tien thue 3.000.000 dong/thang.", 100, 250 + line * 36);
+            }
+        } finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static String abbreviate(String question) {
+        return question.length() <= 48 ? question : question.substring(0, 45) + "...";
+    }
+}
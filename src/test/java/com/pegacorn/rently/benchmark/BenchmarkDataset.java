@@ -0,0 +1,250 @@
+package com.pegacorn.rently.benchmark;
+
+import com.pegacorn.rently.entity.*;
+import com.pegacorn.rently.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Synthetic landlord for the AI pipeline benchmark: houses with rooms, most of them rented on
+ * active contracts, plus invoices and expenses for the last few months. Generated once, with a
+ * fixed seed, and reused on later runs so timings stay comparable. Registered only by
+ * {@link AiPipelineBenchmark}, which runs against its own database.
+ */
+public class BenchmarkDataset {
+
+    private static final Logger log = LoggerFactory.getLogger(BenchmarkDataset.class);
+
+    static final String LANDLORD_PHONE = "0999000000";
+    private static final String TENANT_PHONE_PREFIX = "0998";
+    // Never matches a BCrypt hash, so the accounts cannot log in
+    private static final String NO_LOGIN_HASH = "!benchmark";
+
+    private final UserRepository userRepository;
+    private final UserRoleRepository userRoleRepository;
+    private final HouseRepository houseRepository;
+    private final RoomRepository roomRepository;
+    private final ContractRepository contractRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final ExpenseRepository expenseRepository;
+    private final int houses;
+    private final int roomsPerHouse;
+    private final double occupancy;
+    private final int months;
+
+    public BenchmarkDataset(
+            UserRepository userRepository,
+            UserRoleRepository userRoleRepository,
+            HouseRepository houseRepository,
+            RoomRepository roomRepository,
+            ContractRepository contractRepository,
+            InvoiceRepository invoiceRepository,
+            ExpenseRepository expenseRepository,
+            int houses,
+            int roomsPerHouse,
+            double occupancy,
+            int months) {
+        this.userRepository = userRepository;
+        this.userRoleRepository = userRoleRepository;
+        this.houseRepository = houseRepository;
+        this.roomRepository = roomRepository;
+        this.contractRepository = contractRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.expenseRepository = expenseRepository;
+        this.houses = houses;
+        this.roomsPerHouse = roomsPerHouse;
+        this.occupancy = occupancy;
+        this.months = months;
+    }
+
+    /**
+     * Id of the benchmark landlord, generating the dataset on first use.
+     */
+    @Transactional
+    public String ensureLandlord() {
+        return userRepository.findByPhone(LANDLORD_PHONE)
+                .map(User::getId)
+                .orElseGet(this::generate);
+    }
+
+    private String generate() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        YearMonth currentMonth = YearMonth.now();
+
+        User landlord = user(LANDLORD_PHONE, "Chủ trọ Benchmark", now);
+        userRepository.save(landlord);
+        userRoleRepository.save(UserRole.builder()
+                .id(UUID.randomUUID().toString())
+                .userId(landlord.getId())
+                .role(User.Role.LANDLORD)
+                .createdAt(now)
+                .build());
+
+        List<House> houseList = new ArrayList<>();
+        List<Room> rooms = new ArrayList<>();
+        List<User> tenants = new ArrayList<>();
+        List<UserRole> tenantRoles = new ArrayList<>();
+        List<Contract> contracts = new ArrayList<>();
+        List<Invoice> invoices = new ArrayList<>();
+        List<Expense> expenses = new ArrayList<>();
+
+        for (int h = 1; h <= houses; h++) {
+            House house = House.builder()
+                    .id(UUID.randomUUID().toString())
+                    .ownerId(landlord.getId())
+                    .name("Nhà trọ " + h)
+                    .address(h + " Đường Benchmark, Quận " + h)
+                    .status(House.HouseStatus.ACTIVE)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build();
+            houseList.add(house);
+
+            for (int r = 1; r <= roomsPerHouse; r++) {
+                int floor = (r - 1) / 10 + 1;
+                BigDecimal rent = BigDecimal.valueOf(2_500_000L + random.nextInt(16) * 100_000L);
+                boolean rented = random.nextDouble() < occupancy;
+                Room room = Room.builder()
+                        .id(UUID.randomUUID().toString())
+                        .houseId(house.getId())
+                        .code(String.format("%c%d%02d", (char) ('A' + h - 1), floor, r))
+                        .floor(floor)
+                        .areaM2(BigDecimal.valueOf(18 + random.nextInt(15)))
+                        .baseRent(rent)
+                        .maxTenants(3)
+                        .status(rented ? Room.RoomStatus.RENTED : Room.RoomStatus.EMPTY)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build();
+                rooms.add(room);
+                if (!rented) {
+                    continue;
+                }
+
+                User tenant = user(String.format("%s%06d", TENANT_PHONE_PREFIX, tenants.size() + 1),
+                        "Người thuê " + (tenants.size() + 1), now);
+                tenants.add(tenant);
+                tenantRoles.add(UserRole.builder()
+                        .id(UUID.randomUUID().toString())
+                        .userId(tenant.getId())
+                        .role(User.Role.TENANT)
+                        .createdAt(now)
+                        .build());
+
+                LocalDate start = currentMonth.minusMonths(months + random.nextInt(6)).atDay(1);
+                Contract contract = Contract.builder()
+                        .id(UUID.randomUUID().toString())
+                        .roomId(room.getId())
+                        .landlordId(landlord.getId())
+                        .tenantId(tenant.getId())
+                        .duration(12)
+                        .durationUnit(Contract.DurationUnit.MONTH)
+                        .startDate(start)
+                        .endDate(start.plusMonths(12 + random.nextInt(12)))
+                        .paymentPeriod(Contract.PaymentPeriod.MONTHLY)
+                        .paymentDueDay(5)
+                        .monthlyRent(rent)
+                        .depositMonths(1)
+                        .depositAmount(rent)
+                        .depositPaid(true)
+                        .status(Contract.ContractStatus.ACTIVE)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build();
+                contracts.add(contract);
+
+                for (int m = months - 1; m >= 0; m--) {
+                    YearMonth period = currentMonth.minusMonths(m);
+                    BigDecimal total = rent.add(BigDecimal.valueOf(300_000L + random.nextInt(500) * 1_000L));
+                    Invoice.InvoiceStatus status = invoiceStatus(m, random);
+                    invoices.add(Invoice.builder()
+                            .id(UUID.randomUUID().toString())
+                            .contractId(contract.getId())
+                            .tenantId(tenant.getId())
+                            .periodMonth(period.toString())
+                            .dueDate(period.atDay(5))
+                            .totalAmount(total)
+                            .paidAmount(paidAmount(status, total))
+                            .lateFeePercent(BigDecimal.ZERO)
+                            .status(status)
+                            .createdAt(now)
+                            .updatedAt(now)
+                            .build());
+                }
+            }
+
+            ExpenseCategoryType[] categories = ExpenseCategoryType.values();
+            for (int m = months - 1; m >= 0; m--) {
+                YearMonth period = currentMonth.minusMonths(m);
+                for (int e = 0; e < 4; e++) {
+                    ExpenseCategoryType category = categories[random.nextInt(categories.length)];
+                    expenses.add(Expense.builder()
+                            .id(UUID.randomUUID().toString())
+                            .houseId(house.getId())
+                            .categoryId(category.getId())
+                            .title(category.getNameVi() + " " + period)
+                            .amount(BigDecimal.valueOf(200_000L + random.nextInt(40) * 50_000L))
+                            .expenseDate(period.atDay(1 + random.nextInt(period.lengthOfMonth())))
+                            .status(Expense.ExpenseStatus.PAID)
+                            .createdAt(now)
+                            .updatedAt(now)
+                            .build());
+                }
+            }
+        }
+
+        houseRepository.saveAll(houseList);
+        roomRepository.saveAll(rooms);
+        userRepository.saveAll(tenants);
+        userRoleRepository.saveAll(tenantRoles);
+        contractRepository.saveAll(contracts);
+        invoiceRepository.saveAll(invoices);
+        expenseRepository.saveAll(expenses);
+
+        log.info("Generated benchmark dataset: {} houses, {} rooms, {} contracts, {} invoices, {} expenses",
+                houseList.size(), rooms.size(), contracts.size(), invoices.size(), expenses.size());
+        return landlord.getId();
+    }
+
+    private static User user(String phone, String fullName, LocalDateTime now) {
+        return User.builder()
+                .id(UUID.randomUUID().toString())
+                .phone(phone)
+                .passwordHash(NO_LOGIN_HASH)
+                .fullName(fullName)
+                .status(User.UserStatus.ACTIVE)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    // Older months are mostly settled; the current one is mostly still open
+    private static Invoice.InvoiceStatus invoiceStatus(int monthsAgo, Random random) {
+        double roll = random.nextDouble();
+        if (monthsAgo == 0) {
+            return roll < 0.3 ? Invoice.InvoiceStatus.PAID
+                    : roll < 0.5 ? Invoice.InvoiceStatus.PARTIALLY_PAID
+                    : Invoice.InvoiceStatus.SENT;
+        }
+        return roll < 0.9 ? Invoice.InvoiceStatus.PAID : Invoice.InvoiceStatus.OVERDUE;
+    }
+
+    private static BigDecimal paidAmount(Invoice.InvoiceStatus status, BigDecimal total) {
+        return switch (status) {
+            case PAID -> total;
+            case PARTIALLY_PAID -> total.divide(BigDecimal.TWO);
+            default -> BigDecimal.ZERO;
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package com.pegacorn.rently.llm;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final CircuitBreaker breaker = new CircuitBreaker(3, 50);
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.allowRequest()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+        assertThat(breaker.retryAfterMillis()).isBetween(1L, 50L);
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void letsOneProbeThroughAfterTheOpenPeriodAndClosesOnSuccess() throws InterruptedException {
+        open();
+        Thread.sleep(80);
+
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+
+        breaker.onSuccess();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.retryAfterMillis()).isZero();
+    }
+
+    @Test
+    void failedProbeReopensAtOnce() throws InterruptedException {
+        open();
+        Thread.sleep(80);
+        assertThat(breaker.allowRequest()).isTrue();
+
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void abandonedProbeFreesTheProbeSlot() throws InterruptedException {
+        open();
+        Thread.sleep(80);
+        assertThat(breaker.allowRequest()).isTrue();
+
+        breaker.onAbandoned();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
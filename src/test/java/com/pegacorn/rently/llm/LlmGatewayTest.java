@@ -0,0 +1,179 @@
+package com.pegacorn.rently.llm;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LlmGatewayTest {
+
+    private final ChatModel chatModel = mock(ChatModel.class);
+    private final ChatResponse response = mock(ChatResponse.class);
+
+    @Test
+    void retriesTransientErrors() {
+        when(chatModel.call(any(Prompt.class)))
+                .thenThrow(new TransientAiException("429 Too Many Requests"))
+                .thenReturn(response);
+        LlmGateway gateway = gateway(new MockEnvironment().withProperty("llm.chat.max-attempts", "2"));
+
+        assertThat(gateway.call(LlmUseCase.CHAT, new Prompt("hi"))).isSameAs(response);
+
+        verify(chatModel, times(2)).call(any(Prompt.class));
+        LlmGateway.Stats stats = chatStats(gateway);
+        assertThat(stats.retries()).isEqualTo(1);
+        assertThat(stats.failures()).isZero();
+        assertThat(stats.circuitState()).isEqualTo("CLOSED");
+    }
+
+    @Test
+    void doesNotRetryOrTripOnRequestErrors() {
+        when(chatModel.call(any(Prompt.class))).thenThrow(new IllegalArgumentException("400 Bad Request"));
+        LlmGateway gateway = gateway(new MockEnvironment()
+                .withProperty("llm.chat.max-attempts", "3")
+                .withProperty("llm.chat.breaker.failure-threshold", "1"));
+
+        assertThatThrownBy(() -> gateway.call(LlmUseCase.CHAT, new Prompt("hi")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(chatModel, times(1)).call(any(Prompt.class));
+        assertThat(chatStats(gateway).circuitState()).isEqualTo("CLOSED");
+    }
+
+    @Test
+    void openCircuitRefusesWithoutCallingTheModel() {
+        when(chatModel.call(any(Prompt.class))).thenThrow(new TransientAiException("503 Service Unavailable"));
+        LlmGateway gateway = gateway(new MockEnvironment()
+                .withProperty("llm.chat.max-attempts", "1")
+                .withProperty("llm.chat.breaker.failure-threshold", "2"));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> gateway.call(LlmUseCase.CHAT, new Prompt("hi")))
+                    .isInstanceOf(TransientAiException.class);
+        }
+        assertThatThrownBy(() -> gateway.call(LlmUseCase.CHAT, new Prompt("hi")))
+                .isInstanceOfSatisfying(LlmUnavailableException.class, e -> {
+                    assertThat(e.getReason()).isEqualTo(LlmUnavailableException.Reason.CIRCUIT_OPEN);
+                    assertThat(e.getRetryAfterMillis()).isPositive();
+                });
+
+        verify(chatModel, times(2)).call(any(Prompt.class));
+        assertThat(chatStats(gateway).shortCircuited()).isEqualTo(1);
+        // The other lane is unaffected
+        assertThat(gateway.stats()).anySatisfy(stats -> {
+            assertThat(stats.useCase()).isEqualTo("ocr");
+            assertThat(stats.circuitState()).isEqualTo("CLOSED");
+        });
+    }
+
+    @Test
+    void timedOutCallKeepsItsPermitUntilTheUpstreamRequestEnds() throws InterruptedException {
+        CountDownLatch upstream = new CountDownLatch(1);
+        when(chatModel.call(any(Prompt.class))).thenAnswer(invocation -> {
+            awaitIgnoringInterrupts(upstream);
+            return response;
+        });
+        LlmGateway gateway = gateway(new MockEnvironment()
+                .withProperty("llm.chat.max-concurrent", "1")
+                .withProperty("llm.chat.acquire-timeout-ms", "20")
+                .withProperty("llm.chat.attempt-timeout-ms", "50")
+                .withProperty("llm.chat.max-attempts", "1"));
+
+        assertThatThrownBy(() -> gateway.call(LlmUseCase.CHAT, new Prompt("first")))
+                .isInstanceOfSatisfying(LlmUnavailableException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(LlmUnavailableException.Reason.TIMEOUT));
+        assertThatThrownBy(() -> gateway.call(LlmUseCase.CHAT, new Prompt("second")))
+                .isInstanceOfSatisfying(LlmUnavailableException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(LlmUnavailableException.Reason.BULKHEAD_FULL));
+
+        upstream.countDown();
+        awaitTrue(() -> chatStats(gateway).inFlight() == 0);
+        assertThat(gateway.call(LlmUseCase.CHAT, new Prompt("third"))).isSameAs(response);
+    }
+
+    @Test
+    void identicalConcurrentCallsShareOneModelCall() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch upstream = new CountDownLatch(1);
+        when(chatModel.call(any(Prompt.class))).thenAnswer(invocation -> {
+            entered.countDown();
+            upstream.await();
+            return response;
+        });
+        LlmGateway gateway = gateway(new MockEnvironment());
+
+        CompletableFuture<ChatResponse> first = CompletableFuture.supplyAsync(
+                () -> gateway.call(LlmUseCase.CHAT, new Prompt("same question")));
+        entered.await();
+        CompletableFuture<ChatResponse> second = CompletableFuture.supplyAsync(
+                () -> gateway.call(LlmUseCase.CHAT, new Prompt("same question")));
+        awaitTrue(() -> chatStats(gateway).coalesced() == 1);
+        upstream.countDown();
+
+        assertThat(first.get()).isSameAs(response);
+        assertThat(second.get()).isSameAs(response);
+        verify(chatModel, times(1)).call(any(Prompt.class));
+    }
+
+    @Test
+    void streamIsCutOffAtTheDeadlineEvenWhileChunksKeepArriving() throws InterruptedException {
+        when(chatModel.stream(any(Prompt.class)))
+                .thenReturn(Flux.interval(Duration.ofMillis(10)).map(tick -> response));
+        LlmGateway gateway = gateway(new MockEnvironment().withProperty("llm.chat.deadline-ms", "150"));
+
+        assertThatThrownBy(() -> gateway.stream(LlmUseCase.CHAT, new Prompt("hi")).collectList().block())
+                .isInstanceOfSatisfying(LlmUnavailableException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(LlmUnavailableException.Reason.TIMEOUT));
+
+        awaitTrue(() -> chatStats(gateway).inFlight() == 0);
+        assertThat(chatStats(gateway).timeouts()).isEqualTo(1);
+    }
+
+    private LlmGateway gateway(MockEnvironment environment) {
+        environment.withProperty("llm.chat.backoff-ms", "1");
+        return new LlmGateway(chatModel, environment);
+    }
+
+    private static LlmGateway.Stats chatStats(LlmGateway gateway) {
+        return gateway.stats().stream()
+                .filter(stats -> stats.useCase().equals("chat"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    // Like a blocking socket read that does not react to interrupts
+    private static void awaitIgnoringInterrupts(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException e) {
+                // keep waiting
+            }
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
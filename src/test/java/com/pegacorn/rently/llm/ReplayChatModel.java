@@ -0,0 +1,129 @@
+package com.pegacorn.rently.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pegacorn.rently.util.TextNormalizer;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.core.io.Resource;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline model that replays recorded answers, used by the AI pipeline benchmark (which sets
+ * {@code llm.model: replay} so no OpenAI model is created). Recordings are a JSON array of {@code {"stage", "question", "reply"}}:
+ * stage is intent, response or ocr (told apart by the prompt), question is matched against
+ * the last user message after diacritic folding, and an entry without a question is the
+ * stage's fallback. Each stage answers after its own simulated latency.
+ */
+public class ReplayChatModel implements ChatModel {
+
+    public enum Stage { INTENT, RESPONSE, OCR }
+
+    private static final int STREAM_CHUNK_CHARS = 16;
+    // Only the intent-analysis prompt asks for this field
+    private static final String INTENT_PROMPT_MARKER = "\"queryType\"";
+
+    private final Map<String, String> replies = new HashMap<>();
+    private final Map<Stage, String> fallbacks = new EnumMap<>(Stage.class);
+    private final Map<Stage, Long> latencyMs;
+
+    public ReplayChatModel(Resource recordings, ObjectMapper objectMapper, Map<Stage, Long> latencyMs) {
+        this.latencyMs = latencyMs;
+        try (InputStream in = recordings.getInputStream()) {
+            for (JsonNode recording : objectMapper.readTree(in)) {
+                Stage stage = Stage.valueOf(recording.path("stage").asText().toUpperCase());
+                JsonNode replyNode = recording.path("reply");
+                String reply = replyNode.isTextual() ? replyNode.asText() : replyNode.toString();
+                String question = recording.path("question").asText(null);
+                if (question == null) {
+                    fallbacks.put(stage, reply);
+                } else {
+                    replies.put(key(stage, question), reply);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read LLM recordings from " + recordings, e);
+        }
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        Stage stage = stageOf(prompt);
+        sleep(latencyMs.getOrDefault(stage, 0L));
+        return StubChatModel.response(prompt, replyFor(stage, prompt));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        Stage stage = stageOf(prompt);
+        String reply = replyFor(stage, prompt);
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < reply.length(); i += STREAM_CHUNK_CHARS) {
+            chunks.add(reply.substring(i, Math.min(reply.length(), i + STREAM_CHUNK_CHARS)));
+        }
+        Duration perChunk = Duration.ofMillis(latencyMs.getOrDefault(stage, 0L) / Math.max(1, chunks.size()));
+        return Flux.fromIterable(chunks)
+                .delayElements(perChunk)
+                .map(chunk -> StubChatModel.response(prompt, chunk));
+    }
+
+    private String replyFor(Stage stage, Prompt prompt) {
+        String reply = replies.get(key(stage, lastUserText(prompt)));
+        if (reply == null) {
+            reply = fallbacks.get(stage);
+        }
+        if (reply == null) {
+            throw new IllegalStateException("No recorded " + stage + " reply for: " + lastUserText(prompt));
+        }
+        return reply;
+    }
+
+    private static Stage stageOf(Prompt prompt) {
+        for (Message message : prompt.getInstructions()) {
+            if (message instanceof UserMessage userMessage && !userMessage.getMedia().isEmpty()) {
+                return Stage.OCR;
+            }
+            if (message.getMessageType() == MessageType.SYSTEM && message.getText() != null
+                    && message.getText().contains(INTENT_PROMPT_MARKER)) {
+                return Stage.INTENT;
+            }
+        }
+        return Stage.RESPONSE;
+    }
+
+    private static String lastUserText(Prompt prompt) {
+        List<Message> messages = prompt.getInstructions();
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i).getMessageType() == MessageType.USER) {
+                return messages.get(i).getText();
+            }
+        }
+        return "";
+    }
+
+    private static String key(Stage stage, String question) {
+        return stage + ":" + TextNormalizer.normalize(question);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while simulating model latency", e);
+        }
+    }
+}
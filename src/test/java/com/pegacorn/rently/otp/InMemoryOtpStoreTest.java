@@ -0,0 +1,77 @@
+package com.pegacorn.rently.otp;
+
+import com.pegacorn.rently.entity.OtpVerification.OtpType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryOtpStoreTest {
+
+    private static final String PHONE = "0901234567";
+
+    private final InMemoryOtpStore store = new InMemoryOtpStore();
+
+    @Test
+    void verifiesMatchingCodeOnce() {
+        store.issue(PHONE, OtpType.REGISTER, "123456", Duration.ofMinutes(5));
+
+        assertThat(store.verify(PHONE, OtpType.REGISTER, "123456")).isEqualTo(OtpStore.VerifyResult.VALID);
+        assertThat(store.isVerified(PHONE, OtpType.REGISTER, "123456")).isTrue();
+        // A used code cannot be verified again
+        assertThat(store.verify(PHONE, OtpType.REGISTER, "123456")).isEqualTo(OtpStore.VerifyResult.EXPIRED);
+    }
+
+    @Test
+    void rejectsWrongShorterLongerAndMissingCodes() {
+        store.issue(PHONE, OtpType.REGISTER, "123456", Duration.ofMinutes(5));
+
+        assertThat(store.verify(PHONE, OtpType.REGISTER, "123457")).isEqualTo(OtpStore.VerifyResult.MISMATCH);
+        assertThat(store.verify(PHONE, OtpType.REGISTER, "12345")).isEqualTo(OtpStore.VerifyResult.MISMATCH);
+        assertThat(store.verify(PHONE, OtpType.REGISTER, "1234567")).isEqualTo(OtpStore.VerifyResult.MISMATCH);
+        assertThat(store.verify(PHONE, OtpType.REGISTER, null)).isEqualTo(OtpStore.VerifyResult.MISMATCH);
+        assertThat(store.isVerified(PHONE, OtpType.REGISTER, "123456")).isFalse();
+    }
+
+    @Test
+    void codesAreKeptPerPhoneAndType() {
+        store.issue(PHONE, OtpType.REGISTER, "111111", Duration.ofMinutes(5));
+
+        assertThat(store.verify(PHONE, OtpType.RESET_PASSWORD, "111111")).isEqualTo(OtpStore.VerifyResult.EXPIRED);
+        assertThat(store.verify("0909999999", OtpType.REGISTER, "111111")).isEqualTo(OtpStore.VerifyResult.EXPIRED);
+    }
+
+    @Test
+    void expiredCodeIsRefusedBeforeTheWheelSweepsIt() throws InterruptedException {
+        store.issue(PHONE, OtpType.REGISTER, "123456", Duration.ofMillis(1));
+        Thread.sleep(20);
+
+        assertThat(store.verify(PHONE, OtpType.REGISTER, "123456")).isEqualTo(OtpStore.VerifyResult.EXPIRED);
+        assertThat(store.lastIssuedAt(PHONE, OtpType.REGISTER)).isPresent();
+    }
+
+    @Test
+    void wheelRemovesCodesOnceTheirSlotHasPassed() throws InterruptedException {
+        store.issue(PHONE, OtpType.REGISTER, "123456", Duration.ofMillis(1));
+        store.issue(PHONE, OtpType.RESET_PASSWORD, "654321", Duration.ofMinutes(5));
+        // Long enough for the one-second slot after expiry to come round
+        Thread.sleep(1200);
+
+        store.advanceWheel();
+
+        assertThat(store.lastIssuedAt(PHONE, OtpType.REGISTER)).isEmpty();
+        assertThat(store.lastIssuedAt(PHONE, OtpType.RESET_PASSWORD)).isPresent();
+    }
+
+    @Test
+    void reissuedCodeSurvivesTheSweepOfItsOldSlot() throws InterruptedException {
+        store.issue(PHONE, OtpType.REGISTER, "123456", Duration.ofMillis(1));
+        store.issue(PHONE, OtpType.REGISTER, "654321", Duration.ofMinutes(5));
+        Thread.sleep(1200);
+
+        store.advanceWheel();
+
+        assertThat(store.verify(PHONE, OtpType.REGISTER, "654321")).isEqualTo(OtpStore.VerifyResult.VALID);
+    }
+}
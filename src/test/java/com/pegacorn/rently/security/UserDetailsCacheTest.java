@@ -0,0 +1,67 @@
+package com.pegacorn.rently.security;
+
+import com.pegacorn.rently.entity.House;
+import com.pegacorn.rently.entity.User;
+import com.pegacorn.rently.event.EntityChangedEvent;
+import com.pegacorn.rently.repository.UserRepository;
+import com.pegacorn.rently.repository.UserRoleRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserDetailsCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserRoleRepository userRoleRepository = mock(UserRoleRepository.class);
+    private final UserDetailsCache cache = new UserDetailsCache(userRepository, userRoleRepository, 100, 60_000);
+
+    // The stored row; the repository hands out a fresh copy like a new persistence context would
+    private final AtomicReference<String> storedPhone = new AtomicReference<>("0901111111");
+
+    @Test
+    void updatingATenantEvictsTheCachedProfile() {
+        stubTenant();
+        assertThat(cache.get("tenant-1")).get().extracting(cached -> cached.user().phone()).isEqualTo("0901111111");
+
+        // TenantService.updateTenant: the row changes and the entity listener publishes the saved user
+        storedPhone.set("0902222222");
+        assertThat(cache.get("tenant-1")).get().extracting(cached -> cached.user().phone()).isEqualTo("0901111111");
+        cache.onEntityChanged(new EntityChangedEvent(tenant()));
+
+        assertThat(cache.get("tenant-1")).get().extracting(cached -> cached.user().phone()).isEqualTo("0902222222");
+        verify(userRepository, times(2)).findById("tenant-1");
+    }
+
+    @Test
+    void otherEntitiesLeaveTheCacheAlone() {
+        stubTenant();
+        cache.get("tenant-1");
+
+        cache.onEntityChanged(new EntityChangedEvent(House.builder().id("tenant-1").build()));
+        cache.get("tenant-1");
+
+        verify(userRepository, times(1)).findById("tenant-1");
+    }
+
+    private void stubTenant() {
+        when(userRepository.findById("tenant-1")).thenAnswer(invocation -> Optional.of(tenant()));
+        when(userRoleRepository.findRolesByUserId("tenant-1")).thenReturn(List.of(User.Role.TENANT));
+    }
+
+    private User tenant() {
+        return User.builder()
+                .id("tenant-1")
+                .phone(storedPhone.get())
+                .fullName("Nguyễn Văn A")
+                .status(User.UserStatus.ACTIVE)
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.pegacorn.rently.service;
+
+import com.pegacorn.rently.dto.ai.DataRequirementDto;
+import com.pegacorn.rently.dto.ai.DataRequirementDto.QueryType;
+import com.pegacorn.rently.dto.ai.FetchedDataDto;
+import com.pegacorn.rently.dto.ai.FetchedDataDto.ExpenseData;
+import com.pegacorn.rently.dto.ai.FetchedDataDto.InvoiceData;
+import com.pegacorn.rently.dto.ai.FetchedDataDto.RoomData;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatContextBuilderTest {
+
+    private static final int MAX_TOKENS = 600;
+
+    private final ChatContextBuilder builder = new ChatContextBuilder(MAX_TOKENS);
+
+    @Test
+    void smallDataGoesInWhole() {
+        FetchedDataDto data = data(rooms(3), List.of(), List.of());
+
+        String context = builder.build(data, requirement(null));
+
+        assertThat(context).contains("- R000 ", "- R001 ", "- R002 ").doesNotContain("... và");
+    }
+
+    @Test
+    void oversizedSectionIsCutToTheBudgetWithTotalsAndACount() {
+        List<InvoiceData> invoices = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            invoices.add(invoice("R" + i, "PAID", 3_000_000, 3_000_000));
+        }
+        invoices.add(invoice("R999", "OVERDUE", 3_000_000, 0));
+
+        String context = builder.build(data(List.of(), invoices, List.of()), requirement(null));
+
+        assertThat(ChatContextBuilder.estimateTokens(context)).isLessThanOrEqualTo(MAX_TOKENS);
+        assertThat(context).contains("Theo trạng thái: Đã thanh toán: 200", "Quá hạn: 1");
+        // Unpaid invoices rank first
+        assertThat(context).contains("- Phòng R999 ");
+        assertThat(context).containsPattern("- \\.\\.\\. và \\d+ hóa đơn khác");
+    }
+
+    @Test
+    void requestedRoomSurvivesTruncation() {
+        List<RoomData> rooms = new ArrayList<>(rooms(200));
+        rooms.add(new RoomData("room-z", "Z999", "Nhà A", "EMPTY", BigDecimal.valueOf(2_000_000), null));
+
+        String context = builder.build(data(rooms, List.of(), List.of()), requirement("z999"));
+
+        assertThat(ChatContextBuilder.estimateTokens(context)).isLessThanOrEqualTo(MAX_TOKENS);
+        assertThat(context).contains("- Z999 (Nhà A)").contains("phòng khác");
+    }
+
+    @Test
+    void sectionsShareTheBudget() {
+        List<InvoiceData> invoices = new ArrayList<>();
+        List<ExpenseData> expenses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            invoices.add(invoice("R" + i, "SENT", 3_000_000, 0));
+            expenses.add(new ExpenseData("e" + i, "Sửa ống nước " + i, "REPAIR", "Nhà A",
+                    BigDecimal.valueOf(100_000 + i), "PAID", "2025-03-01"));
+        }
+
+        String context = builder.build(data(List.of(), invoices, expenses), requirement(null));
+
+        assertThat(ChatContextBuilder.estimateTokens(context)).isLessThanOrEqualTo(MAX_TOKENS);
+        assertThat(context).contains("### Hóa đơn:", "### Chi phí:", "Theo danh mục: REPAIR: 200");
+        // Largest expense first
+        assertThat(context).contains("Sửa ống nước 199");
+    }
+
+    @Test
+    void noDataSaysSo() {
+        String context = builder.build(data(List.of(), List.of(), List.of()), requirement(null));
+
+        assertThat(context).isEqualTo("Không có dữ liệu phù hợp với yêu cầu.");
+    }
+
+    private static FetchedDataDto data(List<RoomData> rooms, List<InvoiceData> invoices, List<ExpenseData> expenses) {
+        return new FetchedDataDto(List.of(), rooms, List.of(), invoices, expenses, List.of(), null);
+    }
+
+    private static List<RoomData> rooms(int count) {
+        List<RoomData> rooms = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rooms.add(new RoomData("room-" + i, String.format("R%03d", i), "Nhà A", "RENTED",
+                    BigDecimal.valueOf(3_000_000), "Người thuê " + i));
+        }
+        return rooms;
+    }
+
+    private static InvoiceData invoice(String roomCode, String status, long total, long paid) {
+        return new InvoiceData("inv-" + roomCode, roomCode, "Người thuê " + roomCode, "2025-03",
+                BigDecimal.valueOf(total), BigDecimal.valueOf(paid), status, "2025-03-10");
+    }
+
+    private static DataRequirementDto requirement(String roomCode) {
+        return new DataRequirementDto(QueryType.LIST_DATA, false, true, null, true, roomCode,
+                true, null, null, true, null, null, false, null, null,
+                false, false, null, false, "danh sach");
+    }
+}
@@ -0,0 +1,69 @@
+package com.pegacorn.rently.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatMessageStreamParserTest {
+
+    private static final String ANSWER =
+            "{\"message\": \"Phòng A101 \\\"trống\\\"\\nGiá: 3\\u00a0triệu\", \"actionType\": \"NONE\", \"actionData\": {\"message\": \"x\"}}";
+    private static final String MESSAGE = "Phòng A101 \"trống\"\nGiá: 3\u00a0triệu";
+
+    @Test
+    void extractsMessageFromWholeAnswer() {
+        assertThat(feed(ANSWER)).isEqualTo(MESSAGE);
+    }
+
+    @Test
+    void extractsMessageFedOneCharacterAtATime() {
+        // Splits the key and every escape sequence across chunks
+        assertThat(feed(ANSWER.split(""))).isEqualTo(MESSAGE);
+    }
+
+    @Test
+    void unicodeEscapeSplitMidSequence() {
+        assertThat(feed("{\"message\": \"a\\u00", "e9b\"}")).isEqualTo("aéb");
+        assertThat(feed("{\"message\": \"a\\", "u00e9b\"}")).isEqualTo("aéb");
+    }
+
+    @Test
+    void escapedQuoteSplitAfterBackslashDoesNotEndTheMessage() {
+        assertThat(feed("{\"message\": \"say \\", "\"hi\\", "\" now\"}")).isEqualTo("say \"hi\" now");
+    }
+
+    @Test
+    void keySplitAcrossChunks() {
+        assertThat(feed("{\"mes", "sage\"", " : ", "\"hello\"}")).isEqualTo("hello");
+    }
+
+    @Test
+    void skipsCodeFence() {
+        assertThat(feed("```json\n", "{\"message\": \"hi\"}", "\n```")).isEqualTo("hi");
+        assertThat(feed("``", "`json", "\n{\"message\": \"hi\"}")).isEqualTo("hi");
+    }
+
+    @Test
+    void passesPlainTextThrough() {
+        assertThat(feed("  Xin ", "chào", " bạn")).isEqualTo("Xin chào bạn");
+    }
+
+    @Test
+    void nonStringMessageStreamsNothing() {
+        assertThat(feed("{\"message\": null, \"actionType\": \"NONE\"}")).isEmpty();
+    }
+
+    @Test
+    void ignoresEverythingAfterTheMessage() {
+        assertThat(feed("{\"message\": \"done\"", ", \"actionData\": {\"message\": \"ignored\"}}")).isEqualTo("done");
+    }
+
+    private static String feed(String... chunks) {
+        ChatMessageStreamParser parser = new ChatMessageStreamParser();
+        StringBuilder shown = new StringBuilder();
+        for (String chunk : chunks) {
+            shown.append(parser.accept(chunk));
+        }
+        return shown.toString();
+    }
+}
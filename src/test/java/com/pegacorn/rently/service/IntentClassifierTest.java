@@ -0,0 +1,178 @@
+package com.pegacorn.rently.service;
+
+import com.pegacorn.rently.dto.ai.DataRequirementDto;
+import com.pegacorn.rently.dto.ai.DataRequirementDto.QueryType;
+import com.pegacorn.rently.entity.House;
+import com.pegacorn.rently.entity.Room;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntentClassifierTest {
+
+    private final IntentClassifier classifier = new IntentClassifier(true, 2);
+
+    private final PortfolioSnapshot snapshot = new PortfolioSnapshot("landlord-1", 1,
+            List.of(House.builder().id("house-1").name("Nhà Hoa Mai").build()),
+            List.of(Room.builder().id("room-1").houseId("house-1").code("A101").build()),
+            List.of(), List.of(), period -> List.of(), month -> List.of(), ids -> List.of());
+
+    // Landlord whose rooms are plain numbers
+    private final PortfolioSnapshot numbered = new PortfolioSnapshot("landlord-2", 1,
+            List.of(House.builder().id("house-2").name("Nhà Số 5").build()),
+            List.of(Room.builder().id("room-n1").houseId("house-2").code("1").build(),
+                    Room.builder().id("room-n3").houseId("house-2").code("3").build(),
+                    Room.builder().id("room-n101").houseId("house-2").code("101").build()),
+            List.of(), List.of(), period -> List.of(), month -> List.of(), ids -> List.of());
+
+    @Test
+    void vacantRoomsQuestionNeedsRoomsOnly() {
+        DataRequirementDto result = classify("Phòng nào còn trống?", false).orElseThrow();
+
+        assertThat(result.queryType()).isEqualTo(QueryType.LIST_DATA);
+        assertThat(result.needRooms()).isTrue();
+        assertThat(result.needInvoices()).isFalse();
+        assertThat(result.needContracts()).isFalse();
+    }
+
+    @Test
+    void unpaidQuestionPicksUpExplicitMonth() {
+        DataRequirementDto result = classify("Ai chưa đóng tiền tháng 3/2025?", false).orElseThrow();
+
+        assertThat(result.needInvoices()).isTrue();
+        assertThat(result.invoiceMonth()).isEqualTo(3);
+        assertThat(result.invoiceYear()).isEqualTo(2025);
+        // "3" is the month, not a room code
+        assertThat(result.roomCodeFilter()).isNull();
+    }
+
+    @Test
+    void expenseTotalIsAStatisticsQuestionForLastMonth() {
+        YearMonth lastMonth = YearMonth.now().minusMonths(1);
+
+        DataRequirementDto result = classify("Tổng chi phí tháng trước là bao nhiêu", false).orElseThrow();
+
+        assertThat(result.queryType()).isEqualTo(QueryType.STATISTICS);
+        assertThat(result.needExpenses()).isTrue();
+        assertThat(result.expenseMonth()).isEqualTo(lastMonth.getMonthValue());
+        assertThat(result.expenseYear()).isEqualTo(lastMonth.getYear());
+    }
+
+    @Test
+    void meterReadingsResolveTheRoomFromThePortfolio() {
+        DataRequirementDto result = classify("Chỉ số điện phòng a101 tháng này", false).orElseThrow();
+
+        assertThat(result.queryType()).isEqualTo(QueryType.SINGLE_ITEM);
+        assertThat(result.needMeterReadings()).isTrue();
+        assertThat(result.meterRoomCode()).isEqualTo("A101");
+        assertThat(result.meterPeriod()).isEqualTo(YearMonth.now().toString());
+    }
+
+    @Test
+    void monthNumberIsNotANumericRoomCode() {
+        DataRequirementDto result = classifier.classify("Ai chưa đóng tiền tháng 3", false, () -> numbered)
+                .orElseThrow();
+
+        assertThat(result.invoiceMonth()).isEqualTo(3);
+        assertThat(result.roomCodeFilter()).isNull();
+    }
+
+    @Test
+    void amountsAndCountsAreNotNumericRoomCodes() {
+        DataRequirementDto unpaid = classifier.classify("Hóa đơn chưa thanh toán trên 3 triệu", false, () -> numbered)
+                .orElseThrow();
+        assertThat(unpaid.roomCodeFilter()).isNull();
+        assertThat(unpaid.queryType()).isEqualTo(QueryType.LIST_DATA);
+
+        DataRequirementDto vacant = classifier.classify("1 nhà còn bao nhiêu phòng trống", false, () -> numbered)
+                .orElseThrow();
+        assertThat(vacant.roomCodeFilter()).isNull();
+    }
+
+    @Test
+    void numericRoomCodeCountsAfterARoomWord() {
+        DataRequirementDto room = classifier.classify("Hóa đơn phòng 101 tháng 3", false, () -> numbered)
+                .orElseThrow();
+        assertThat(room.roomCodeFilter()).isEqualTo("101");
+        assertThat(room.invoiceMonth()).isEqualTo(3);
+
+        DataRequirementDto shortForm = classifier.classify("Hóa đơn p.3 tháng này", false, () -> numbered)
+                .orElseThrow();
+        assertThat(shortForm.roomCodeFilter()).isEqualTo("3");
+        assertThat(shortForm.queryType()).isEqualTo(QueryType.SINGLE_ITEM);
+    }
+
+    @Test
+    void meterReadingsWithoutAKnownRoomAreLeftToTheModel() {
+        assertThat(classify("Chỉ số điện phòng B999", false)).isEmpty();
+    }
+
+    @Test
+    void houseNameBecomesTheRoomFilter() {
+        DataRequirementDto result = classify("Phòng trống ở nhà hoa mai", false).orElseThrow();
+
+        assertThat(result.needRooms()).isTrue();
+        assertThat(result.houseNameFilter()).isEqualTo("Nhà Hoa Mai");
+    }
+
+    @Test
+    void actionsAreLeftToTheModel() {
+        assertThat(classify("Tạo hóa đơn cho phòng A101", false)).isEmpty();
+        assertThat(classify("Xóa khoản chi tháng này", false)).isEmpty();
+    }
+
+    @Test
+    void greetingIsSimpleOnlyAtTheStartOfAConversation() {
+        DataRequirementDto result = classify("Xin chào", false).orElseThrow();
+        assertThat(result.isSimpleQuestion()).isTrue();
+        assertThat(result.queryType()).isEqualTo(QueryType.GENERAL_CHAT);
+
+        assertThat(classify("Xin chào", true)).isEmpty();
+    }
+
+    @Test
+    void howToQuestionIsHelp() {
+        DataRequirementDto result = classify("Làm sao để xem hóa đơn?", false).orElseThrow();
+
+        assertThat(result.queryType()).isEqualTo(QueryType.HELP_QUESTION);
+    }
+
+    @Test
+    void followUpReferringToHistoryIsLeftToTheModel() {
+        assertThat(classify("Còn hóa đơn chưa đóng thì sao?", true)).isEmpty();
+    }
+
+    @Test
+    void weakOrUnrelatedQuestionsAreLeftToTheModel() {
+        assertThat(classify("phòng", false)).isEmpty();
+        assertThat(classify("Thời tiết hôm nay thế nào", false)).isEmpty();
+        assertThat(classify("   ", false)).isEmpty();
+    }
+
+    @Test
+    void portfolioIsNotNeededWhenTheWordingAlreadyRulesOutALocalAnswer() {
+        Supplier<PortfolioSnapshot> unavailable = () -> {
+            throw new AssertionError("portfolio requested");
+        };
+
+        assertThat(classifier.classify("Tạo hóa đơn cho phòng A101", false, unavailable)).isEmpty();
+        assertThat(classifier.classify("Thời tiết hôm nay thế nào", false, unavailable)).isEmpty();
+        assertThat(classifier.classify("Còn hóa đơn chưa đóng thì sao?", true, unavailable)).isEmpty();
+    }
+
+    @Test
+    void disabledClassifierNeverAnswers() {
+        IntentClassifier disabled = new IntentClassifier(false, 2);
+
+        assertThat(disabled.classify("Phòng nào còn trống?", false, () -> snapshot)).isEmpty();
+    }
+
+    private Optional<DataRequirementDto> classify(String message, boolean hasHistory) {
+        return classifier.classify(message, hasHistory, () -> snapshot);
+    }
+}
@@ -0,0 +1,163 @@
+package com.pegacorn.rently.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.MimeTypeUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OcrImagePreprocessorTest {
+
+    private static final int ORIENTATION_TAG = 0x0112;
+    private static final int OTHER_TAG = 0x010F;
+
+    @Test
+    void readsLittleEndianOrientation() throws IOException {
+        assertThat(orientationOf(jpeg(exif(ByteOrder.LITTLE_ENDIAN, ORIENTATION_TAG, 6)))).isEqualTo(6);
+    }
+
+    @Test
+    void readsBigEndianOrientation() throws IOException {
+        assertThat(orientationOf(jpeg(exif(ByteOrder.BIG_ENDIAN, ORIENTATION_TAG, 8)))).isEqualTo(8);
+    }
+
+    @Test
+    void skipsSegmentsBeforeExif() throws IOException {
+        byte[] app0 = segment(0xFFE0, "JFIF\0".getBytes(StandardCharsets.US_ASCII), new byte[9]);
+
+        assertThat(orientationOf(jpeg(app0, exif(ByteOrder.BIG_ENDIAN, ORIENTATION_TAG, 3)))).isEqualTo(3);
+    }
+
+    @Test
+    void defaultsToUprightWithoutAnOrientationTag() throws IOException {
+        assertThat(orientationOf(jpeg(exif(ByteOrder.LITTLE_ENDIAN, OTHER_TAG, 6)))).isEqualTo(1);
+        assertThat(orientationOf(jpeg())).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresOutOfRangeValues() throws IOException {
+        assertThat(orientationOf(jpeg(exif(ByteOrder.LITTLE_ENDIAN, ORIENTATION_TAG, 9)))).isEqualTo(1);
+    }
+
+    @Test
+    void nonJpegAndTruncatedInputAreUpright() throws IOException {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+        assertThat(orientationOf(png)).isEqualTo(1);
+
+        byte[] full = jpeg(exif(ByteOrder.LITTLE_ENDIAN, ORIENTATION_TAG, 6));
+        assertThat(orientationOf(Arrays.copyOf(full, 12))).isEqualTo(1);
+        assertThat(orientationOf(new byte[0])).isEqualTo(1);
+    }
+
+    @Test
+    void prepareShrinksRotatesAndStripsAPhoneSizedPhoto() throws IOException {
+        // 12 MP landscape sensor image, stored sideways with a dark block in its top-left corner
+        BufferedImage photo = new BufferedImage(4032, 3024, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = photo.createGraphics();
+        try {
+            g.setColor(new Color(200, 230, 255));
+            g.fillRect(0, 0, photo.getWidth(), photo.getHeight());
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, 600, 600);
+        } finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageIO.write(photo, "jpeg", encoded);
+        byte[] withExif = withSegmentAfterSoi(encoded.toByteArray(), exif(ByteOrder.BIG_ENDIAN, ORIENTATION_TAG, 6));
+        OcrImagePreprocessor preprocessor = new OcrImagePreprocessor(true, 2048, 768, 0.8f, true);
+
+        OcrImagePreprocessor.PreparedImage prepared = preprocessor.prepare(
+                new MockMultipartFile("images", "page.jpg", "image/jpeg", withExif));
+
+        assertThat(prepared.mimeType()).isEqualTo(MimeTypeUtils.IMAGE_JPEG);
+        assertThat(hasSegment(prepared.data(), 0xFFE1)).isFalse();
+        BufferedImage page = ImageIO.read(new ByteArrayInputStream(prepared.data()));
+        // Upright portrait: short side at the target, long side in proportion
+        assertThat(page.getWidth()).isEqualTo(768);
+        assertThat(page.getHeight()).isEqualTo(1024);
+        assertThat(page.getColorModel().getNumComponents()).isEqualTo(1);
+        // Orientation 6 turns the stored top-left corner into the top-right one
+        assertThat(page.getRaster().getSample(page.getWidth() - 20, 20, 0)).isLessThan(60);
+        assertThat(page.getRaster().getSample(20, 20, 0)).isGreaterThan(150);
+    }
+
+    private static int orientationOf(byte[] bytes) throws IOException {
+        return OcrImagePreprocessor.readExifOrientation(new ByteArrayInputStream(bytes));
+    }
+
+    // SOI, the given segments, then start of scan
+    private static byte[] jpeg(byte[]... segments) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xD8});
+        for (byte[] segment : segments) {
+            out.writeBytes(segment);
+        }
+        out.writeBytes(new byte[]{(byte) 0xFF, (byte) 0xDA, 0, 2});
+        return out.toByteArray();
+    }
+
+    private static byte[] withSegmentAfterSoi(byte[] jpeg, byte[] segment) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.writeBytes(segment);
+        out.write(jpeg, 2, jpeg.length - 2);
+        return out.toByteArray();
+    }
+
+    // Whether any header segment before the image data has the marker
+    private static boolean hasSegment(byte[] jpeg, int marker) {
+        ByteBuffer in = ByteBuffer.wrap(jpeg);
+        in.getShort();
+        while (in.remaining() >= 4) {
+            int current = in.getShort() & 0xFFFF;
+            if (current == marker) {
+                return true;
+            }
+            if (current == 0xFFDA) {
+                return false;
+            }
+            int length = in.getShort() & 0xFFFF;
+            in.position(in.position() + length - 2);
+        }
+        return false;
+    }
+
+    // APP1 segment with a TIFF header and a one-entry IFD holding a SHORT
+    private static byte[] exif(ByteOrder order, int tag, int value) {
+        ByteBuffer tiff = ByteBuffer.allocate(8 + 2 + 12 + 4).order(order);
+        tiff.put(order == ByteOrder.LITTLE_ENDIAN ? new byte[]{'I', 'I'} : new byte[]{'M', 'M'});
+        tiff.putShort((short) 42);
+        tiff.putInt(8);
+        tiff.putShort((short) 1);
+        tiff.putShort((short) tag);
+        tiff.putShort((short) 3);
+        tiff.putInt(1);
+        tiff.putShort((short) value);
+        tiff.putShort((short) 0);
+        tiff.putInt(0);
+        return segment(0xFFE1, "Exif\0\0".getBytes(StandardCharsets.US_ASCII), tiff.array());
+    }
+
+    private static byte[] segment(int marker, byte[] header, byte[] body) {
+        int length = 2 + header.length + body.length;
+        ByteBuffer segment = ByteBuffer.allocate(2 + length);
+        segment.putShort((short) marker);
+        segment.putShort((short) length);
+        segment.put(header);
+        segment.put(body);
+        return segment.array();
+    }
+}
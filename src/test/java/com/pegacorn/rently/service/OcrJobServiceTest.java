@@ -0,0 +1,129 @@
+package com.pegacorn.rently.service;
+
+import com.pegacorn.rently.dto.ocr.OcrJobDto;
+import com.pegacorn.rently.exception.ApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OcrJobServiceTest {
+
+    private final OcrService ocrService = mock(OcrService.class);
+    private final List<String> ran = Collections.synchronizedList(new ArrayList<>());
+    private OcrJobService service;
+
+    @AfterEach
+    void stopWorkers() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void servesLandlordsInTurn() throws Exception {
+        stubOcr();
+        service = new OcrJobService(ocrService, 1, 20, 3, 60_000, 60_000, 20_000);
+        // Queue everything before the single worker starts, so the order is decided by the queue alone
+        submit("A", "A1");
+        submit("A", "A2");
+        submit("A", "A3");
+        submit("B", "B1");
+        submit("B", "B2");
+        submit("C", "C1");
+
+        service.start();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (service.stats().succeeded() < 6) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+        assertThat(ran).containsExactly("A1", "B1", "C1", "A2", "B2", "A3");
+    }
+
+    @Test
+    void finishedJobIsVisibleOnlyToItsLandlord() throws Exception {
+        stubOcr();
+        service = new OcrJobService(ocrService, 1, 20, 3, 60_000, 60_000, 20_000);
+        OcrJobDto job = submit("A", "A1");
+        service.start();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!service.getJob(job.id(), "A").status().equals("SUCCEEDED")) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+        assertThatThrownBy(() -> service.getJob(job.id(), "B"))
+                .isInstanceOfSatisfying(ApiException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+
+    @Test
+    void fullLandlordQueueIsRefusedWithRetryAfter() throws Exception {
+        stubOcr();
+        service = new OcrJobService(ocrService, 1, 20, 3, 60_000, 60_000, 20_000);
+        submit("A", "A1");
+        submit("A", "A2");
+        submit("A", "A3");
+        submit("B", "B1");
+
+        // Two landlords waiting for one worker at 20 s a job
+        assertThatThrownBy(() -> submit("A", "A4"))
+                .isInstanceOfSatisfying(ApiException.class, e -> {
+                    assertThat(e.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    assertThat(e.getRetryAfterSeconds()).isEqualTo(40L);
+                });
+        // Others still get in
+        submit("C", "C1");
+        assertThat(service.stats().queued()).isEqualTo(5);
+        assertThat(service.stats().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void fullQueueIsRefusedForEveryone() throws Exception {
+        stubOcr();
+        service = new OcrJobService(ocrService, 2, 2, 3, 60_000, 60_000, 20_000);
+        submit("A", "A1");
+        submit("B", "B1");
+
+        assertThatThrownBy(() -> submit("C", "C1"))
+                .isInstanceOfSatisfying(ApiException.class, e -> {
+                    assertThat(e.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    assertThat(e.getRetryAfterSeconds()).isEqualTo(20L);
+                });
+    }
+
+    // Each submission's single page carries its label; running a job records the label
+    private void stubOcr() throws Exception {
+        when(ocrService.prepareImages(anyList())).thenAnswer(invocation -> {
+            List<MultipartFile> files = invocation.getArgument(0);
+            return List.of(new OcrImagePreprocessor.PreparedImage(files.get(0).getBytes(), MimeTypeUtils.IMAGE_JPEG));
+        });
+        when(ocrService.scanAndStructurePrepared(any())).thenAnswer(invocation -> {
+            List<OcrImagePreprocessor.PreparedImage> pages = invocation.getArgument(0);
+            ran.add(new String(pages.get(0).data(), StandardCharsets.UTF_8));
+            return null;
+        });
+    }
+
+    private OcrJobDto submit(String landlordId, String label) throws Exception {
+        MultipartFile page = new MockMultipartFile("images", label + ".jpg", "image/jpeg",
+                label.getBytes(StandardCharsets.UTF_8));
+        return service.submit(OcrJobService.JobType.SCAN_AND_STRUCTURE, List.of(page), landlordId);
+    }
+}
@@ -0,0 +1,85 @@
+package com.pegacorn.rently.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCacheTest {
+
+    @Test
+    void loadsOnceAndServesHitsUntilExpired() throws InterruptedException {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 10, 50);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get("a", key -> key + loads.incrementAndGet())).isEqualTo("a1");
+        assertThat(cache.get("a", key -> key + loads.incrementAndGet())).isEqualTo("a1");
+        assertThat(loads).hasValue(1);
+
+        Thread.sleep(100);
+        assertThat(cache.getIfPresent("a")).isNull();
+        assertThat(cache.get("a", key -> key + loads.incrementAndGet())).isEqualTo("a2");
+
+        BoundedCache.Stats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(3);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedOnceFull() {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 2, 60_000);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        // Touch a so b becomes the eldest
+        assertThat(cache.getIfPresent("a")).isEqualTo("A");
+
+        cache.put("c", "C");
+
+        assertThat(cache.getIfPresent("b")).isNull();
+        assertThat(cache.getIfPresent("a")).isEqualTo("A");
+        assertThat(cache.getIfPresent("c")).isEqualTo("C");
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+        assertThat(cache.stats().size()).isEqualTo(2);
+    }
+
+    @Test
+    void nullFromLoaderIsNotCached() {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 10, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get("a", key -> {
+            loads.incrementAndGet();
+            return null;
+        })).isNull();
+        assertThat(cache.get("a", key -> "A" + loads.incrementAndGet())).isEqualTo("A2");
+    }
+
+    @Test
+    void loadOverlappingAnInvalidationIsReturnedButNotStored() {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 10, 60_000);
+
+        String loaded = cache.get("a", key -> {
+            // An update lands while the stale row is being read
+            cache.invalidate("other");
+            return "stale";
+        });
+
+        assertThat(loaded).isEqualTo("stale");
+        assertThat(cache.getIfPresent("a")).isNull();
+        assertThat(cache.get("a", key -> "fresh")).isEqualTo("fresh");
+        assertThat(cache.getIfPresent("a")).isEqualTo("fresh");
+    }
+
+    @Test
+    void invalidateIfDropsMatchingEntriesOnly() {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 10, 60_000);
+        cache.put("a", "keep");
+        cache.put("b", "drop");
+
+        cache.invalidateIf((key, value) -> value.equals("drop"));
+
+        assertThat(cache.getIfPresent("a")).isEqualTo("keep");
+        assertThat(cache.getIfPresent("b")).isNull();
+    }
+}
@@ -0,0 +1,85 @@
+package com.pegacorn.rently.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketLimiterTest {
+
+    @Test
+    void allowsBurstThenReportsWaitUntilNextToken() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, Duration.ofMinutes(1), 100);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+
+        assertThat(limiter.tryAcquire("a")).isBetween(59_000L, 60_000L);
+        // Other keys have their own bucket
+        assertThat(limiter.tryAcquire("b")).isZero();
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, Duration.ofMillis(50), 100);
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+
+        Thread.sleep(80);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void evictIdleDropsOnlyRefilledBuckets() throws InterruptedException {
+        TokenBucketLimiter quick = new TokenBucketLimiter(1, Duration.ofMillis(20), 100);
+        quick.tryAcquire("a");
+        Thread.sleep(50);
+        quick.evictIdle();
+        assertThat(quick.size()).isZero();
+
+        TokenBucketLimiter slow = new TokenBucketLimiter(1, Duration.ofMinutes(1), 100);
+        slow.tryAcquire("a");
+        slow.evictIdle();
+        assertThat(slow.size()).isEqualTo(1);
+        assertThat(slow.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void newKeyAtCapacityDisplacesLeastRecentlyUsedBucket() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, Duration.ofMinutes(1), 4);
+        for (String key : new String[]{"a", "b", "c", "d"}) {
+            assertThat(limiter.tryAcquire(key)).isZero();
+        }
+
+        // Every drained bucket is busy, so the oldest one goes
+        assertThat(limiter.tryAcquire("e")).isZero();
+        assertThat(limiter.size()).isEqualTo(4);
+        assertThat(limiter.tryAcquire("d")).isPositive();
+        assertThat(limiter.tryAcquire("a")).isZero();
+    }
+
+    @Test
+    void newKeyAtCapacityPrefersIdleBuckets() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, Duration.ofMillis(20), 2);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+        Thread.sleep(50);
+
+        assertThat(limiter.tryAcquire("c")).isZero();
+        assertThat(limiter.size()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void floodOfNewKeysIsNeverThrottledAsAGroup() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, Duration.ofMinutes(1), 50);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(limiter.tryAcquire("key-" + i)).isZero();
+        }
+        assertThat(limiter.size()).isLessThanOrEqualTo(50);
+    }
+}